@@ -0,0 +1,17 @@
+package com.kris.massey.benchmark;
+
+import com.kris.massey.ApiVersion;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+@Path("/")
+public class BenchmarkResource {
+
+    @GET
+    @ApiVersion(minVersion = Scenario.MIN_VERSION, maxVersion = Scenario.MAX_VERSION)
+    @Path("/versioned")
+    public String versioned() {
+        return "versioned";
+    }
+}
@@ -0,0 +1,84 @@
+package com.kris.massey.benchmark;
+
+import com.kris.massey.ApiVersionResourceFilterFactory;
+import com.kris.massey.ClientVersionTracker;
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the version filter with and without a {@link ClientVersionTracker}, for accepted requests from a rotating set
+ * of clients identified by an API key header.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientVersionTrackerBenchmark {
+
+    private static final int CLIENTS = 1024;
+
+    @Param({"true", "false"})
+    private boolean tracked;
+
+    private ClientVersionTracker tracker;
+    private ContainerRequestFilter filter;
+    private final ContainerRequest[] requests = new ContainerRequest[CLIENTS];
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        Method method = BenchmarkResource.class.getMethod("versioned");
+        AbstractResourceMethod resourceMethod = new AbstractResourceMethod(new AbstractResource(BenchmarkResource.class), method,
+                method.getReturnType(), method.getGenericReturnType(), HttpMethod.GET, method.getAnnotations());
+
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        if (tracked) {
+            tracker = new ClientVersionTracker("Api-Key");
+            factory.setClientVersionTracker(tracker);
+        }
+        filter = factory.create(resourceMethod).get(0).getRequestFilter();
+
+        for (int i = 0; i < CLIENTS; i++) {
+            requests[i] = Requests.get(Scenario.ACCEPT);
+            requests[i].getRequestHeaders().putSingle("Api-Key", "client-" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (tracker != null) {
+            tracker.close();
+        }
+    }
+
+    @Benchmark
+    public Object filter() {
+        next = (next + 1) & (CLIENTS - 1);
+        try {
+            return filter.filter(requests[next]);
+        } catch (WebApplicationException e) {
+            return e;
+        }
+    }
+}
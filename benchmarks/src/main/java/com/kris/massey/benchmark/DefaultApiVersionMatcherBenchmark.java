@@ -0,0 +1,61 @@
+package com.kris.massey.benchmark;
+
+import com.kris.massey.ApiVersion;
+import com.kris.massey.DefaultApiVersionMatcher;
+import com.kris.massey.VersionOutcome;
+import com.sun.jersey.spi.container.ContainerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link DefaultApiVersionMatcher#supportsRequestedVersion} on its own, and of reading and checking a semantic
+ * version.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DefaultApiVersionMatcherBenchmark {
+
+    @Param
+    private Scenario scenario;
+
+    private DefaultApiVersionMatcher matcher;
+    private ContainerRequest request;
+
+    @Setup
+    public void setUp() {
+        // Lower case, as ApiVersionResourceFilterFactory configures it, so Jersey's header lookup does not allocate.
+        matcher = new DefaultApiVersionMatcher(Requests.VERSION_HEADER_NAME.toLowerCase(Locale.ENGLISH));
+        request = Requests.get(scenario);
+    }
+
+    @Benchmark
+    public boolean supportsRequestedVersion() {
+        return matcher.supportsRequestedVersion(true, Scenario.MIN_VERSION, Scenario.MAX_VERSION, request);
+    }
+
+    @Benchmark
+    public boolean supportsRequestedVersionWithoutLimits() {
+        return matcher.supportsRequestedVersion(true, ApiVersion.ALL_VERSION_SUPPORTED, ApiVersion.ALL_VERSION_SUPPORTED, request);
+    }
+
+    @Benchmark
+    public VersionOutcome checkSemantic() {
+        return matcher.checkSemantic(true, Scenario.MIN_SEMANTIC_VERSION, Scenario.MAX_SEMANTIC_VERSION, matcher.requestedSemanticVersion(request));
+    }
+}
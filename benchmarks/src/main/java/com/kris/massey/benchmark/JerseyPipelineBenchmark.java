@@ -0,0 +1,99 @@
+package com.kris.massey.benchmark;
+
+import com.kris.massey.ApiVersionResourceFilterFactory;
+import com.sun.jersey.api.core.DefaultResourceConfig;
+import com.sun.jersey.api.core.ResourceConfig;
+import com.sun.jersey.spi.container.ContainerResponse;
+import com.sun.jersey.spi.container.ContainerResponseWriter;
+import com.sun.jersey.spi.container.WebApplication;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cost of a whole request through an in-memory Jersey application, with and without
+ * {@link ApiVersionResourceFilterFactory} registered. Without the factory every scenario reaches the resource method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JerseyPipelineBenchmark {
+
+    @Param
+    private Scenario scenario;
+
+    @Param({"true", "false"})
+    private boolean versionFilter;
+
+    private WebApplication webApplication;
+    private StatusRecordingWriter responseWriter;
+
+    @Setup
+    public void setUp() {
+        Logger.getLogger("com.sun.jersey").setLevel(Level.WARNING);
+
+        ResourceConfig resourceConfig = new DefaultResourceConfig(BenchmarkResource.class);
+        if (versionFilter) {
+            resourceConfig.getProperties().put(ResourceConfig.PROPERTY_RESOURCE_FILTER_FACTORIES, ApiVersionResourceFilterFactory.class.getName());
+        }
+
+        webApplication = WebApplicationFactory.createWebApplication();
+        webApplication.initiate(resourceConfig);
+        responseWriter = new StatusRecordingWriter();
+    }
+
+    @TearDown
+    public void tearDown() {
+        webApplication.destroy();
+    }
+
+    @Benchmark
+    public int handleRequest() throws IOException {
+        webApplication.handleRequest(Requests.get(webApplication, scenario), responseWriter);
+        return responseWriter.status;
+    }
+
+    private static class StatusRecordingWriter implements ContainerResponseWriter {
+
+        private final OutputStream discard = new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        };
+
+        private int status;
+
+        @Override
+        public OutputStream writeStatusAndHeaders(long contentLength, ContainerResponse response) {
+            status = response.getStatus();
+            return discard;
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.kris.massey.benchmark;
+
+import com.kris.massey.MediaTypeVersionMatcher;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link MediaTypeVersionMatcher} reading the version from a vendor media type in the Accept header, next to
+ * reading it through Jersey's own media type parsing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MediaTypeVersionMatcherBenchmark {
+
+    @Param
+    private Scenario scenario;
+
+    private MediaTypeVersionMatcher matcher;
+    private ContainerRequest request;
+
+    @Setup
+    public void setUp() {
+        matcher = new MediaTypeVersionMatcher();
+        String accept = scenario.versionHeader() == null
+                ? "application/vnd.acme+json"
+                : "application/vnd.acme+json; charset=utf-8; version=" + scenario.versionHeader();
+        request = Requests.get(WebApplicationFactory.createWebApplication(), HttpHeaders.ACCEPT, accept);
+    }
+
+    @Benchmark
+    public boolean supportsRequestedVersion() {
+        return matcher.supportsRequestedVersion(true, Scenario.MIN_VERSION, Scenario.MAX_VERSION, request);
+    }
+
+    @Benchmark
+    public String jerseyMediaTypeParameter() {
+        return MediaType.valueOf(request.getHeaderValue(HttpHeaders.ACCEPT)).getParameters().get(MediaTypeVersionMatcher.DEFAULT_PARAMETER_NAME);
+    }
+}
@@ -0,0 +1,43 @@
+package com.kris.massey.benchmark;
+
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.WebApplication;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+
+/**
+ * Builds synthetic Jersey requests without a running container.
+ */
+final class Requests {
+
+    static final String VERSION_HEADER_NAME = "Version";
+
+    private static final URI BASE_URI = URI.create("http://localhost/");
+    private static final URI REQUEST_URI = BASE_URI.resolve("versioned");
+
+    private Requests() {
+    }
+
+    static ContainerRequest get(Scenario scenario) {
+        return get(WebApplicationFactory.createWebApplication(), scenario);
+    }
+
+    static ContainerRequest get(WebApplication webApplication, Scenario scenario) {
+        return get(webApplication, VERSION_HEADER_NAME, scenario.versionHeader());
+    }
+
+    /**
+     * @return a request carrying the header, or no header at all when the value is null.
+     */
+    static ContainerRequest get(WebApplication webApplication, String headerName, String headerValue) {
+        InBoundHeaders headers = new InBoundHeaders();
+        if (headerValue != null) {
+            headers.putSingle(headerName, headerValue);
+        }
+
+        return new ContainerRequest(webApplication, "GET", BASE_URI, REQUEST_URI, headers, new ByteArrayInputStream(new byte[0]));
+    }
+}
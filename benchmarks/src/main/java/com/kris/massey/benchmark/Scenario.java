@@ -0,0 +1,29 @@
+package com.kris.massey.benchmark;
+
+/**
+ * The kinds of request every benchmark is run with, against a method supporting versions 2 to 3 with the header required.
+ */
+public enum Scenario {
+
+    ACCEPT("2.5"),
+    REJECT("4"),
+    MISSING(null),
+    MALFORMED("INVALID");
+
+    static final float MIN_VERSION = 2;
+    static final float MAX_VERSION = 3;
+
+    // The same limits as semantic versions 2.0.0 and 3.0.0, packed with 21 bits per component, major first.
+    static final long MIN_SEMANTIC_VERSION = 2L << 42;
+    static final long MAX_SEMANTIC_VERSION = 3L << 42;
+
+    private final String versionHeader;
+
+    Scenario(String versionHeader) {
+        this.versionHeader = versionHeader;
+    }
+
+    String versionHeader() {
+        return versionHeader;
+    }
+}
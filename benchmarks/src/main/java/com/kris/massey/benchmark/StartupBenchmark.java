@@ -0,0 +1,88 @@
+package com.kris.massey.benchmark;
+
+import com.kris.massey.ApiVersionResourceFilterFactory;
+import com.sun.jersey.api.core.DefaultResourceConfig;
+import com.sun.jersey.api.core.ResourceConfig;
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.api.model.AbstractSubResourceMethod;
+import com.sun.jersey.server.impl.modelapi.annotation.IntrospectionModeller;
+import com.sun.jersey.spi.container.WebApplication;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cold start cost of {@link ApiVersionResourceFilterFactory} over {@link StartupResources}, with the generated
+ * {@code ApiVersionIndex} and with it disabled so every method is reflected over. Each fork measures a single, cold
+ * invocation, as a freshly started service would.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    private static final String INDEX_DISABLED_PROPERTY = "com.kris.massey.versionIndex.disabled";
+
+    @Param({"true", "false"})
+    private boolean index;
+
+    private ApiVersionResourceFilterFactory factory;
+    private List<AbstractResourceMethod> resourceMethods;
+
+    @Setup
+    public void setUp() {
+        Logger.getLogger("com.sun.jersey").setLevel(Level.WARNING);
+        System.setProperty(INDEX_DISABLED_PROPERTY, String.valueOf(!index));
+        factory = new ApiVersionResourceFilterFactory();
+
+        // Jersey builds its model before any filter is created, so building it here leaves only the factory's own work.
+        resourceMethods = new ArrayList<AbstractResourceMethod>();
+        for (Class<?> resourceClass : StartupResources.CLASSES) {
+            AbstractResource resource = IntrospectionModeller.createResource(resourceClass);
+            resourceMethods.addAll(resource.getResourceMethods());
+            for (AbstractSubResourceMethod subResourceMethod : resource.getSubResourceMethods()) {
+                resourceMethods.add(subResourceMethod);
+            }
+        }
+    }
+
+    @Benchmark
+    public int createFilters() {
+        int filters = 0;
+
+        for (AbstractResourceMethod resourceMethod : resourceMethods) {
+            filters += factory.create(resourceMethod).size();
+        }
+
+        return filters;
+    }
+
+    @Benchmark
+    public WebApplication initiate() {
+        ResourceConfig resourceConfig = new DefaultResourceConfig(StartupResources.CLASSES);
+        resourceConfig.getProperties().put(ResourceConfig.PROPERTY_RESOURCE_FILTER_FACTORIES, ApiVersionResourceFilterFactory.class.getName());
+
+        WebApplication webApplication = WebApplicationFactory.createWebApplication();
+        webApplication.initiate(resourceConfig);
+        return webApplication;
+    }
+}
@@ -0,0 +1,1520 @@
+package com.kris.massey.benchmark;
+
+import com.kris.massey.ApiVersion;
+import com.kris.massey.ApiVersionAlternative;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+/**
+ * A service sized application for {@link StartupBenchmark}: {@value #RESOURCE_CLASSES} resource classes with
+ * {@value #RESOURCE_METHODS} versioned methods each, one of which has a version specific alternative.
+ */
+public final class StartupResources {
+
+    static final int RESOURCE_CLASSES = 8;
+    static final int RESOURCE_METHODS = 25;
+
+    static final Class<?>[] CLASSES = {
+            Resource0.class,
+            Resource1.class,
+            Resource2.class,
+            Resource3.class,
+            Resource4.class,
+            Resource5.class,
+            Resource6.class,
+            Resource7.class
+    };
+
+    private StartupResources() {
+    }
+
+    @Path("/resource0")
+    @ApiVersion(minVersion = 1)
+    public static class Resource0 {
+
+        @GET
+        @ApiVersion(minVersion = 2)
+        @Path("/method0/{id}")
+        public String method0(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method1/{id}")
+        public String method1(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method2/{id}")
+        public String method2(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method3/{id}")
+        public String method3(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method4/{id}")
+        public String method4(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method5/{id}")
+        public String method5(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method6/{id}")
+        public String method6(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method7/{id}")
+        public String method7(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method8/{id}")
+        public String method8(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method9/{id}")
+        public String method9(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method10/{id}")
+        public String method10(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method11/{id}")
+        public String method11(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method12/{id}")
+        public String method12(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method13/{id}")
+        public String method13(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method14/{id}")
+        public String method14(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method15/{id}")
+        public String method15(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method16/{id}")
+        public String method16(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method17/{id}")
+        public String method17(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method18/{id}")
+        public String method18(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method19/{id}")
+        public String method19(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method20/{id}")
+        public String method20(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method21/{id}")
+        public String method21(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method22/{id}")
+        public String method22(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method23/{id}")
+        public String method23(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method24/{id}")
+        public String method24(@PathParam("id") String id) {
+            return id;
+        }
+
+        @ApiVersion(maxVersion = 1.9f)
+        @ApiVersionAlternative("method0")
+        public String legacyMethod0(@PathParam("id") String id) {
+            return id;
+        }
+    }
+
+    @Path("/resource1")
+    @ApiVersion(minVersion = 1)
+    public static class Resource1 {
+
+        @GET
+        @ApiVersion(minVersion = 2)
+        @Path("/method0/{id}")
+        public String method0(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method1/{id}")
+        public String method1(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method2/{id}")
+        public String method2(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method3/{id}")
+        public String method3(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method4/{id}")
+        public String method4(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method5/{id}")
+        public String method5(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method6/{id}")
+        public String method6(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method7/{id}")
+        public String method7(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method8/{id}")
+        public String method8(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method9/{id}")
+        public String method9(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method10/{id}")
+        public String method10(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method11/{id}")
+        public String method11(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method12/{id}")
+        public String method12(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method13/{id}")
+        public String method13(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method14/{id}")
+        public String method14(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method15/{id}")
+        public String method15(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method16/{id}")
+        public String method16(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method17/{id}")
+        public String method17(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method18/{id}")
+        public String method18(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method19/{id}")
+        public String method19(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method20/{id}")
+        public String method20(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method21/{id}")
+        public String method21(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method22/{id}")
+        public String method22(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method23/{id}")
+        public String method23(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method24/{id}")
+        public String method24(@PathParam("id") String id) {
+            return id;
+        }
+
+        @ApiVersion(maxVersion = 1.9f)
+        @ApiVersionAlternative("method0")
+        public String legacyMethod0(@PathParam("id") String id) {
+            return id;
+        }
+    }
+
+    @Path("/resource2")
+    @ApiVersion(minVersion = 1)
+    public static class Resource2 {
+
+        @GET
+        @ApiVersion(minVersion = 2)
+        @Path("/method0/{id}")
+        public String method0(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method1/{id}")
+        public String method1(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method2/{id}")
+        public String method2(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method3/{id}")
+        public String method3(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method4/{id}")
+        public String method4(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method5/{id}")
+        public String method5(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method6/{id}")
+        public String method6(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method7/{id}")
+        public String method7(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method8/{id}")
+        public String method8(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method9/{id}")
+        public String method9(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method10/{id}")
+        public String method10(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method11/{id}")
+        public String method11(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method12/{id}")
+        public String method12(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method13/{id}")
+        public String method13(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method14/{id}")
+        public String method14(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method15/{id}")
+        public String method15(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method16/{id}")
+        public String method16(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method17/{id}")
+        public String method17(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method18/{id}")
+        public String method18(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method19/{id}")
+        public String method19(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method20/{id}")
+        public String method20(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method21/{id}")
+        public String method21(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method22/{id}")
+        public String method22(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method23/{id}")
+        public String method23(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method24/{id}")
+        public String method24(@PathParam("id") String id) {
+            return id;
+        }
+
+        @ApiVersion(maxVersion = 1.9f)
+        @ApiVersionAlternative("method0")
+        public String legacyMethod0(@PathParam("id") String id) {
+            return id;
+        }
+    }
+
+    @Path("/resource3")
+    @ApiVersion(minVersion = 1)
+    public static class Resource3 {
+
+        @GET
+        @ApiVersion(minVersion = 2)
+        @Path("/method0/{id}")
+        public String method0(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method1/{id}")
+        public String method1(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method2/{id}")
+        public String method2(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method3/{id}")
+        public String method3(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method4/{id}")
+        public String method4(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method5/{id}")
+        public String method5(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method6/{id}")
+        public String method6(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method7/{id}")
+        public String method7(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method8/{id}")
+        public String method8(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method9/{id}")
+        public String method9(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method10/{id}")
+        public String method10(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method11/{id}")
+        public String method11(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method12/{id}")
+        public String method12(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method13/{id}")
+        public String method13(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method14/{id}")
+        public String method14(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method15/{id}")
+        public String method15(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method16/{id}")
+        public String method16(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method17/{id}")
+        public String method17(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method18/{id}")
+        public String method18(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method19/{id}")
+        public String method19(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method20/{id}")
+        public String method20(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method21/{id}")
+        public String method21(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method22/{id}")
+        public String method22(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method23/{id}")
+        public String method23(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method24/{id}")
+        public String method24(@PathParam("id") String id) {
+            return id;
+        }
+
+        @ApiVersion(maxVersion = 1.9f)
+        @ApiVersionAlternative("method0")
+        public String legacyMethod0(@PathParam("id") String id) {
+            return id;
+        }
+    }
+
+    @Path("/resource4")
+    @ApiVersion(minVersion = 1)
+    public static class Resource4 {
+
+        @GET
+        @ApiVersion(minVersion = 2)
+        @Path("/method0/{id}")
+        public String method0(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method1/{id}")
+        public String method1(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method2/{id}")
+        public String method2(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method3/{id}")
+        public String method3(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method4/{id}")
+        public String method4(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method5/{id}")
+        public String method5(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method6/{id}")
+        public String method6(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method7/{id}")
+        public String method7(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method8/{id}")
+        public String method8(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method9/{id}")
+        public String method9(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method10/{id}")
+        public String method10(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method11/{id}")
+        public String method11(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method12/{id}")
+        public String method12(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method13/{id}")
+        public String method13(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method14/{id}")
+        public String method14(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method15/{id}")
+        public String method15(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method16/{id}")
+        public String method16(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method17/{id}")
+        public String method17(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method18/{id}")
+        public String method18(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method19/{id}")
+        public String method19(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method20/{id}")
+        public String method20(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method21/{id}")
+        public String method21(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method22/{id}")
+        public String method22(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method23/{id}")
+        public String method23(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method24/{id}")
+        public String method24(@PathParam("id") String id) {
+            return id;
+        }
+
+        @ApiVersion(maxVersion = 1.9f)
+        @ApiVersionAlternative("method0")
+        public String legacyMethod0(@PathParam("id") String id) {
+            return id;
+        }
+    }
+
+    @Path("/resource5")
+    @ApiVersion(minVersion = 1)
+    public static class Resource5 {
+
+        @GET
+        @ApiVersion(minVersion = 2)
+        @Path("/method0/{id}")
+        public String method0(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method1/{id}")
+        public String method1(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method2/{id}")
+        public String method2(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method3/{id}")
+        public String method3(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method4/{id}")
+        public String method4(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method5/{id}")
+        public String method5(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method6/{id}")
+        public String method6(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method7/{id}")
+        public String method7(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method8/{id}")
+        public String method8(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method9/{id}")
+        public String method9(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method10/{id}")
+        public String method10(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method11/{id}")
+        public String method11(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method12/{id}")
+        public String method12(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method13/{id}")
+        public String method13(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method14/{id}")
+        public String method14(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method15/{id}")
+        public String method15(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method16/{id}")
+        public String method16(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method17/{id}")
+        public String method17(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method18/{id}")
+        public String method18(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method19/{id}")
+        public String method19(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method20/{id}")
+        public String method20(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method21/{id}")
+        public String method21(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method22/{id}")
+        public String method22(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method23/{id}")
+        public String method23(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method24/{id}")
+        public String method24(@PathParam("id") String id) {
+            return id;
+        }
+
+        @ApiVersion(maxVersion = 1.9f)
+        @ApiVersionAlternative("method0")
+        public String legacyMethod0(@PathParam("id") String id) {
+            return id;
+        }
+    }
+
+    @Path("/resource6")
+    @ApiVersion(minVersion = 1)
+    public static class Resource6 {
+
+        @GET
+        @ApiVersion(minVersion = 2)
+        @Path("/method0/{id}")
+        public String method0(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method1/{id}")
+        public String method1(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method2/{id}")
+        public String method2(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method3/{id}")
+        public String method3(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method4/{id}")
+        public String method4(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method5/{id}")
+        public String method5(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method6/{id}")
+        public String method6(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method7/{id}")
+        public String method7(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method8/{id}")
+        public String method8(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method9/{id}")
+        public String method9(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method10/{id}")
+        public String method10(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method11/{id}")
+        public String method11(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method12/{id}")
+        public String method12(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method13/{id}")
+        public String method13(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method14/{id}")
+        public String method14(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method15/{id}")
+        public String method15(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method16/{id}")
+        public String method16(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method17/{id}")
+        public String method17(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method18/{id}")
+        public String method18(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method19/{id}")
+        public String method19(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method20/{id}")
+        public String method20(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method21/{id}")
+        public String method21(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method22/{id}")
+        public String method22(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method23/{id}")
+        public String method23(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method24/{id}")
+        public String method24(@PathParam("id") String id) {
+            return id;
+        }
+
+        @ApiVersion(maxVersion = 1.9f)
+        @ApiVersionAlternative("method0")
+        public String legacyMethod0(@PathParam("id") String id) {
+            return id;
+        }
+    }
+
+    @Path("/resource7")
+    @ApiVersion(minVersion = 1)
+    public static class Resource7 {
+
+        @GET
+        @ApiVersion(minVersion = 2)
+        @Path("/method0/{id}")
+        public String method0(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method1/{id}")
+        public String method1(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method2/{id}")
+        public String method2(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method3/{id}")
+        public String method3(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method4/{id}")
+        public String method4(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method5/{id}")
+        public String method5(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method6/{id}")
+        public String method6(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method7/{id}")
+        public String method7(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method8/{id}")
+        public String method8(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method9/{id}")
+        public String method9(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method10/{id}")
+        public String method10(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method11/{id}")
+        public String method11(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method12/{id}")
+        public String method12(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method13/{id}")
+        public String method13(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method14/{id}")
+        public String method14(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method15/{id}")
+        public String method15(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method16/{id}")
+        public String method16(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method17/{id}")
+        public String method17(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method18/{id}")
+        public String method18(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method19/{id}")
+        public String method19(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 3, maxVersion = 6)
+        @Path("/method20/{id}")
+        public String method20(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method21/{id}")
+        public String method21(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 2, maxVersion = 5)
+        @Path("/method22/{id}")
+        public String method22(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(headerRequired = false)
+        @Path("/method23/{id}")
+        public String method23(@PathParam("id") String id) {
+            return id;
+        }
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 4)
+        @Path("/method24/{id}")
+        public String method24(@PathParam("id") String id) {
+            return id;
+        }
+
+        @ApiVersion(maxVersion = 1.9f)
+        @ApiVersionAlternative("method0")
+        public String legacyMethod0(@PathParam("id") String id) {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.kris.massey.benchmark;
+
+import com.kris.massey.ApiVersionResourceFilterFactory;
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the request filter {@link ApiVersionResourceFilterFactory} attaches to a resource method, including building
+ * and throwing the rejection for requests it does not accept.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VersionFilterBenchmark {
+
+    @Param
+    private Scenario scenario;
+
+    private ContainerRequestFilter filter;
+    private ContainerRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        Method method = BenchmarkResource.class.getMethod("versioned");
+        AbstractResourceMethod resourceMethod = new AbstractResourceMethod(new AbstractResource(BenchmarkResource.class), method,
+                method.getReturnType(), method.getGenericReturnType(), HttpMethod.GET, method.getAnnotations());
+
+        filter = new ApiVersionResourceFilterFactory().create(resourceMethod).get(0).getRequestFilter();
+        request = Requests.get(scenario);
+    }
+
+    @Benchmark
+    public Object filter() {
+        try {
+            return filter.filter(request);
+        } catch (WebApplicationException e) {
+            return e;
+        }
+    }
+}
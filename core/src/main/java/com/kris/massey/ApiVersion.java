@@ -0,0 +1,28 @@
+package com.kris.massey;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the versions a resource method supports. On a resource class it applies to every resource method of the
+ * class, and an annotation on a method can only narrow the class range: the higher minimum and the lower maximum apply,
+ * and the header is only required if both annotations require it, so {@code headerRequired = false} on a class applies
+ * to every method of the class, and on a method to that method alone.
+ *
+ * Versions are floats by default, so "2.10" is the same as "2.1". Setting {@link #minSemanticVersion} or
+ * {@link #maxSemanticVersion} instead compares major.minor[.patch] semantic versions, in the annotation and in the
+ * request header alike. The two kinds cannot be mixed on one method or between a method and its class.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface ApiVersion {
+    final float ALL_VERSION_SUPPORTED = 0;
+
+    boolean headerRequired() default true;
+    float minVersion() default ALL_VERSION_SUPPORTED;
+    float maxVersion() default ALL_VERSION_SUPPORTED;
+    String minSemanticVersion() default "";
+    String maxSemanticVersion() default "";
+}
@@ -0,0 +1,33 @@
+package com.kris.massey;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method as a version specific implementation of the JAX-RS resource method named by {@link #value()}.
+ *
+ * The alternative must declare an {@link ApiVersion} range that does not overlap the resource method's range or the
+ * ranges of its other alternatives, and must take exactly the same parameters as the resource method, which also picks
+ * the overload it belongs to when several resource methods share the name. It must not carry {@code @Path} or an HTTP
+ * method annotation itself; it shares both with the resource method it routes for. Requests are routed to the
+ * implementation whose range contains the requested version by {@code ApiVersionRoutingDispatchAdapter}.
+ *
+ * <pre>
+ * &#64;GET
+ * &#64;ApiVersion(minVersion = 2)
+ * &#64;Path("/widgets")
+ * public Widgets widgets() { ... }
+ *
+ * &#64;ApiVersion(maxVersion = 1.9f)
+ * &#64;ApiVersionAlternative("widgets")
+ * public Widgets legacyWidgets() { ... }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD })
+public @interface ApiVersionAlternative {
+
+    String value();
+}
@@ -0,0 +1,35 @@
+package com.kris.massey;
+
+/**
+ * Versioning metadata of one resource class, generated at build time by {@link ApiVersionIndexProcessor}.
+ *
+ * The generated class is named after the binary name of the resource class followed by {@link #CLASS_NAME_SUFFIX}
+ * and lets {@code ApiVersionResourceFilterFactory} build its filters without reflecting over every resource method.
+ * Classes without an index are still handled through reflection.
+ */
+public interface ApiVersionIndex {
+
+    String CLASS_NAME_SUFFIX = "$$ApiVersionIndex";
+
+    void describe(Visitor visitor);
+
+    interface Visitor {
+
+        /**
+         * The {@link ApiVersion} declared on the resource class.
+         */
+        void type(boolean headerRequired, float minVersion, float maxVersion, String minSemanticVersion, String maxSemanticVersion);
+
+        /**
+         * The {@link ApiVersion} in effect for a public method, identified by its name and erased parameter types, for
+         * example {@code "widgets(java.lang.String,int[])"}.
+         */
+        void method(String signature, boolean headerRequired, float minVersion, float maxVersion,
+                    String minSemanticVersion, String maxSemanticVersion);
+
+        /**
+         * A resource method named by at least one {@link ApiVersionAlternative}.
+         */
+        void alternative(String resourceMethodName);
+    }
+}
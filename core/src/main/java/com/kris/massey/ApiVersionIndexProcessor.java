@@ -0,0 +1,263 @@
+package com.kris.massey;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Generates an {@link ApiVersionIndex} for every class that declares, or has methods that declare, {@link ApiVersion},
+ * {@link ApiVersionAlternative} or {@code @Path}.
+ *
+ * The processor is not registered as a service, so it only runs when a build names it, as with javac's
+ * {@code -processor com.kris.massey.ApiVersionIndexProcessor}. Method
+ * annotations are resolved the way Jersey resolves them: a method without JAX-RS annotations of its own takes those of
+ * the first method it overrides that has some.
+ */
+@SupportedAnnotationTypes({"com.kris.massey.ApiVersion", "com.kris.massey.ApiVersionAlternative", "javax.ws.rs.Path"})
+public class ApiVersionIndexProcessor extends AbstractProcessor {
+
+    private static final String JAX_RS_PACKAGE = "javax.ws.rs.";
+    private static final String HTTP_METHOD = "javax.ws.rs.HttpMethod";
+    private static final String[] GENERATED_ANNOTATIONS = {"javax.annotation.processing.Generated", "javax.annotation.Generated"};
+
+    private final Set<String> indexedClasses = new HashSet<String>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Set<TypeElement> resourceClasses = new LinkedHashSet<TypeElement>();
+
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Element type = element.getKind() == ElementKind.METHOD ? element.getEnclosingElement() : element;
+
+                if (type.getKind() == ElementKind.CLASS) {
+                    resourceClasses.add((TypeElement) type);
+                }
+            }
+        }
+
+        for (TypeElement resourceClass : resourceClasses) {
+            String binaryName = processingEnv.getElementUtils().getBinaryName(resourceClass).toString();
+
+            if (indexedClasses.add(binaryName)) {
+                writeIndex(resourceClass, binaryName);
+            }
+        }
+
+        // Other processors may want to see @Path too.
+        return false;
+    }
+
+    private void writeIndex(TypeElement resourceClass, String binaryName) {
+        Elements elements = processingEnv.getElementUtils();
+        String packageName = elements.getPackageOf(resourceClass).getQualifiedName().toString();
+        String indexName = binaryName + ApiVersionIndex.CLASS_NAME_SUFFIX;
+        String indexSimpleName = packageName.isEmpty() ? indexName : indexName.substring(packageName.length() + 1);
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        String generated = generatedAnnotation();
+        if (generated != null) {
+            source.append('@').append(generated).append("(\"").append(getClass().getName()).append("\")\n");
+        }
+        source.append("public final class ").append(indexSimpleName).append(" implements ")
+                .append(ApiVersionIndex.class.getCanonicalName()).append(" {\n\n")
+                .append("    @Override\n")
+                .append("    public void describe(").append(ApiVersionIndex.Visitor.class.getCanonicalName()).append(" visitor) {\n");
+
+        AnnotationMirror typeVersion = annotation(resourceClass, ApiVersion.class.getName());
+        if (typeVersion != null) {
+            source.append("        visitor.type(").append(rangeArguments(typeVersion)).append(");\n");
+        }
+
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(resourceClass))) {
+            if (!method.getModifiers().contains(Modifier.PUBLIC) || method.getModifiers().contains(Modifier.STATIC)
+                    || method.getEnclosingElement().equals(elements.getTypeElement(Object.class.getName()))) {
+                continue;
+            }
+
+            AnnotationMirror methodVersion = annotation(annotatedMethod(resourceClass, method), ApiVersion.class.getName());
+            if (methodVersion != null) {
+                source.append("        visitor.method(").append(elements.getConstantExpression(signatureOf(method)))
+                        .append(", ").append(rangeArguments(methodVersion)).append(");\n");
+            }
+
+            AnnotationMirror alternative = annotation(method, ApiVersionAlternative.class.getName());
+            if (alternative != null) {
+                source.append("        visitor.alternative(")
+                        .append(elements.getConstantExpression(annotationValue(alternative, "value"))).append(");\n");
+            }
+        }
+
+        source.append("    }\n}\n");
+
+        try {
+            Writer writer = processingEnv.getFiler().createSourceFile(indexName, resourceClass).openWriter();
+            try {
+                writer.write(source.toString());
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Cannot write @ApiVersion index " + indexName + ": " + e.getMessage(), resourceClass);
+        }
+    }
+
+    /**
+     * @return the name of the @Generated annotation available to the compiled code, which moved in Java 9, or null.
+     */
+    private String generatedAnnotation() {
+        for (String name : GENERATED_ANNOTATIONS) {
+            if (processingEnv.getElementUtils().getTypeElement(name) != null) {
+                return name;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the method whose annotations Jersey uses for the given method, which is the method itself unless it has
+     * no JAX-RS annotations and overrides one that does.
+     */
+    private ExecutableElement annotatedMethod(TypeElement resourceClass, ExecutableElement method) {
+        if (hasJaxRsAnnotations(method)) {
+            return method;
+        }
+
+        Types types = processingEnv.getTypeUtils();
+        Deque<TypeMirror> supertypes = new ArrayDeque<TypeMirror>(types.directSupertypes(method.getEnclosingElement().asType()));
+
+        while (!supertypes.isEmpty()) {
+            TypeMirror supertype = supertypes.removeFirst();
+            if (supertype.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+
+            for (ExecutableElement candidate : ElementFilter.methodsIn(((DeclaredType) supertype).asElement().getEnclosedElements())) {
+                if (processingEnv.getElementUtils().overrides(method, candidate, resourceClass) && hasJaxRsAnnotations(candidate)) {
+                    return candidate;
+                }
+            }
+
+            supertypes.addAll(types.directSupertypes(supertype));
+        }
+
+        return method;
+    }
+
+    private static boolean hasJaxRsAnnotations(ExecutableElement method) {
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            Element annotationType = annotation.getAnnotationType().asElement();
+
+            if (isJaxRsAnnotation(annotation) || annotation(annotationType, HTTP_METHOD) != null) {
+                return true;
+            }
+        }
+
+        for (VariableElement parameter : method.getParameters()) {
+            for (AnnotationMirror annotation : parameter.getAnnotationMirrors()) {
+                if (isJaxRsAnnotation(annotation)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isJaxRsAnnotation(AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString().startsWith(JAX_RS_PACKAGE);
+    }
+
+    private static AnnotationMirror annotation(Element element, String annotationName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName)) {
+                return annotation;
+            }
+        }
+
+        return null;
+    }
+
+    private String rangeArguments(AnnotationMirror apiVersion) {
+        Elements elements = processingEnv.getElementUtils();
+
+        return elements.getConstantExpression(annotationValue(apiVersion, "headerRequired"))
+                + ", " + elements.getConstantExpression(annotationValue(apiVersion, "minVersion"))
+                + ", " + elements.getConstantExpression(annotationValue(apiVersion, "maxVersion"))
+                + ", " + elements.getConstantExpression(annotationValue(apiVersion, "minSemanticVersion"))
+                + ", " + elements.getConstantExpression(annotationValue(apiVersion, "maxSemanticVersion"));
+    }
+
+    private Object annotationValue(AnnotationMirror annotation, String name) {
+        for (ExecutableElement element : ElementFilter.methodsIn(annotation.getAnnotationType().asElement().getEnclosedElements())) {
+            if (element.getSimpleName().contentEquals(name)) {
+                return processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).get(element).getValue();
+            }
+        }
+
+        throw new IllegalArgumentException("No " + name + " on " + annotation);
+    }
+
+    /**
+     * @return the signature of the method in the form used by {@link VersionIndex#signatureOf(java.lang.reflect.Method)}.
+     */
+    private String signatureOf(ExecutableElement method) {
+        StringBuilder signature = new StringBuilder(method.getSimpleName()).append('(');
+        List<? extends VariableElement> parameters = method.getParameters();
+
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            appendTypeName(signature, processingEnv.getTypeUtils().erasure(parameters.get(i).asType()));
+        }
+
+        return signature.append(')').toString();
+    }
+
+    private void appendTypeName(StringBuilder signature, TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            appendTypeName(signature, ((ArrayType) type).getComponentType());
+            signature.append("[]");
+        } else if (type.getKind() == TypeKind.DECLARED) {
+            TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+            signature.append(processingEnv.getElementUtils().getBinaryName(element));
+        } else {
+            signature.append(type.toString());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.kris.massey;
+
+/**
+ * Semantic versions of the form major[.minor[.patch]], packed into a single long so that comparing two versions is one
+ * integer comparison.
+ *
+ * Each component takes {@link #COMPONENT_BITS} bits, major in the highest, so packed versions sort the way the versions
+ * do and are never negative. Parsing is a single pass that returns {@link #INVALID_VERSION} instead of throwing, and
+ * missing components are zero, so "2" and "2.0.0" are the same version.
+ */
+final class SemanticVersion {
+
+    static final long INVALID_VERSION = -1;
+
+    static final int COMPONENT_BITS = 21;
+    static final int MAX_COMPONENT = (1 << COMPONENT_BITS) - 1;
+
+    private static final int COMPONENTS = 3;
+
+    private SemanticVersion() {
+    }
+
+    static long of(int major, int minor, int patch) {
+        return ((long) major << (2 * COMPONENT_BITS)) | ((long) minor << COMPONENT_BITS) | patch;
+    }
+
+    static long parse(String version) {
+        return parse(version, 0, version.length());
+    }
+
+    /**
+     * Parses the characters from start, inclusive, to end, exclusive, without copying them out of the string.
+     */
+    static long parse(String version, int start, int end) {
+        long packed = 0;
+        int component = 0;
+        int componentIndex = 0;
+        boolean seenDigit = false;
+
+        for (int i = start; i < end; i++) {
+            char c = version.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                component = component * 10 + (c - '0');
+                if (component > MAX_COMPONENT) {
+                    return INVALID_VERSION;
+                }
+                seenDigit = true;
+            } else if (c == '.' && seenDigit && componentIndex < COMPONENTS - 1) {
+                packed = (packed << COMPONENT_BITS) | component;
+                component = 0;
+                componentIndex++;
+                seenDigit = false;
+            } else {
+                return INVALID_VERSION;
+            }
+        }
+
+        if (!seenDigit) {
+            return INVALID_VERSION;
+        }
+
+        packed = (packed << COMPONENT_BITS) | component;
+        return packed << (COMPONENT_BITS * (COMPONENTS - 1 - componentIndex));
+    }
+
+    static boolean isValid(long version) {
+        return version >= 0;
+    }
+
+    static int major(long version) {
+        return (int) (version >>> (2 * COMPONENT_BITS));
+    }
+
+    static int minor(long version) {
+        return (int) (version >>> COMPONENT_BITS) & MAX_COMPONENT;
+    }
+
+    static int patch(long version) {
+        return (int) version & MAX_COMPONENT;
+    }
+
+    static String toString(long version) {
+        return major(version) + "." + minor(version) + "." + patch(version);
+    }
+}
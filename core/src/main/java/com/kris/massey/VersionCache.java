@@ -0,0 +1,59 @@
+package com.kris.massey;
+
+/**
+ * Bounded, direct mapped cache from raw version header values to parsed versions.
+ *
+ * Real clients only ever send a handful of distinct versions, so a small table keyed on the header's hash keeps those
+ * from being parsed again without any allocation on a hit. Colliding values simply replace each other, which keeps the
+ * memory bound fixed no matter what is sent. Invalid values are never cached so junk headers cannot evict good ones.
+ *
+ * Entries are immutable and published through a plain array; a racing reader either sees a complete entry or a stale
+ * one, both of which are safe because a stale entry is checked against the header before being used.
+ */
+final class VersionCache {
+
+    static final int DEFAULT_SIZE = 64;
+
+    private final Entry[] entries;
+    private final int mask;
+
+    VersionCache() {
+        this(DEFAULT_SIZE);
+    }
+
+    VersionCache(int size) {
+        if (size <= 0 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("Cache size must be a positive power of two but was " + size);
+        }
+        this.entries = new Entry[size];
+        this.mask = size - 1;
+    }
+
+    float parse(String versionHeader) {
+        int hash = versionHeader.hashCode();
+        int index = (hash ^ (hash >>> 16)) & mask;
+
+        Entry entry = entries[index];
+        if (entry != null && entry.versionHeader.equals(versionHeader)) {
+            return entry.version;
+        }
+
+        float version = VersionParser.parse(versionHeader);
+        if (VersionParser.isValid(version)) {
+            entries[index] = new Entry(versionHeader, version);
+        }
+
+        return version;
+    }
+
+    private static final class Entry {
+
+        private final String versionHeader;
+        private final float version;
+
+        private Entry(String versionHeader, float version) {
+            this.versionHeader = versionHeader;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.kris.massey;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Loads the {@link ApiVersionIndex} generated for resource classes, once per class.
+ *
+ * Setting the {@link #DISABLED_PROPERTY} system property to true ignores generated indexes, which is useful when an
+ * index is suspected to be stale.
+ */
+final class VersionIndex {
+
+    static final String DISABLED_PROPERTY = "com.kris.massey.versionIndex.disabled";
+
+    private static final Entries NO_INDEX = new Entries();
+
+    private final boolean enabled;
+    private final ConcurrentMap<Class<?>, Entries> entries = new ConcurrentHashMap<Class<?>, Entries>();
+
+    VersionIndex() {
+        this(!Boolean.getBoolean(DISABLED_PROPERTY));
+    }
+
+    VersionIndex(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return the indexed metadata of the resource class, or null when no index was generated for it.
+     */
+    Entries forClass(Class<?> resourceClass) {
+        if (!enabled) {
+            return null;
+        }
+
+        Entries classEntries = entries.get(resourceClass);
+        if (classEntries == null) {
+            classEntries = load(resourceClass);
+            entries.putIfAbsent(resourceClass, classEntries);
+        }
+
+        return classEntries == NO_INDEX ? null : classEntries;
+    }
+
+    private static Entries load(Class<?> resourceClass) {
+        ClassLoader classLoader = resourceClass.getClassLoader();
+        Class<?> indexClass;
+
+        try {
+            indexClass = Class.forName(resourceClass.getName() + ApiVersionIndex.CLASS_NAME_SUFFIX, false, classLoader);
+        } catch (ClassNotFoundException e) {
+            return NO_INDEX;
+        }
+
+        try {
+            Entries classEntries = new Entries();
+            ((ApiVersionIndex) indexClass.newInstance()).describe(classEntries);
+            return classEntries;
+        } catch (InstantiationException e) {
+            throw new IllegalStateException("Cannot load @ApiVersion index " + indexClass.getName(), e);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot load @ApiVersion index " + indexClass.getName(), e);
+        }
+    }
+
+    static String signatureOf(Method method) {
+        StringBuilder signature = new StringBuilder(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            appendTypeName(signature, parameterTypes[i]);
+        }
+
+        return signature.append(')').toString();
+    }
+
+    private static void appendTypeName(StringBuilder signature, Class<?> type) {
+        if (type.isArray()) {
+            appendTypeName(signature, type.getComponentType());
+            signature.append("[]");
+        } else {
+            signature.append(type.getName());
+        }
+    }
+
+    static final class Entries implements ApiVersionIndex.Visitor {
+
+        private VersionRange typeRange;
+        private final Map<String, VersionRange> methodRanges = new HashMap<String, VersionRange>();
+        private final Set<String> alternatives = new HashSet<String>();
+
+        @Override
+        public void type(boolean headerRequired, float minVersion, float maxVersion, String minSemanticVersion, String maxSemanticVersion) {
+            typeRange = VersionRange.of(headerRequired, minVersion, maxVersion, minSemanticVersion, maxSemanticVersion);
+        }
+
+        @Override
+        public void method(String signature, boolean headerRequired, float minVersion, float maxVersion,
+                           String minSemanticVersion, String maxSemanticVersion) {
+            methodRanges.put(signature, VersionRange.of(headerRequired, minVersion, maxVersion, minSemanticVersion, maxSemanticVersion));
+        }
+
+        @Override
+        public void alternative(String resourceMethodName) {
+            alternatives.add(resourceMethodName);
+        }
+
+        /**
+         * @return the range of the method narrowed by that of its resource class, or null when neither is annotated.
+         */
+        VersionRange rangeOf(Method method) {
+            return VersionRange.merge(typeRange, methodRanges.get(signatureOf(method)), method);
+        }
+
+        boolean hasAlternatives(Method resourceMethod) {
+            return alternatives.contains(resourceMethod.getName());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.kris.massey;
+
+/**
+ * The result of checking a requested version against the versions a resource method supports.
+ */
+public enum VersionOutcome {
+
+    ACCEPTED,
+    MISSING_HEADER,
+    MALFORMED_HEADER,
+    BELOW_MIN_VERSION,
+    ABOVE_MAX_VERSION,
+    /**
+     * Rejected for another reason, such as by a custom {@code ApiVersionMatcher} or for falling between the ranges of
+     * a resource method's {@link ApiVersionAlternative}s.
+     */
+    UNSUPPORTED_VERSION
+}
@@ -0,0 +1,82 @@
+package com.kris.massey;
+
+/**
+ * Single pass parser for version header values.
+ *
+ * Accepts plain decimal versions such as "2", "2.5" or ".5" and returns the same float that {@link Float#parseFloat(String)}
+ * would. Anything else, including signs, exponents, type suffixes and values over {@link #MAX_VERSION_LENGTH} characters,
+ * results in {@link #INVALID_VERSION} rather than an exception, so junk headers cost no more to reject than valid ones.
+ */
+final class VersionParser {
+
+    static final float INVALID_VERSION = Float.NaN;
+
+    // Up to 15 digits always fit in the 53 bit mantissa of a double and 10^14 is exact, so the single division below is
+    // correctly rounded to a double.
+    static final int MAX_VERSION_LENGTH = 15;
+
+    // The 29 bits a double has beyond a float, set as they are when the double lies halfway between two floats.
+    private static final long FLOAT_ROUNDING_BITS = (1L << 29) - 1;
+    private static final long FLOAT_MIDPOINT_BITS = 1L << 28;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14
+    };
+
+    private VersionParser() {
+    }
+
+    static float parse(String version) {
+        return parse(version, 0, version.length());
+    }
+
+    /**
+     * Parses the characters from start, inclusive, to end, exclusive, without copying them out of the string unless they
+     * round to a float midpoint.
+     */
+    static float parse(String version, int start, int end) {
+        int length = end - start;
+
+        if (length <= 0 || length > MAX_VERSION_LENGTH) {
+            return INVALID_VERSION;
+        }
+
+        long digits = 0;
+        int fractionDigits = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+
+        for (int i = start; i < end; i++) {
+            char c = version.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                digits = digits * 10 + (c - '0');
+                seenDigit = true;
+                if (seenPoint) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return INVALID_VERSION;
+            }
+        }
+
+        if (!seenDigit) {
+            return INVALID_VERSION;
+        }
+
+        double value = digits / POWERS_OF_TEN[fractionDigits];
+        // Narrowing rounds a second time, which only differs from rounding the decimal once when the double has landed
+        // exactly halfway between two floats. Versions that short are never subnormal, so the bits below say when.
+        if ((Double.doubleToRawLongBits(value) & FLOAT_ROUNDING_BITS) == FLOAT_MIDPOINT_BITS) {
+            return Float.parseFloat(version.substring(start, end));
+        }
+
+        return (float) value;
+    }
+
+    static boolean isValid(float version) {
+        return version == version;
+    }
+}
@@ -0,0 +1,285 @@
+package com.kris.massey;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Path;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The {@link VersionRequirement} of every versioned resource method, by HTTP method and path template, for checking
+ * versions before a request reaches Jersey.
+ *
+ * Templates without variables are looked up in a hash map, the others are compiled to a pattern once and tried in the
+ * order JAX-RS prefers them, most literal characters first. A method with {@link ApiVersionAlternative}s is entered with
+ * the span of all its implementations. Unversioned methods are entered too, accepting every version, and paths below a
+ * sub-resource locator are always let through. Where several entries match a path they must all reject a version for
+ * it to be rejected, so a path matched differently than Jersey would match it is let through rather than wrongly refused.
+ *
+ * Like {@link VersionRequirement} it is container neutral, and is shared by {@code ApiVersionServletFilter} and the
+ * pre-matching filter of the Jersey 2 module.
+ */
+public final class VersionPathTable {
+
+    private static final String HEAD = "HEAD";
+    private static final String GET = "GET";
+
+    private final Map<String, Entries> entriesByHttpMethod;
+    private final Pattern[] locatorPatterns;
+
+    private VersionPathTable(Map<String, Entries> entriesByHttpMethod, Pattern[] locatorPatterns) {
+        this.entriesByHttpMethod = entriesByHttpMethod;
+        this.locatorPatterns = locatorPatterns;
+    }
+
+    /**
+     * @throws IllegalStateException when the annotations are invalid, as {@code ApiVersionResourceFilterFactory} does.
+     */
+    public static VersionPathTable forResourceClasses(String versionHeaderName, Iterable<Class<?>> resourceClasses) {
+        // A null requirement is an unversioned method, which accepts every version.
+        Map<String, Map<String, VersionRequirement>> templates = new HashMap<String, Map<String, VersionRequirement>>();
+        List<Pattern> locatorPatterns = new ArrayList<Pattern>();
+
+        for (Class<?> resourceClass : resourceClasses) {
+            Path classPath = resourceClass.getAnnotation(Path.class);
+            if (classPath == null) {
+                continue;
+            }
+
+            for (Method method : resourceClass.getMethods()) {
+                String httpMethod = httpMethodOf(method);
+                Path methodPath = method.getAnnotation(Path.class);
+
+                if (httpMethod == null) {
+                    if (methodPath != null) {
+                        String template = normalize(join(classPath.value(), methodPath.value()));
+                        locatorPatterns.add(Pattern.compile(regexOf(template) + "(/.*)?"));
+                    }
+                    continue;
+                }
+
+                VersionRequirement requirement = requirementOf(versionHeaderName, resourceClass, method);
+                String template = normalize(join(classPath.value(), methodPath == null ? "" : methodPath.value()));
+
+                Map<String, VersionRequirement> requirements = templates.get(httpMethod);
+                if (requirements == null) {
+                    requirements = new HashMap<String, VersionRequirement>();
+                    templates.put(httpMethod, requirements);
+                }
+
+                if (requirements.containsKey(template)) {
+                    VersionRequirement existing = requirements.get(template);
+                    requirement = existing == null || requirement == null ? null : existing.union(requirement);
+                }
+                requirements.put(template, requirement);
+            }
+        }
+
+        Map<String, Entries> entriesByHttpMethod = new HashMap<String, Entries>();
+        for (Map.Entry<String, Map<String, VersionRequirement>> entry : templates.entrySet()) {
+            entriesByHttpMethod.put(entry.getKey(), new Entries(entry.getValue()));
+        }
+
+        return new VersionPathTable(entriesByHttpMethod, locatorPatterns.toArray(new Pattern[locatorPatterns.size()]));
+    }
+
+    private static VersionRequirement requirementOf(String versionHeaderName, Class<?> resourceClass, Method method) {
+        VersionRouteTable routeTable = VersionRouteTable.forResourceMethod(resourceClass, method);
+
+        return routeTable == null
+                ? VersionRequirement.forMethod(versionHeaderName, resourceClass, method)
+                : new VersionRequirement(versionHeaderName, routeTable.span());
+    }
+
+    private static String httpMethodOf(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            HttpMethod httpMethod = annotation.annotationType().getAnnotation(HttpMethod.class);
+
+            if (httpMethod != null) {
+                return httpMethod.value();
+            }
+        }
+
+        return null;
+    }
+
+    private static String join(String classPath, String methodPath) {
+        return "/" + trimSlashes(classPath) + "/" + trimSlashes(methodPath);
+    }
+
+    private static String trimSlashes(String path) {
+        int start = 0;
+        int end = path.length();
+
+        while (start < end && path.charAt(start) == '/') {
+            start++;
+        }
+
+        while (end > start && path.charAt(end - 1) == '/') {
+            end--;
+        }
+
+        return path.substring(start, end);
+    }
+
+    /**
+     * @return the path with one leading slash and no trailing slash, as templates are entered and paths looked up.
+     */
+    public static String normalize(String path) {
+        String trimmed = trimSlashes(path);
+        return trimmed.isEmpty() ? "/" : "/" + trimmed;
+    }
+
+    /**
+     * @param path a normalized path, relative to the root resources are matched against.
+     * @return the requirement rejecting the version, or null when the request may go on to Jersey.
+     */
+    public VersionRequirement rejectedBy(String httpMethod, String path, String version) {
+        for (Pattern locatorPattern : locatorPatterns) {
+            if (locatorPattern.matcher(path).matches()) {
+                return null;
+            }
+        }
+
+        Entries entries = entriesByHttpMethod.get(httpMethod);
+        if (entries == null && HEAD.equals(httpMethod)) {
+            // Jersey answers HEAD with the GET method when there is no HEAD method.
+            entries = entriesByHttpMethod.get(GET);
+        }
+
+        return entries == null ? null : entries.rejectedBy(path, version);
+    }
+
+    private static final class Entries {
+
+        private final Map<String, VersionRequirement> literals = new HashMap<String, VersionRequirement>();
+        private final Pattern[] patterns;
+        private final VersionRequirement[] patternRequirements;
+
+        private Entries(Map<String, VersionRequirement> requirementsByTemplate) {
+            List<String> templates = new ArrayList<String>();
+
+            for (Map.Entry<String, VersionRequirement> entry : requirementsByTemplate.entrySet()) {
+                if (entry.getKey().indexOf('{') < 0) {
+                    literals.put(entry.getKey(), entry.getValue());
+                } else {
+                    templates.add(entry.getKey());
+                }
+            }
+
+            Collections.sort(templates, new Comparator<String>() {
+                @Override
+                public int compare(String first, String second) {
+                    return literalLength(second) - literalLength(first);
+                }
+            });
+
+            patterns = new Pattern[templates.size()];
+            patternRequirements = new VersionRequirement[templates.size()];
+            for (int i = 0; i < patterns.length; i++) {
+                patterns[i] = compile(templates.get(i));
+                patternRequirements[i] = requirementsByTemplate.get(templates.get(i));
+            }
+        }
+
+        private VersionRequirement rejectedBy(String path, String version) {
+            VersionRequirement rejectedBy = null;
+
+            if (literals.containsKey(path)) {
+                VersionRequirement literal = literals.get(path);
+                if (accepts(literal, version)) {
+                    return null;
+                }
+                rejectedBy = literal;
+            }
+
+            for (int i = 0; i < patterns.length; i++) {
+                if (patterns[i].matcher(path).matches()) {
+                    if (accepts(patternRequirements[i], version)) {
+                        return null;
+                    }
+                    rejectedBy = rejectedBy == null ? patternRequirements[i] : rejectedBy;
+                }
+            }
+
+            return rejectedBy;
+        }
+    }
+
+    private static boolean accepts(VersionRequirement requirement, String version) {
+        return requirement == null || requirement.check(version) == VersionOutcome.ACCEPTED;
+    }
+
+    private static int literalLength(String template) {
+        int length = 0;
+        int depth = 0;
+
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if (depth == 0) {
+                length++;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * @return a pattern for a template, where {@code {name}} matches one path segment and {@code {name: regex}} the regex.
+     */
+    static Pattern compile(String template) {
+        return Pattern.compile(regexOf(template));
+    }
+
+    private static String regexOf(String template) {
+        StringBuilder regex = new StringBuilder();
+        int literalStart = 0;
+        int i = 0;
+
+        while (i < template.length()) {
+            if (template.charAt(i) != '{') {
+                i++;
+                continue;
+            }
+
+            if (i > literalStart) {
+                regex.append(Pattern.quote(template.substring(literalStart, i)));
+            }
+
+            int depth = 1;
+            int end = i + 1;
+            while (end < template.length() && depth > 0) {
+                char c = template.charAt(end);
+                depth += c == '{' ? 1 : c == '}' ? -1 : 0;
+                end++;
+            }
+
+            if (depth > 0) {
+                throw new IllegalStateException("Unclosed variable in @Path template " + template);
+            }
+
+            String variable = template.substring(i + 1, end - 1);
+            int colon = variable.indexOf(':');
+            regex.append('(').append(colon < 0 ? "[^/]+?" : variable.substring(colon + 1).trim()).append(')');
+
+            i = end;
+            literalStart = end;
+        }
+
+        if (literalStart < template.length()) {
+            regex.append(Pattern.quote(template.substring(literalStart)));
+        }
+
+        return regex.toString();
+    }
+}
@@ -0,0 +1,283 @@
+package com.kris.massey;
+
+import java.lang.reflect.Method;
+
+/**
+ * The versions supported by a resource method, as declared by the {@link ApiVersion} annotations on it and its class.
+ *
+ * A range holds either float versions or {@link SemanticVersion}s. Both are also available as long keys that sort the
+ * way the versions do, which is what {@link VersionRouteTable} searches.
+ */
+final class VersionRange {
+
+    static final float NO_VERSION = Float.NEGATIVE_INFINITY;
+    static final long NO_SEMANTIC_VERSION = Long.MIN_VALUE;
+
+    private final boolean headerRequired;
+    private final boolean semantic;
+    private final float minVersion;
+    private final float maxVersion;
+    private final long lowerKey;
+    private final long upperKey;
+
+    VersionRange(boolean headerRequired, float minVersion, float maxVersion) {
+        this.headerRequired = headerRequired;
+        this.semantic = false;
+        this.minVersion = minVersion;
+        this.maxVersion = maxVersion;
+        this.lowerKey = key(lowerBound());
+        this.upperKey = key(upperBound());
+    }
+
+    private VersionRange(boolean headerRequired, long minSemanticVersion, long maxSemanticVersion) {
+        this.headerRequired = headerRequired;
+        this.semantic = true;
+        this.minVersion = ApiVersion.ALL_VERSION_SUPPORTED;
+        this.maxVersion = ApiVersion.ALL_VERSION_SUPPORTED;
+        this.lowerKey = minSemanticVersion;
+        this.upperKey = maxSemanticVersion;
+    }
+
+    /**
+     * @param minSemanticVersion the lowest packed {@link SemanticVersion}, 0 when there is no minimum.
+     * @param maxSemanticVersion the highest packed {@link SemanticVersion}, {@link Long#MAX_VALUE} when there is no maximum.
+     */
+    static VersionRange semantic(boolean headerRequired, long minSemanticVersion, long maxSemanticVersion) {
+        return new VersionRange(headerRequired, minSemanticVersion, maxSemanticVersion);
+    }
+
+    static VersionRange of(ApiVersion annotation) {
+        return of(annotation.headerRequired(), annotation.minVersion(), annotation.maxVersion(),
+                annotation.minSemanticVersion(), annotation.maxSemanticVersion());
+    }
+
+    static VersionRange of(boolean headerRequired, float minVersion, float maxVersion, String minSemanticVersion, String maxSemanticVersion) {
+        if (minSemanticVersion.isEmpty() && maxSemanticVersion.isEmpty()) {
+            return new VersionRange(headerRequired, minVersion, maxVersion);
+        }
+
+        if (minVersion != ApiVersion.ALL_VERSION_SUPPORTED || maxVersion != ApiVersion.ALL_VERSION_SUPPORTED) {
+            throw new IllegalStateException("@ApiVersion cannot combine float and semantic versions, but declares minVersion "
+                    + minVersion + ", maxVersion " + maxVersion + ", minSemanticVersion \"" + minSemanticVersion
+                    + "\" and maxSemanticVersion \"" + maxSemanticVersion + "\"");
+        }
+
+        return semantic(headerRequired,
+                minSemanticVersion.isEmpty() ? 0 : parseSemanticVersion(minSemanticVersion),
+                maxSemanticVersion.isEmpty() ? Long.MAX_VALUE : parseSemanticVersion(maxSemanticVersion));
+    }
+
+    private static long parseSemanticVersion(String version) {
+        long semanticVersion = SemanticVersion.parse(version);
+
+        if (!SemanticVersion.isValid(semanticVersion)) {
+            throw new IllegalStateException("\"" + version + "\" in @ApiVersion is not a major.minor[.patch] semantic version");
+        }
+
+        return semanticVersion;
+    }
+
+    /**
+     * @return the range of the method narrowed by that of its resource class, or null when neither is annotated.
+     */
+    static VersionRange forMethod(Class<?> resourceClass, Method method) {
+        return merge(resourceClass.getAnnotation(ApiVersion.class), method.getAnnotation(ApiVersion.class), method);
+    }
+
+    static VersionRange merge(ApiVersion classVersion, ApiVersion methodVersion, Method method) {
+        return merge(classVersion == null ? null : of(classVersion), methodVersion == null ? null : of(methodVersion), method);
+    }
+
+    static VersionRange merge(VersionRange classRange, VersionRange methodRange, Method method) {
+        if (classRange == null || methodRange == null) {
+            return classRange == null ? methodRange : classRange;
+        }
+
+        if (classRange.semantic != methodRange.semantic) {
+            throw new IllegalStateException("@ApiVersion range " + methodRange + " on " + method
+                    + " and the range " + classRange + " of its class must both be float or both be semantic versions");
+        }
+
+        // headerRequired defaults to true and reflection cannot tell a default from a declared value, so a method that only
+        // narrows the versions cannot be told to undo headerRequired = false on its class; either one can make it optional.
+        boolean headerRequired = classRange.headerRequired && methodRange.headerRequired;
+        // The unbounded keys of semantic ranges are the extremes of a long, so the narrowest range is a plain max and min.
+        VersionRange range = classRange.semantic
+                ? semantic(headerRequired, Math.max(classRange.lowerKey, methodRange.lowerKey), Math.min(classRange.upperKey, methodRange.upperKey))
+                : new VersionRange(headerRequired,
+                        narrowestMinVersion(classRange.minVersion, methodRange.minVersion),
+                        narrowestMaxVersion(classRange.maxVersion, methodRange.maxVersion));
+
+        if (range.lowerKey > range.upperKey) {
+            throw new IllegalStateException("@ApiVersion range " + methodRange + " on " + method
+                    + " does not overlap the range " + classRange + " of its class");
+        }
+
+        return range;
+    }
+
+    private static float narrowestMinVersion(float classMinVersion, float methodMinVersion) {
+        if (classMinVersion == ApiVersion.ALL_VERSION_SUPPORTED || methodMinVersion == ApiVersion.ALL_VERSION_SUPPORTED) {
+            return classMinVersion == ApiVersion.ALL_VERSION_SUPPORTED ? methodMinVersion : classMinVersion;
+        }
+
+        return Math.max(classMinVersion, methodMinVersion);
+    }
+
+    private static float narrowestMaxVersion(float classMaxVersion, float methodMaxVersion) {
+        if (classMaxVersion == ApiVersion.ALL_VERSION_SUPPORTED || methodMaxVersion == ApiVersion.ALL_VERSION_SUPPORTED) {
+            return classMaxVersion == ApiVersion.ALL_VERSION_SUPPORTED ? methodMaxVersion : classMaxVersion;
+        }
+
+        return Math.min(classMaxVersion, methodMaxVersion);
+    }
+
+    /**
+     * @return the smallest range containing both ranges, with the header required only when both require it.
+     */
+    static VersionRange union(VersionRange first, VersionRange second) {
+        if (first.semantic != second.semantic) {
+            throw new IllegalStateException("@ApiVersion ranges " + first + " and " + second
+                    + " must both be float or both be semantic versions");
+        }
+
+        boolean headerRequired = first.headerRequired && second.headerRequired;
+
+        if (first.semantic) {
+            return semantic(headerRequired, Math.min(first.lowerKey, second.lowerKey), Math.max(first.upperKey, second.upperKey));
+        }
+
+        float lowerBound = Math.min(first.lowerBound(), second.lowerBound());
+        float upperBound = Math.max(first.upperBound(), second.upperBound());
+
+        return new VersionRange(headerRequired,
+                lowerBound == Float.NEGATIVE_INFINITY ? ApiVersion.ALL_VERSION_SUPPORTED : lowerBound,
+                upperBound == Float.POSITIVE_INFINITY ? ApiVersion.ALL_VERSION_SUPPORTED : upperBound);
+    }
+
+    /**
+     * Classifies a float version against a range given by its annotation values, where 0 means unbounded.
+     *
+     * @param requestedVersion the version sent, {@link #NO_VERSION} when none was sent or NaN when it did not parse.
+     */
+    static VersionOutcome check(boolean headerRequired, float minVersion, float maxVersion, float requestedVersion) {
+        if (requestedVersion == NO_VERSION) {
+            return headerRequired ? VersionOutcome.MISSING_HEADER : VersionOutcome.ACCEPTED;
+        }
+
+        if (!VersionParser.isValid(requestedVersion)) {
+            return VersionOutcome.MALFORMED_HEADER;
+        }
+
+        if (requestedVersion < minVersion && minVersion != ApiVersion.ALL_VERSION_SUPPORTED) {
+            return VersionOutcome.BELOW_MIN_VERSION;
+        }
+
+        if (requestedVersion > maxVersion && maxVersion != ApiVersion.ALL_VERSION_SUPPORTED) {
+            return VersionOutcome.ABOVE_MAX_VERSION;
+        }
+
+        return VersionOutcome.ACCEPTED;
+    }
+
+    /**
+     * Classifies a packed semantic version against the keys of a semantic range.
+     *
+     * @param requestedVersion the version sent, {@link #NO_SEMANTIC_VERSION} when none was sent or
+     * {@link SemanticVersion#INVALID_VERSION} when it did not parse.
+     */
+    static VersionOutcome checkSemantic(boolean headerRequired, long lowerKey, long upperKey, long requestedVersion) {
+        if (requestedVersion == NO_SEMANTIC_VERSION) {
+            return headerRequired ? VersionOutcome.MISSING_HEADER : VersionOutcome.ACCEPTED;
+        }
+
+        if (!SemanticVersion.isValid(requestedVersion)) {
+            return VersionOutcome.MALFORMED_HEADER;
+        }
+
+        if (requestedVersion < lowerKey) {
+            return VersionOutcome.BELOW_MIN_VERSION;
+        }
+
+        if (requestedVersion > upperKey) {
+            return VersionOutcome.ABOVE_MAX_VERSION;
+        }
+
+        return VersionOutcome.ACCEPTED;
+    }
+
+    VersionOutcome check(float requestedVersion) {
+        return check(headerRequired, minVersion, maxVersion, requestedVersion);
+    }
+
+    VersionOutcome checkSemantic(long requestedVersion) {
+        return checkSemantic(headerRequired, lowerKey, upperKey, requestedVersion);
+    }
+
+    /**
+     * @return a long that sorts the way the float versions do, the sign and magnitude bits of a float rearranged so that
+     * negative floats come first.
+     */
+    static long key(float version) {
+        int bits = Float.floatToIntBits(version);
+        return bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+    }
+
+    boolean isHeaderRequired() {
+        return headerRequired;
+    }
+
+    boolean isSemantic() {
+        return semantic;
+    }
+
+    float getMinVersion() {
+        return minVersion;
+    }
+
+    float getMaxVersion() {
+        return maxVersion;
+    }
+
+    float lowerBound() {
+        return minVersion == ApiVersion.ALL_VERSION_SUPPORTED ? Float.NEGATIVE_INFINITY : minVersion;
+    }
+
+    float upperBound() {
+        return maxVersion == ApiVersion.ALL_VERSION_SUPPORTED ? Float.POSITIVE_INFINITY : maxVersion;
+    }
+
+    /**
+     * @return the key of the lowest version in the range, a packed {@link SemanticVersion} for semantic ranges and
+     * {@link #key(float)} of {@link #lowerBound()} otherwise.
+     */
+    long lowerKey() {
+        return lowerKey;
+    }
+
+    long upperKey() {
+        return upperKey;
+    }
+
+    /**
+     * @return the lowest semantic version as a string, or null when the range has no minimum.
+     */
+    String minSemanticVersion() {
+        return lowerKey == 0 ? null : SemanticVersion.toString(lowerKey);
+    }
+
+    String maxSemanticVersion() {
+        return upperKey == Long.MAX_VALUE ? null : SemanticVersion.toString(upperKey);
+    }
+
+    @Override
+    public String toString() {
+        if (semantic) {
+            return "[" + (minSemanticVersion() == null ? "*" : minSemanticVersion())
+                    + ", " + (maxSemanticVersion() == null ? "*" : maxSemanticVersion()) + "]";
+        }
+
+        return "[" + (minVersion == ApiVersion.ALL_VERSION_SUPPORTED ? "*" : String.valueOf(minVersion))
+                + ", " + (maxVersion == ApiVersion.ALL_VERSION_SUPPORTED ? "*" : String.valueOf(maxVersion)) + "]";
+    }
+}
@@ -0,0 +1,66 @@
+package com.kris.massey;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.nio.charset.Charset;
+
+/**
+ * The 400 Bad Request sent when a request does not match a {@link VersionRange}.
+ *
+ * The body is formatted and encoded once, when the filter for a resource method is created, and rejections are thrown
+ * without capturing a stack trace, so rejecting a request costs about as much as accepting one. A new {@link Response}
+ * is still built for each rejection because Jersey writes response headers into the one it is given.
+ */
+final class VersionRejection {
+
+    private static final String BAD_REQUEST_RESPONSE_TEMPLATE = "{\"message\": {\"versionHeaderName\": \"%s\", \"headerRequired\":%b,\"minVersion\":%s,\"maxVersion\":%s}}";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final byte[] body;
+
+    VersionRejection(String versionHeaderName, VersionRange range) {
+        String minVersionString;
+        String maxVersionString;
+
+        if (range.isSemantic()) {
+            // Semantic versions are not JSON numbers, so they are sent as strings.
+            minVersionString = range.minSemanticVersion() == null ? "\"no minimum version\"" : "\"" + range.minSemanticVersion() + "\"";
+            maxVersionString = range.maxSemanticVersion() == null ? "\"no maximum version\"" : "\"" + range.maxSemanticVersion() + "\"";
+        } else {
+            minVersionString = range.getMinVersion() == ApiVersion.ALL_VERSION_SUPPORTED ? "\"no minimum version\"" : String.valueOf(range.getMinVersion());
+            maxVersionString = range.getMaxVersion() == ApiVersion.ALL_VERSION_SUPPORTED ? "\"no maximum version\"" : String.valueOf(range.getMaxVersion());
+        }
+
+        this.body = String.format(BAD_REQUEST_RESPONSE_TEMPLATE, versionHeaderName, range.isHeaderRequired(), minVersionString, maxVersionString).getBytes(UTF_8);
+    }
+
+    WebApplicationException exception() {
+        return new VersionRejectedException(response());
+    }
+
+    byte[] body() {
+        return body;
+    }
+
+    Response response() {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .entity(body)
+                .build();
+    }
+
+    private static class VersionRejectedException extends WebApplicationException {
+
+        private static final long serialVersionUID = 1L;
+
+        private VersionRejectedException(Response response) {
+            super(response);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
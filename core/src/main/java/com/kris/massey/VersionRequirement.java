@@ -0,0 +1,84 @@
+package com.kris.massey;
+
+import javax.ws.rs.core.Response;
+import java.lang.reflect.Method;
+
+/**
+ * The versions a resource method supports, checked against the raw version a request carries.
+ *
+ * This is the container neutral core the Jersey 1 filters are built on, for use by other containers such as the
+ * Jersey 2 module. It depends on nothing but the JAX-RS {@link Response}, and like the Jersey 1 filters it parses the
+ * ranges and formats the rejection body once, so a check is a parse of the requested version and two comparisons.
+ */
+public final class VersionRequirement {
+
+    private static final VersionIndex VERSION_INDEX = new VersionIndex();
+    private static final VersionCache VERSION_CACHE = new VersionCache();
+
+    private final String versionHeaderName;
+    private final VersionRange range;
+    private final VersionRejection rejection;
+
+    VersionRequirement(String versionHeaderName, VersionRange range) {
+        this.versionHeaderName = versionHeaderName;
+        this.range = range;
+        this.rejection = new VersionRejection(versionHeaderName, range);
+    }
+
+    /**
+     * @param versionHeaderName the name of the header the version is sent in, as reported in rejections.
+     * @return the requirement of the method merged with that of its resource class, or null when neither is annotated
+     * with {@link ApiVersion}.
+     * @throws IllegalStateException when the annotations are invalid, as {@code ApiVersionResourceFilterFactory} does.
+     */
+    public static VersionRequirement forMethod(String versionHeaderName, Class<?> resourceClass, Method method) {
+        VersionIndex.Entries index = VERSION_INDEX.forClass(resourceClass);
+        VersionRange range = index != null ? index.rangeOf(method) : VersionRange.forMethod(resourceClass, method);
+
+        return range == null ? null : new VersionRequirement(versionHeaderName, range);
+    }
+
+    /**
+     * @return a requirement accepting every version either requirement accepts, requiring the header only when both do.
+     * @throws IllegalStateException when one requirement uses float versions and the other semantic versions.
+     */
+    public VersionRequirement union(VersionRequirement other) {
+        return new VersionRequirement(versionHeaderName, VersionRange.union(range, other.range));
+    }
+
+    /**
+     * @param version the version as sent, null or empty when the request carries none.
+     */
+    public VersionOutcome check(String version) {
+        boolean missing = version == null || version.isEmpty();
+
+        if (range.isSemantic()) {
+            return range.checkSemantic(missing ? VersionRange.NO_SEMANTIC_VERSION : SemanticVersion.parse(version));
+        }
+
+        return range.check(missing ? VersionRange.NO_VERSION : VERSION_CACHE.parse(version));
+    }
+
+    /**
+     * @return a new 400 Bad Request describing the supported versions, with the body formatted when this was created.
+     */
+    public Response rejection() {
+        return rejection.response();
+    }
+
+    /**
+     * @return the JSON body of {@link #rejection()}, shared and so never to be modified.
+     */
+    byte[] rejectionBody() {
+        return rejection.body();
+    }
+
+    public String getVersionHeaderName() {
+        return versionHeaderName;
+    }
+
+    @Override
+    public String toString() {
+        return range.toString();
+    }
+}
@@ -0,0 +1,218 @@
+package com.kris.massey;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.Path;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Sorted interval table of the {@link ApiVersion} ranges of a resource method and its {@link ApiVersionAlternative}s.
+ *
+ * Ranges may not overlap, so the implementation serving a version is found with one binary search over the lower bounds.
+ * Tables are compiled once when Jersey builds its resource model and are immutable afterwards.
+ */
+final class VersionRouteTable {
+
+    // The index of the implementation selected for a request, in the table of its resource method.
+    static final String ROUTE_PROPERTY = VersionRouteTable.class.getName() + ".route";
+
+    private final Method[] methods;
+    private final VersionRange[] ranges;
+    private final long[] lowerKeys;
+    private final long[] upperKeys;
+    private final VersionRange span;
+    private final int resourceMethodIndex;
+
+    private VersionRouteTable(Class<?> resourceClass, Method resourceMethod, List<Method> sortedMethods) {
+        int size = sortedMethods.size();
+
+        this.methods = sortedMethods.toArray(new Method[size]);
+        this.ranges = new VersionRange[size];
+        this.lowerKeys = new long[size];
+        this.upperKeys = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            ranges[i] = VersionRange.forMethod(resourceClass, methods[i]);
+            lowerKeys[i] = ranges[i].lowerKey();
+            upperKeys[i] = ranges[i].upperKey();
+
+            if (i > 0 && ranges[i].isSemantic() != ranges[0].isSemantic()) {
+                throw new IllegalStateException("@ApiVersion ranges " + ranges[0] + " on " + methods[0] + " and " + ranges[i]
+                        + " on " + methods[i] + " must both be float or both be semantic versions");
+            }
+
+            if (i > 0 && lowerKeys[i] <= upperKeys[i - 1]) {
+                throw new IllegalStateException("Overlapping @ApiVersion ranges " + ranges[i - 1] + " on " + methods[i - 1]
+                        + " and " + ranges[i] + " on " + methods[i]);
+            }
+        }
+
+        this.span = spanOf(VersionRange.forMethod(resourceClass, resourceMethod).isHeaderRequired(), ranges[0], ranges[size - 1]);
+        this.resourceMethodIndex = indexOf(resourceMethod);
+    }
+
+    /**
+     * @return the route table for the given resource method, or null when no alternatives are declared for it.
+     */
+    static VersionRouteTable forResourceMethod(final Class<?> resourceClass, Method resourceMethod) {
+        List<Method> alternatives = alternativesOf(resourceClass, resourceMethod);
+
+        if (alternatives.isEmpty()) {
+            return null;
+        }
+
+        if (VersionRange.forMethod(resourceClass, resourceMethod) == null) {
+            throw new IllegalStateException("Resource method " + resourceMethod + " has @ApiVersionAlternative methods but no @ApiVersion");
+        }
+
+        List<Method> sortedMethods = new ArrayList<Method>(alternatives);
+        sortedMethods.add(resourceMethod);
+        Collections.sort(sortedMethods, new Comparator<Method>() {
+            @Override
+            public int compare(Method first, Method second) {
+                return Long.compare(VersionRange.forMethod(resourceClass, first).lowerKey(),
+                        VersionRange.forMethod(resourceClass, second).lowerKey());
+            }
+        });
+
+        return new VersionRouteTable(resourceClass, resourceMethod, sortedMethods);
+    }
+
+    private static List<Method> alternativesOf(Class<?> resourceClass, Method resourceMethod) {
+        List<Method> alternatives = new ArrayList<Method>();
+
+        for (Method method : resourceClass.getMethods()) {
+            ApiVersionAlternative alternative = method.getAnnotation(ApiVersionAlternative.class);
+
+            if (alternative == null || !alternative.value().equals(resourceMethod.getName()) || method.equals(resourceMethod)) {
+                continue;
+            }
+            // Overloads share the name, so an alternative belongs to the one declaring its parameters.
+            if (!Arrays.equals(method.getParameterTypes(), resourceMethod.getParameterTypes())
+                    && hasOverload(resourceClass, method, alternative.value())) {
+                continue;
+            }
+
+            validateAlternative(resourceMethod, method);
+            alternatives.add(method);
+        }
+
+        return alternatives;
+    }
+
+    /**
+     * @return whether another method of the given name declares the parameters of the alternative.
+     */
+    private static boolean hasOverload(Class<?> resourceClass, Method alternative, String name) {
+        try {
+            return !resourceClass.getMethod(name, alternative.getParameterTypes()).equals(alternative);
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static void validateAlternative(Method resourceMethod, Method alternative) {
+        if (!alternative.isAnnotationPresent(ApiVersion.class)) {
+            throw new IllegalStateException("@ApiVersionAlternative method " + alternative + " has no @ApiVersion");
+        }
+
+        if (alternative.isAnnotationPresent(Path.class) || hasHttpMethod(alternative)) {
+            throw new IllegalStateException("@ApiVersionAlternative method " + alternative
+                    + " must not declare @Path or an HTTP method, they are taken from " + resourceMethod);
+        }
+
+        if (!Arrays.equals(alternative.getParameterTypes(), resourceMethod.getParameterTypes())
+                || !Arrays.deepEquals(alternative.getParameterAnnotations(), resourceMethod.getParameterAnnotations())) {
+            throw new IllegalStateException("@ApiVersionAlternative method " + alternative
+                    + " must declare the same parameters as " + resourceMethod);
+        }
+    }
+
+    private static boolean hasHttpMethod(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            if (annotation.annotationType().isAnnotationPresent(HttpMethod.class)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static VersionRange spanOf(boolean headerRequired, VersionRange lowest, VersionRange highest) {
+        if (lowest.isSemantic()) {
+            return VersionRange.semantic(headerRequired, lowest.lowerKey(), highest.upperKey());
+        }
+
+        return new VersionRange(headerRequired, lowest.getMinVersion(), highest.getMaxVersion());
+    }
+
+    /**
+     * @return the index of the implementation whose float range contains the version, or -1 when there is none.
+     */
+    int indexOf(float version) {
+        return VersionParser.isValid(version) ? indexOfKey(VersionRange.key(version)) : -1;
+    }
+
+    /**
+     * @return the index of the implementation whose range contains the {@link VersionRange#lowerKey() key}, or -1 when
+     * there is none.
+     */
+    int indexOfKey(long key) {
+        int low = 0;
+        int high = lowerKeys.length - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+
+            if (lowerKeys[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return high >= 0 && key <= upperKeys[high] ? high : -1;
+    }
+
+    private int indexOf(Method method) {
+        for (int i = 0; i < methods.length; i++) {
+            if (methods[i].equals(method)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    int resourceMethodIndex() {
+        return resourceMethodIndex;
+    }
+
+    int size() {
+        return methods.length;
+    }
+
+    Method methodAt(int index) {
+        return methods[index];
+    }
+
+    VersionRange rangeAt(int index) {
+        return ranges[index];
+    }
+
+    boolean isSemantic() {
+        return ranges[0].isSemantic();
+    }
+
+    /**
+     * @return a range from the lowest to the highest version served by any implementation, used to describe rejections.
+     */
+    VersionRange span() {
+        return span;
+    }
+}
@@ -0,0 +1,51 @@
+package com.kris.massey;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class SemanticVersionTest {
+
+    @Test
+    public void fullVersionIsParsed() {
+        assertThat(SemanticVersion.parse("2.10.3"), is(SemanticVersion.of(2, 10, 3)));
+    }
+
+    @Test
+    public void missingComponentsAreZero() {
+        assertThat(SemanticVersion.parse("2.10"), is(SemanticVersion.of(2, 10, 0)));
+        assertThat(SemanticVersion.parse("2"), is(SemanticVersion.of(2, 0, 0)));
+    }
+
+    @Test
+    public void minorVersionsCompareAsNumbersNotFractions() {
+        assertThat(SemanticVersion.parse("2.10") > SemanticVersion.parse("2.9"), is(true));
+        assertThat(SemanticVersion.parse("2.10") == SemanticVersion.parse("2.1"), is(false));
+    }
+
+    @Test
+    public void patchVersionsAreOrdered() {
+        assertThat(SemanticVersion.parse("1.2.3") < SemanticVersion.parse("1.2.4"), is(true));
+        assertThat(SemanticVersion.parse("1.2.999") < SemanticVersion.parse("1.3"), is(true));
+    }
+
+    @Test
+    public void componentsArePackedAndUnpacked() {
+        long version = SemanticVersion.of(SemanticVersion.MAX_COMPONENT, 7, 42);
+
+        assertThat(SemanticVersion.major(version), is(SemanticVersion.MAX_COMPONENT));
+        assertThat(SemanticVersion.minor(version), is(7));
+        assertThat(SemanticVersion.patch(version), is(42));
+        assertThat(SemanticVersion.toString(SemanticVersion.parse("3.1")), is("3.1.0"));
+    }
+
+    @Test
+    public void malformedVersionsAreInvalid() {
+        String[] versions = {"", ".", "2.", ".2", "2..1", "1.2.3.4", "v2", "2.x", "-1", "1.2.3-beta", "2097152"};
+
+        for (String version : versions) {
+            assertThat(version, SemanticVersion.isValid(SemanticVersion.parse(version)), is(false));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.kris.massey;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class VersionParserTest {
+
+    @Test
+    public void wholeVersionIsParsed() {
+        assertThat(VersionParser.parse("2"), is(2f));
+    }
+
+    @Test
+    public void pointVersionIsParsed() {
+        assertThat(VersionParser.parse("2.5"), is(2.5f));
+    }
+
+    @Test
+    public void parsedVersionsMatchFloatParsing() {
+        String[] versions = {"0", "1.2", "1.20", "2.", ".5", "0.1", "3.14159", "10.01", "99999.99999", "123456789012345", "0.0000000000001", ".00000000000001"};
+
+        for (String version : versions) {
+            assertThat(version, VersionParser.parse(version), is(Float.parseFloat(version)));
+        }
+    }
+
+    @Test
+    public void versionsRoundedToAFloatMidpointMatchFloatParsing() {
+        // Each is rounded to a double lying halfway between two floats, so narrowing that double rounds a second time.
+        String[] versions = {".00781404459849", ".01562808919698", ".03125592879951", ".06251235678792", ".12501110881567"};
+
+        for (String version : versions) {
+            assertThat(version, VersionParser.parse(version), is(Float.parseFloat(version)));
+        }
+    }
+
+    @Test
+    public void randomVersionsMatchFloatParsing() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 1000000; i++) {
+            int length = 1 + random.nextInt(VersionParser.MAX_VERSION_LENGTH);
+            int point = random.nextInt(length + 1);
+            StringBuilder version = new StringBuilder();
+            for (int j = 0; j < length; j++) {
+                version.append(j == point && length > 1 ? '.' : (char) ('0' + random.nextInt(10)));
+            }
+
+            assertThat(version.toString(), VersionParser.parse(version.toString()), is(Float.parseFloat(version.toString())));
+        }
+    }
+
+    @Test
+    public void versionParsedFromHeaderMatchesAnnotationValue() {
+        assertThat(VersionParser.parse("1.2"), is(1.2f));
+    }
+
+    @Test
+    public void nonNumericVersionIsInvalid() {
+        assertThat(VersionParser.isValid(VersionParser.parse("INVALID")), is(false));
+    }
+
+    @Test
+    public void versionWithTwoPointsIsInvalid() {
+        assertThat(VersionParser.isValid(VersionParser.parse("1.2.3")), is(false));
+    }
+
+    @Test
+    public void loneDecimalPointIsInvalid() {
+        assertThat(VersionParser.isValid(VersionParser.parse(".")), is(false));
+    }
+
+    @Test
+    public void emptyVersionIsInvalid() {
+        assertThat(VersionParser.isValid(VersionParser.parse("")), is(false));
+    }
+
+    @Test
+    public void floatSyntaxOutsidePlainDecimalsIsInvalid() {
+        String[] versions = {"-1", "+1", "1e3", "2f", "2d", "NaN", "Infinity", "0x1p3", " 2", "2 "};
+
+        for (String version : versions) {
+            assertThat(version, VersionParser.isValid(VersionParser.parse(version)), is(false));
+        }
+    }
+
+    @Test
+    public void overlongVersionIsInvalid() {
+        assertThat(VersionParser.isValid(VersionParser.parse("1234567890123456")), is(false));
+    }
+
+    @Test
+    public void cachedVersionIsReturnedForRepeatedHeader() {
+        VersionCache versionCache = new VersionCache(2);
+
+        assertThat(versionCache.parse("2.5"), is(2.5f));
+        assertThat(versionCache.parse(new String("2.5")), is(2.5f));
+    }
+
+    @Test
+    public void collidingHeadersStillParseCorrectly() {
+        VersionCache versionCache = new VersionCache(1);
+
+        assertThat(versionCache.parse("1"), is(1f));
+        assertThat(versionCache.parse("2"), is(2f));
+        assertThat(versionCache.parse("1"), is(1f));
+        assertThat(VersionParser.isValid(versionCache.parse("INVALID")), is(false));
+    }
+}
@@ -0,0 +1,170 @@
+package com.kris.massey;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class VersionRangeTest {
+
+    @Test
+    public void unannotatedMethodOfUnannotatedClassHasNoRange() throws Exception {
+        assertThat(VersionRange.forMethod(Unannotated.class, Unannotated.class.getMethod("method")), is(nullValue()));
+    }
+
+    @Test
+    public void unannotatedMethodTakesClassRange() throws Exception {
+        VersionRange range = VersionRange.forMethod(Annotated.class, Annotated.class.getMethod("classRange"));
+
+        assertThat(range.getMinVersion(), is(2f));
+        assertThat(range.getMaxVersion(), is(4f));
+        assertThat(range.isHeaderRequired(), is(false));
+    }
+
+    @Test
+    public void methodCanRaiseMinimumAndLowerMaximum() throws Exception {
+        VersionRange range = VersionRange.forMethod(Annotated.class, Annotated.class.getMethod("narrowed"));
+
+        assertThat(range.getMinVersion(), is(3f));
+        assertThat(range.getMaxVersion(), is(3.5f));
+    }
+
+    @Test
+    public void methodCannotWidenClassRange() throws Exception {
+        VersionRange range = VersionRange.forMethod(Annotated.class, Annotated.class.getMethod("widened"));
+
+        assertThat(range.getMinVersion(), is(2f));
+        assertThat(range.getMaxVersion(), is(4f));
+    }
+
+    @Test
+    public void openClassBoundTakesMethodBound() throws Exception {
+        VersionRange range = VersionRange.forMethod(OpenEnded.class, OpenEnded.class.getMethod("bounded"));
+
+        assertThat(range.getMinVersion(), is(2f));
+        assertThat(range.getMaxVersion(), is(5f));
+    }
+
+    @Test
+    public void classNotRequiringTheHeaderAppliesToMethodsOnlyNarrowingTheRange() throws Exception {
+        VersionRange range = VersionRange.forMethod(Annotated.class, Annotated.class.getMethod("narrowedMinimum"));
+
+        assertThat(range.getMinVersion(), is(3f));
+        assertThat(range.isHeaderRequired(), is(false));
+    }
+
+    @Test
+    public void methodCanMakeTheHeaderOptional() throws Exception {
+        VersionRange range = VersionRange.forMethod(OpenEnded.class, OpenEnded.class.getMethod("optional"));
+
+        assertThat(range.isHeaderRequired(), is(false));
+    }
+
+    @Test
+    public void headerIsRequiredWhenBothAnnotationsRequireIt() throws Exception {
+        VersionRange range = VersionRange.forMethod(OpenEnded.class, OpenEnded.class.getMethod("bounded"));
+
+        assertThat(range.isHeaderRequired(), is(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void methodRangeOutsideClassRangeIsRejected() throws Exception {
+        VersionRange.forMethod(Annotated.class, Annotated.class.getMethod("disjoint"));
+    }
+
+    @Test
+    public void semanticRangesAreNarrowedByClassRange() throws Exception {
+        VersionRange range = VersionRange.forMethod(Semantic.class, Semantic.class.getMethod("narrowed"));
+
+        assertThat(range.isSemantic(), is(true));
+        assertThat(range.lowerKey(), is(SemanticVersion.of(2, 10, 0)));
+        assertThat(range.upperKey(), is(SemanticVersion.of(3, 0, 0)));
+        assertThat(range.toString(), is("[2.10.0, 3.0.0]"));
+    }
+
+    @Test
+    public void unboundedSemanticRangeHasNoLimits() throws Exception {
+        VersionRange range = VersionRange.of(true, ApiVersion.ALL_VERSION_SUPPORTED, ApiVersion.ALL_VERSION_SUPPORTED, "", "4");
+
+        assertThat(range.minSemanticVersion(), is(nullValue()));
+        assertThat(range.maxSemanticVersion(), is("4.0.0"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void floatAndSemanticVersionsCannotBeCombined() {
+        VersionRange.of(true, 2, ApiVersion.ALL_VERSION_SUPPORTED, "2.1", "");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void malformedSemanticVersionIsRejected() {
+        VersionRange.of(true, ApiVersion.ALL_VERSION_SUPPORTED, ApiVersion.ALL_VERSION_SUPPORTED, "2.x", "");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void floatMethodRangeCannotNarrowSemanticClassRange() throws Exception {
+        VersionRange.forMethod(Semantic.class, Semantic.class.getMethod("floatRange"));
+    }
+
+    @Test
+    public void floatKeysSortLikeFloats() {
+        float[] versions = {Float.NEGATIVE_INFINITY, -2.5f, -0f, 0f, 0.5f, 1f, 2.1f, 2.9f, 10f, Float.POSITIVE_INFINITY};
+
+        for (int i = 1; i < versions.length; i++) {
+            assertThat(versions[i - 1] + " < " + versions[i], VersionRange.key(versions[i - 1]) < VersionRange.key(versions[i]), is(true));
+        }
+    }
+
+    public static class Unannotated {
+
+        public void method() {
+        }
+    }
+
+    @ApiVersion(headerRequired = false, minVersion = 2, maxVersion = 4)
+    public static class Annotated {
+
+        public void classRange() {
+        }
+
+        @ApiVersion(minVersion = 3, maxVersion = 3.5f)
+        public void narrowed() {
+        }
+
+        @ApiVersion(minVersion = 3)
+        public void narrowedMinimum() {
+        }
+
+        @ApiVersion(headerRequired = false, minVersion = 1, maxVersion = 5)
+        public void widened() {
+        }
+
+        @ApiVersion(minVersion = 5)
+        public void disjoint() {
+        }
+    }
+
+    @ApiVersion(minVersion = 2)
+    public static class OpenEnded {
+
+        @ApiVersion(maxVersion = 5)
+        public void bounded() {
+        }
+
+        @ApiVersion(headerRequired = false)
+        public void optional() {
+        }
+    }
+
+    @ApiVersion(minSemanticVersion = "2.9", maxSemanticVersion = "3")
+    public static class Semantic {
+
+        @ApiVersion(minSemanticVersion = "2.10")
+        public void narrowed() {
+        }
+
+        @ApiVersion(minVersion = 2)
+        public void floatRange() {
+        }
+    }
+}
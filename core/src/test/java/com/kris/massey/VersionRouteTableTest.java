@@ -0,0 +1,165 @@
+package com.kris.massey;
+
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import java.lang.reflect.Method;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class VersionRouteTableTest {
+
+    @Test
+    public void methodWithoutAlternativesHasNoRouteTable() throws Exception {
+        assertThat(routeTable(Unrouted.class, "current"), is(nullValue()));
+    }
+
+    @Test
+    public void versionsAreRoutedToTheRangeContainingThem() throws Exception {
+        VersionRouteTable routeTable = routeTable(Routed.class, "current");
+
+        assertThat(routeTable.methodAt(routeTable.indexOf(0.5f)).getName(), is("oldest"));
+        assertThat(routeTable.methodAt(routeTable.indexOf(1f)).getName(), is("oldest"));
+        assertThat(routeTable.methodAt(routeTable.indexOf(2f)).getName(), is("legacy"));
+        assertThat(routeTable.methodAt(routeTable.indexOf(3.5f)).getName(), is("current"));
+        assertThat(routeTable.methodAt(routeTable.indexOf(100f)).getName(), is("current"));
+    }
+
+    @Test
+    public void versionsOutsideEveryRangeHaveNoRoute() throws Exception {
+        VersionRouteTable routeTable = routeTable(Routed.class, "current");
+
+        assertThat(routeTable.indexOf(1.5f), is(-1));
+        assertThat(routeTable.indexOf(Float.NaN), is(-1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void overlappingRangesAreRejected() throws Exception {
+        routeTable(Overlapping.class, "current");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void alternativeWithDifferentParametersIsRejected() throws Exception {
+        routeTable(DifferentParameters.class, "current");
+    }
+
+    @Test
+    public void alternativesBelongToTheOverloadDeclaringTheirParameters() throws Exception {
+        VersionRouteTable routeTable = routeTable(Overloaded.class, "widgets");
+
+        assertThat(routeTable.methodAt(routeTable.indexOf(1f)).getName(), is("legacyWidgets"));
+        assertThat(VersionRouteTable.forResourceMethod(Overloaded.class, Overloaded.class.getMethod("widgets", String.class)), is(nullValue()));
+    }
+
+    @Test
+    public void semanticVersionsAreRoutedByPackedKey() throws Exception {
+        VersionRouteTable routeTable = routeTable(SemanticRouted.class, "current");
+
+        assertThat(routeTable.methodAt(routeTable.indexOfKey(SemanticVersion.parse("2.9.9"))).getName(), is("legacy"));
+        assertThat(routeTable.methodAt(routeTable.indexOfKey(SemanticVersion.parse("2.10"))).getName(), is("current"));
+        assertThat(routeTable.span().toString(), is("[*, *]"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void floatAndSemanticAlternativesAreRejected() throws Exception {
+        routeTable(MixedKinds.class, "current");
+    }
+
+    private static VersionRouteTable routeTable(Class<?> resourceClass, String resourceMethodName) throws Exception {
+        Method resourceMethod = resourceClass.getMethod(resourceMethodName);
+        return VersionRouteTable.forResourceMethod(resourceClass, resourceMethod);
+    }
+
+    public static class Unrouted {
+
+        @ApiVersion(minVersion = 2)
+        public void current() {
+        }
+    }
+
+    public static class Routed {
+
+        @ApiVersion(minVersion = 3)
+        public void current() {
+        }
+
+        @ApiVersion(minVersion = 2, maxVersion = 2.9f)
+        @ApiVersionAlternative("current")
+        public void legacy() {
+        }
+
+        @ApiVersion(maxVersion = 1)
+        @ApiVersionAlternative("current")
+        public void oldest() {
+        }
+    }
+
+    public static class Overlapping {
+
+        @ApiVersion(minVersion = 2)
+        public void current() {
+        }
+
+        @ApiVersion(maxVersion = 2)
+        @ApiVersionAlternative("current")
+        public void legacy() {
+        }
+    }
+
+    public static class DifferentParameters {
+
+        @ApiVersion(minVersion = 2)
+        public void current() {
+        }
+
+        @ApiVersion(maxVersion = 1)
+        @ApiVersionAlternative("current")
+        public void legacy(String name) {
+        }
+    }
+
+    public static class Overloaded {
+
+        @GET
+        @ApiVersion(minVersion = 2)
+        public void widgets() {
+        }
+
+        @POST
+        @ApiVersion(minVersion = 1)
+        public void widgets(String widget) {
+        }
+
+        @ApiVersion(maxVersion = 1)
+        @ApiVersionAlternative("widgets")
+        public void legacyWidgets() {
+        }
+    }
+
+    public static class SemanticRouted {
+
+        @ApiVersion(minSemanticVersion = "2.10")
+        public void current() {
+        }
+
+        @ApiVersion(maxSemanticVersion = "2.9.9")
+        @ApiVersionAlternative("current")
+        public void legacy() {
+        }
+    }
+
+    public static class MixedKinds {
+
+        @ApiVersion(minSemanticVersion = "2.10")
+        public void current() {
+        }
+
+        @ApiVersion(maxVersion = 2)
+        @ApiVersionAlternative("current")
+        public void legacy() {
+        }
+    }
+}
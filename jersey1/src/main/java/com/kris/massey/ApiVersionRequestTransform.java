@@ -0,0 +1,60 @@
+package com.kris.massey;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Converts the JSON entity clients of versions below {@link #below()} send up to what the resource method reads, by
+ * removing, renaming and defaulting fields as the entity is read, so one method serves the requests of every version.
+ *
+ * Fields are named by paths as for {@link ApiVersionTransform}, with the names the clients of those versions send.
+ * <pre>
+ * &#64;POST
+ * &#64;ApiVersion(minVersion = 1)
+ * &#64;ApiVersionRequestTransform.List({
+ *     &#64;ApiVersionRequestTransform(below = 1.5f, rename = "items.name=displayName"),
+ *     &#64;ApiVersionRequestTransform(below = 2, defaults = "items.color=\"blue\"")
+ * })
+ * public void importWidgets(Widgets widgets) { ... }
+ * </pre>
+ * A request is converted by every transform whose version is above the requested version, the lowest first, so each
+ * applies one change on the way up to the current version. Requests without a version are not converted, and only
+ * entities sent as JSON are.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD })
+public @interface ApiVersionRequestTransform {
+
+    /**
+     * The first version the transform is not applied to, for methods with float version ranges.
+     */
+    float below() default ApiVersion.ALL_VERSION_SUPPORTED;
+
+    /**
+     * The first version the transform is not applied to, for methods with semantic version ranges.
+     */
+    String belowSemanticVersion() default "";
+
+    /**
+     * The paths of the fields left out.
+     */
+    String[] remove() default {};
+
+    /**
+     * Fields read under another name, as {@code path=name}.
+     */
+    String[] rename() default {};
+
+    /**
+     * Fields added where an object does not have them, as {@code path=value} with the value in JSON.
+     */
+    String[] defaults() default {};
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.METHOD })
+    @interface List {
+        ApiVersionRequestTransform[] value();
+    }
+}
@@ -0,0 +1,890 @@
+package com.kris.massey;
+
+
+import com.sun.jersey.api.model.AbstractMethod;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.spi.container.*;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+@Provider
+public class ApiVersionResourceFilterFactory implements ResourceFilterFactory {
+
+    private static final Logger LOGGER = Logger.getLogger(ApiVersionResourceFilterFactory.class.getName());
+    // Matched by name, as the security annotations are not on the classpath of every application.
+    private static final String ROLES_ALLOWED = "javax.annotation.security.RolesAllowed";
+    private static final String DENY_ALL = "javax.annotation.security.DenyAll";
+
+    //TODO the contract is broken between Float and a string this needs to be cleaned up.
+
+    private final ApiVersionMatcher apiVersionMatcher;
+    // Set when the default matcher is used, so filters can see the requested version and why it was rejected.
+    private final DefaultApiVersionMatcher defaultApiVersionMatcher;
+    // Whether the matcher is one of this library's, whose checks are made without asking supportsRequestedVersion.
+    private final boolean checksDirectly;
+    private final String versionHeaderName;
+    // Header names are case insensitive and Jersey lower cases the name on every lookup, which is free when it already is.
+    private final String versionHeaderLookupName;
+    private final VersionCache versionCache = new VersionCache();
+    private final VersionIndex versionIndex = new VersionIndex();
+    private final ApiVersionStatistics statistics = new ApiVersionStatistics();
+    // Every range of every filter, so the endpoints a version reaches can be listed.
+    private final VersionBuckets floatBuckets = new VersionBuckets();
+    private final VersionBuckets semanticBuckets = new VersionBuckets();
+    private volatile ClientVersionTracker clientVersionTracker;
+    private volatile VersionedResponseCache responseCache;
+    private volatile VersionAdmission versionAdmission;
+    private volatile VersionPolicy versionPolicy;
+    private volatile VersionPolicy candidatePolicy;
+    private volatile PinnedVersions pinnedVersions;
+    private final VersionWarmUp warmUp = new VersionWarmUp();
+    private volatile boolean ready;
+    // Set while warmUp runs, so real requests only look for the warm-up property then.
+    private volatile boolean warmingUp;
+    private final String warmUpProperty = VersionWarmUp.class.getName() + "@" + Integer.toHexString(System.identityHashCode(this));
+    private final String transformChainProperty = VersionTransforms.Chain.class.getName() + "@" + Integer.toHexString(System.identityHashCode(this));
+    private final String responseCacheKeyProperty = VersionedResponseCache.Key.class.getName() + "@" + Integer.toHexString(System.identityHashCode(this));
+    // Set when the version is extracted by a chain, which runs once per request and leaves its result in a property.
+    private final VersionExtractor[] versionExtractors;
+    private final String requestedVersionProperty = RequestedVersion.class.getName() + "@" + Integer.toHexString(System.identityHashCode(this));
+
+    public ApiVersionResourceFilterFactory(ApiVersionMatcher apiVersionMatcher, String versionHeaderName) {
+        this.apiVersionMatcher = apiVersionMatcher;
+        this.defaultApiVersionMatcher = apiVersionMatcher instanceof DefaultApiVersionMatcher ? (DefaultApiVersionMatcher) apiVersionMatcher : null;
+        // A subclass may have overridden supportsRequestedVersion, so only the exact classes are known to check directly.
+        this.checksDirectly = apiVersionMatcher != null && (apiVersionMatcher.getClass() == DefaultApiVersionMatcher.class
+                || apiVersionMatcher.getClass() == MediaTypeVersionMatcher.class);
+        this.versionHeaderName = versionHeaderName;
+        this.versionHeaderLookupName = versionHeaderName.toLowerCase(Locale.ENGLISH);
+        this.versionExtractors = null;
+    }
+
+    public ApiVersionResourceFilterFactory() {
+        this.versionHeaderName = "Version";
+        this.versionHeaderLookupName = versionHeaderName.toLowerCase(Locale.ENGLISH);
+        this.defaultApiVersionMatcher = new DefaultApiVersionMatcher(versionHeaderLookupName);
+        this.apiVersionMatcher = defaultApiVersionMatcher;
+        this.checksDirectly = true;
+        this.versionExtractors = null;
+    }
+
+    /**
+     * Takes the version from the first of the extractors to find one, for example a header and then a query parameter,
+     * and checks it as the {@link DefaultApiVersionMatcher} does.
+     *
+     * @param versionHeaderName the name rejections and statistics report the version under.
+     */
+    public ApiVersionResourceFilterFactory(String versionHeaderName, VersionExtractor... versionExtractors) {
+        if (versionExtractors.length == 0) {
+            throw new IllegalArgumentException("At least one VersionExtractor is needed");
+        }
+
+        this.versionHeaderName = versionHeaderName;
+        this.versionHeaderLookupName = versionHeaderName.toLowerCase(Locale.ENGLISH);
+        this.defaultApiVersionMatcher = new DefaultApiVersionMatcher(versionHeaderLookupName);
+        this.apiVersionMatcher = defaultApiVersionMatcher;
+        this.checksDirectly = true;
+        this.versionExtractors = versionExtractors.clone();
+    }
+
+    @Override
+    public List<ResourceFilter> create(AbstractMethod am) {
+        List<ResourceFilter> response = null;
+        Class<?> resourceClass = am.getResource().getResourceClass();
+        // A generated index answers without reflection, classes compiled without the processor fall back to it.
+        VersionIndex.Entries index = versionIndex.forClass(resourceClass);
+        // Class and method annotations are merged here, once, so each method still gets a single filter.
+        VersionRange range = index != null
+                ? index.rangeOf(am.getMethod())
+                : VersionRange.merge(resourceClass.getAnnotation(ApiVersion.class), am.getAnnotation(ApiVersion.class), am.getMethod());
+
+        if(range != null) {
+            if (range.isSemantic() && defaultApiVersionMatcher == null) {
+                throw new IllegalStateException("Semantic @ApiVersion ranges on " + am.getMethod()
+                        + " need the DefaultApiVersionMatcher, an ApiVersionMatcher only supports float versions");
+            }
+
+            VersionRouteTable routeTable = am instanceof AbstractResourceMethod && (index == null || index.hasAlternatives(am.getMethod()))
+                    ? VersionRouteTable.forResourceMethod(resourceClass, am.getMethod())
+                    : null;
+            MethodVersionStatistics methodStatistics = statistics.forMethod(am.getMethod());
+            ResponseCacheFilter responseCacheFilter = am instanceof AbstractResourceMethod
+                    && HttpMethod.GET.equals(((AbstractResourceMethod) am).getHttpMethod())
+                    && !hasOtherFilters(am, resourceClass)
+                    ? new ResponseCacheFilter(variesByAccept((AbstractResourceMethod) am))
+                    : null;
+
+            ResourceFilter filter;
+            boolean convertsResponses;
+            if (routeTable == null) {
+                VersionTransforms transforms = VersionTransforms.forMethod(am.getMethod(), range);
+                convertsResponses = transforms != null && transforms.hasResponseTransforms();
+                bucketsOf(range).register(am.getMethod(), range);
+                filter = new VersionFilter(range, am.getMethod(), methodStatistics, responseCacheFilter, versionPolicy, candidatePolicy,
+                        transforms);
+            } else {
+                VersionTransforms[] routeTransforms = new VersionTransforms[routeTable.size()];
+                boolean transformed = false;
+                convertsResponses = false;
+                for (int i = 0; i < routeTable.size(); i++) {
+                    bucketsOf(routeTable.rangeAt(i)).register(routeTable.methodAt(i), routeTable.rangeAt(i));
+                    routeTransforms[i] = VersionTransforms.forMethod(routeTable.methodAt(i), routeTable.rangeAt(i));
+                    transformed |= routeTransforms[i] != null;
+                    convertsResponses |= routeTransforms[i] != null && routeTransforms[i].hasResponseTransforms();
+                }
+                filter = new VersionRouteFilter(routeTable, methodStatistics, responseCacheFilter, transformed ? routeTransforms : null);
+            }
+            warmUp.register(filter.getRequestFilter(), routeTable == null ? range : routeTable.span());
+            // Only methods declaring response transforms get the response filter converting their entities.
+            response = convertsResponses
+                    ? Arrays.<ResourceFilter>asList(filter, new TransformFilter())
+                    : Collections.singletonList(filter);
+        }
+
+        return response;
+    }
+
+    public ApiVersionStatisticsMXBean getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Publishes the statistics over JMX, named by the application and the version header so the factories of several
+     * applications in one JVM are told apart. Call {@link #unregisterStatistics} when the application stops, as the
+     * platform MBean server otherwise keeps the factory, and its class loader, after a redeploy.
+     *
+     * @param application a name unique among the applications of the JVM, such as the context path.
+     * @throws IllegalStateException when this factory, or another for the same application and header, is registered.
+     */
+    public void registerStatistics(String application) {
+        statistics.register(application, versionHeaderName);
+    }
+
+    public void unregisterStatistics() {
+        statistics.unregister();
+    }
+
+    /**
+     * Lists the resource methods, and {@link ApiVersionAlternative} implementations, whose declared range holds the
+     * version, among those this factory has created filters for. A version that parses both as a float and as a semantic
+     * version is looked up in both kinds of range.
+     *
+     * @return the methods in the order their filters were created, empty when the version is not valid.
+     */
+    public List<Method> methodsSupporting(String version) {
+        List<Method> methods = new ArrayList<Method>();
+
+        float floatVersion = versionCache.parse(version);
+        if (VersionParser.isValid(floatVersion)) {
+            methods.addAll(floatBuckets.table().methodsAccepting(VersionRange.key(floatVersion)));
+        }
+
+        long semanticVersion = SemanticVersion.parse(version);
+        if (SemanticVersion.isValid(semanticVersion)) {
+            methods.addAll(semanticBuckets.table().methodsAccepting(semanticVersion));
+        }
+
+        return methods;
+    }
+
+    /**
+     * Feeds the client and version of every request with a valid version, accepted or rejected, to the tracker. A custom
+     * {@link ApiVersionMatcher} reads the version itself, so its requests are not tracked.
+     */
+    public void setClientVersionTracker(ClientVersionTracker clientVersionTracker) {
+        this.clientVersionTracker = clientVersionTracker;
+    }
+
+    /**
+     * Keeps the GET responses of versioned resource methods that allow it, by the method the version resolves to, and
+     * adds the version header to the Vary header of their responses. Taking effect for requests that start after it is
+     * set, a null cache turns caching off again.
+     *
+     * A cached response is answered from the request filter of this factory, so the request filters of factories listed
+     * after it do not run for it. Factories that authorize requests must be listed before this one. Methods declaring
+     * {@link ResourceFilters}, RolesAllowed or DenyAll are never cached.
+     */
+    public void setResponseCache(VersionedResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Limits the rate of accepted requests per range of requested versions, checked by the filters once they have
+     * accepted a version. A custom {@link ApiVersionMatcher} reads the version itself, so its requests are not limited.
+     */
+    public void setVersionAdmission(VersionAdmission versionAdmission) {
+        this.versionAdmission = versionAdmission;
+    }
+
+    /**
+     * Overrides the ranges of resource methods from a policy file, which is read by the filters with one volatile read
+     * per request. Only filters created after it is set, so when the application is initiated, use the policy. Methods
+     * listed by {@link #methodsSupporting(String)} are still those whose annotated range holds the version.
+     */
+    public void setVersionPolicy(VersionPolicy versionPolicy) {
+        this.versionPolicy = versionPolicy;
+    }
+
+    /**
+     * Checks accepted requests against candidate ranges read from a second policy file, in the format of
+     * {@link VersionPolicy}, and counts those a candidate would reject in {@link ApiVersionStatisticsMXBean#getWouldRejectRequests()}
+     * without changing their responses, to see how much traffic raising a range would break before enforcing it. Like
+     * the enforced policy, only filters created after it is set use it, and methods with alternatives have no candidate.
+     */
+    public void setCandidatePolicy(VersionPolicy candidatePolicy) {
+        this.candidatePolicy = candidatePolicy;
+    }
+
+    /**
+     * Uses the version a client is pinned to as the requested version of its requests sending none, so they are checked
+     * against the range instead of being accepted because the header is not required. Methods requiring the header still
+     * reject requests without one. A custom {@link ApiVersionMatcher} reads the version itself, so its requests are not
+     * pinned.
+     */
+    public void setPinnedVersions(PinnedVersions pinnedVersions) {
+        this.pinnedVersions = pinnedVersions;
+    }
+
+    /**
+     * Sends synthetic requests through every filter created so far, with an accepted, an out of range, a malformed and
+     * no version, until the JIT has compiled them or the timeout runs out, and then reports the factory ready. Call it
+     * once the application has been initiated and before it takes traffic. The synthetic requests carry a property the
+     * filters recognize, so they are not counted in the statistics, tracked, admitted or looked up in the response cache,
+     * and requests served meanwhile are handled as usual.
+     */
+    public synchronized void warmUp(long timeout, TimeUnit unit) {
+        long start = System.nanoTime();
+        warmingUp = true;
+        try {
+            long sent = warmUp.run(versionHeaderName, warmUpProperty, unit.toNanos(timeout));
+            LOGGER.info("Warmed up " + warmUp.size() + " version filters with " + sent + " requests in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } finally {
+            warmingUp = false;
+            ready = true;
+        }
+    }
+
+    /**
+     * @return whether {@link #warmUp} has finished, for a readiness check holding traffic back until it has.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    String versionHeaderName() {
+        return versionHeaderName;
+    }
+
+    /**
+     * @return whether the version is read from the version header alone, as {@link ApiVersionServletFilter} reads it,
+     * rather than by extractors or a matcher of another class, such as the {@link MediaTypeVersionMatcher}.
+     */
+    boolean readsTheVersionHeaderOnly() {
+        return versionExtractors == null && apiVersionMatcher != null && apiVersionMatcher.getClass() == DefaultApiVersionMatcher.class;
+    }
+
+    private boolean isWarmUp(ContainerRequest request) {
+        return warmingUp && request.getProperties().containsKey(warmUpProperty);
+    }
+
+    /**
+     * Ends a warm-up request once it has been checked, leaving the statistics, admission and response cache to real ones.
+     */
+    private static ContainerRequest warmedUp(ContainerRequest request, VersionOutcome outcome, VersionRejection rejection) {
+        if (outcome == VersionOutcome.ACCEPTED) {
+            return request;
+        }
+        throw rejection.exception();
+    }
+
+    /**
+     * Takes a token for an accepted request, counting it as throttled when admission control answers it with 429, so it
+     * is not counted as accepted as well.
+     *
+     * @param requestedVersion the version statistics record, the major version of a semantic one.
+     */
+    private void admit(boolean semantic, float requestedVersion, long requestedSemanticVersion, MethodVersionStatistics methodStatistics,
+                       long start) {
+        VersionAdmission admission = versionAdmission;
+        if (admission == null) {
+            return;
+        }
+
+        try {
+            if (semantic) {
+                if (SemanticVersion.isValid(requestedSemanticVersion)) {
+                    admission.admitSemantic(requestedSemanticVersion);
+                }
+            } else if (requestedVersion != DefaultApiVersionMatcher.NO_REQUESTED_VERSION && VersionParser.isValid(requestedVersion)) {
+                admission.admit(requestedVersion);
+            }
+        } catch (WebApplicationException e) {
+            methodStatistics.recordThrottled(requestedVersion, System.nanoTime() - start);
+            throw e;
+        }
+    }
+
+    /**
+     * Converts a JSON request entity up from the requested version as the resource method reads it.
+     *
+     * @return the transforms converting the response down to the requested version, left in a request property for the
+     * {@link TransformFilter}, or null when the response is sent as the method produces it.
+     */
+    private VersionTransforms.Chain selectTransforms(ContainerRequest request, VersionTransforms transforms, VersionRange range,
+                                                     float requestedVersion, long requestedSemanticVersion) {
+        if (transforms == null) {
+            return null;
+        }
+
+        VersionTransforms.Chain requestChain = range.isSemantic()
+                ? transforms.requestChainForSemantic(requestedSemanticVersion)
+                : transforms.requestChainFor(requestedVersion);
+        if (requestChain != null && isJson(request.getMediaType())) {
+            // The conversion changes the length, so the entity is read to its end instead.
+            request.getRequestHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            request.setEntityInputStream(new JsonTransformInputStream(request.getEntityInputStream(), requestChain));
+        }
+
+        VersionTransforms.Chain chain = range.isSemantic()
+                ? transforms.chainForSemantic(requestedSemanticVersion)
+                : transforms.chainFor(requestedVersion);
+        if (chain != null) {
+            request.getProperties().put(transformChainProperty, chain);
+        }
+        return chain;
+    }
+
+    private static boolean isJson(MediaType mediaType) {
+        return mediaType != null && (mediaType.getSubtype().equals("json") || mediaType.getSubtype().endsWith("+json"));
+    }
+
+    /**
+     * A cached response is served from the version filter, so request filters running after it would be skipped. Methods
+     * declaring {@link ResourceFilters}, or the security annotations RolesAllowedResourceFilterFactory reads, are never
+     * cached.
+     */
+    private static boolean hasOtherFilters(AbstractMethod am, Class<?> resourceClass) {
+        return am.isAnnotationPresent(ResourceFilters.class) || resourceClass.isAnnotationPresent(ResourceFilters.class)
+                || hasAnnotation(am.getAnnotations(), ROLES_ALLOWED) || hasAnnotation(resourceClass.getAnnotations(), ROLES_ALLOWED)
+                || hasAnnotation(am.getAnnotations(), DENY_ALL);
+    }
+
+    private static boolean hasAnnotation(Annotation[] annotations, String annotationName) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType().getName().equals(annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean variesByAccept(AbstractResourceMethod am) {
+        // Without a single concrete type, the writer and so the response are chosen by the Accept header.
+        List<MediaType> outputTypes = am.getSupportedOutputTypes();
+        return outputTypes.size() != 1 || outputTypes.get(0).isWildcardType() || outputTypes.get(0).isWildcardSubtype();
+    }
+
+    private void track(ContainerRequest request, float requestedVersion) {
+        ClientVersionTracker tracker = clientVersionTracker;
+        if (tracker != null && requestedVersion != DefaultApiVersionMatcher.NO_REQUESTED_VERSION && VersionParser.isValid(requestedVersion)) {
+            tracker.recordVersion(request.getHeaderValue(tracker.clientHeaderLookupName()), requestedVersion);
+        }
+    }
+
+    private void trackSemantic(ContainerRequest request, long requestedSemanticVersion) {
+        ClientVersionTracker tracker = clientVersionTracker;
+        if (tracker != null && SemanticVersion.isValid(requestedSemanticVersion)) {
+            tracker.recordSemanticVersion(request.getHeaderValue(tracker.clientHeaderLookupName()), requestedSemanticVersion);
+        }
+    }
+
+    private VersionBuckets bucketsOf(VersionRange range) {
+        return range.isSemantic() ? semanticBuckets : floatBuckets;
+    }
+
+    /**
+     * @param headerRequired whether the range requires the header, in which case a missing version is not pinned.
+     */
+    private float requestedVersion(ContainerRequest request, boolean headerRequired) {
+        float requestedVersion;
+        if (versionExtractors != null) {
+            requestedVersion = resolve(request).version();
+        } else if (defaultApiVersionMatcher != null) {
+            requestedVersion = defaultApiVersionMatcher.requestedVersion(request);
+        } else {
+            // A custom matcher decides from the request itself, so its version is not pinned either.
+            String versionHeader = request.getHeaderValue(versionHeaderLookupName);
+            return versionHeader == null || versionHeader.isEmpty() ? DefaultApiVersionMatcher.NO_REQUESTED_VERSION : versionCache.parse(versionHeader);
+        }
+
+        PinnedVersions pins = pinnedVersions;
+        return requestedVersion == DefaultApiVersionMatcher.NO_REQUESTED_VERSION && pins != null && !headerRequired
+                ? pins.pinnedVersion(request)
+                : requestedVersion;
+    }
+
+    private long requestedSemanticVersion(ContainerRequest request, boolean headerRequired) {
+        long requestedSemanticVersion = versionExtractors != null
+                ? resolve(request).semanticVersion()
+                : defaultApiVersionMatcher.requestedSemanticVersion(request);
+
+        PinnedVersions pins = pinnedVersions;
+        return requestedSemanticVersion == DefaultApiVersionMatcher.NO_REQUESTED_SEMANTIC_VERSION && pins != null && !headerRequired
+                ? pins.pinnedSemanticVersion(request)
+                : requestedSemanticVersion;
+    }
+
+    private RequestedVersion resolve(ContainerRequest request) {
+        Map<String, Object> properties = request.getProperties();
+        RequestedVersion requestedVersion = (RequestedVersion) properties.get(requestedVersionProperty);
+
+        if (requestedVersion == null) {
+            requestedVersion = RequestedVersion.parse(extract(request), versionCache);
+            properties.put(requestedVersionProperty, requestedVersion);
+        }
+
+        return requestedVersion;
+    }
+
+    private String extract(ContainerRequest request) {
+        for (VersionExtractor versionExtractor : versionExtractors) {
+            String version = versionExtractor.extract(request);
+            if (version != null && !version.isEmpty()) {
+                return version;
+            }
+        }
+
+        return null;
+    }
+
+    private VersionOutcome checkSemantic(VersionRange range, long requestedVersion) {
+        return defaultApiVersionMatcher.checkSemantic(range.isHeaderRequired(), range.lowerKey(), range.upperKey(), requestedVersion);
+    }
+
+    /**
+     * @return the float version statistics are kept for, which only distinguish major versions.
+     */
+    private static float statisticsVersion(long requestedSemanticVersion) {
+        if (requestedSemanticVersion == DefaultApiVersionMatcher.NO_REQUESTED_SEMANTIC_VERSION) {
+            return DefaultApiVersionMatcher.NO_REQUESTED_VERSION;
+        }
+
+        return SemanticVersion.isValid(requestedSemanticVersion)
+                ? SemanticVersion.major(requestedSemanticVersion)
+                : DefaultApiVersionMatcher.INVALID_REQUESTED_VERSION;
+    }
+
+    private VersionOutcome check(VersionRange range, float requestedVersion, ContainerRequest request) {
+        if (checksDirectly) {
+            return defaultApiVersionMatcher.check(range.isHeaderRequired(), range.getMinVersion(), range.getMaxVersion(), requestedVersion);
+        }
+
+        if (apiVersionMatcher.supportsRequestedVersion(range.isHeaderRequired(), range.getMinVersion(), range.getMaxVersion(), request)) {
+            return VersionOutcome.ACCEPTED;
+        }
+
+        // A subclass of the default matcher still tells why it refused a version, unless its check would have accepted it.
+        VersionOutcome outcome = defaultApiVersionMatcher == null ? VersionOutcome.UNSUPPORTED_VERSION
+                : defaultApiVersionMatcher.check(range.isHeaderRequired(), range.getMinVersion(), range.getMaxVersion(), requestedVersion);
+        return outcome == VersionOutcome.ACCEPTED ? VersionOutcome.UNSUPPORTED_VERSION : outcome;
+    }
+
+    private class VersionFilter implements ResourceFilter, ContainerRequestFilter {
+
+        private final VersionRange range;
+        private final Method method;
+        private final VersionRejection rejection;
+        private final MethodVersionStatistics methodStatistics;
+        private final ResponseCacheFilter responseCacheFilter;
+        private final VersionPolicy versionPolicy;
+        private final VersionPolicy candidatePolicy;
+        private final VersionTransforms transforms;
+        // The override of the last policy snapshot seen, replaced whole so a racing request sees one or the other.
+        private PolicyOverride policyOverride;
+        private PolicyOverride candidate;
+
+        private VersionFilter(VersionRange range, Method method, MethodVersionStatistics methodStatistics,
+                              ResponseCacheFilter responseCacheFilter, VersionPolicy versionPolicy, VersionPolicy candidatePolicy,
+                              VersionTransforms transforms) {
+            this.range = range;
+            this.method = method;
+            this.rejection = new VersionRejection(versionHeaderName, range);
+            this.methodStatistics = methodStatistics;
+            this.responseCacheFilter = responseCacheFilter;
+            this.versionPolicy = versionPolicy;
+            this.candidatePolicy = candidatePolicy;
+            this.transforms = transforms;
+        }
+
+        @Override
+        public ContainerRequestFilter getRequestFilter() {
+            return this;
+        }
+
+        @Override
+        public ContainerResponseFilter getResponseFilter() {
+            return responseCacheFilter;
+        }
+
+        @Override
+        public ContainerRequest filter(final ContainerRequest request) {
+            long start = System.nanoTime();
+            VersionOutcome outcome;
+            float requestedVersion;
+            long requestedSemanticVersion = DefaultApiVersionMatcher.NO_REQUESTED_SEMANTIC_VERSION;
+            VersionRange effectiveRange = range;
+            VersionRejection effectiveRejection = rejection;
+            boolean synthetic = isWarmUp(request);
+
+            if (versionPolicy != null) {
+                PolicyOverride override = policyOverride();
+                if (override.range != null) {
+                    effectiveRange = override.range;
+                    effectiveRejection = override.rejection;
+                }
+            }
+
+            if (effectiveRange.isSemantic()) {
+                requestedSemanticVersion = requestedSemanticVersion(request, effectiveRange.isHeaderRequired());
+                outcome = checkSemantic(effectiveRange, requestedSemanticVersion);
+                requestedVersion = statisticsVersion(requestedSemanticVersion);
+                if (!synthetic) {
+                    trackSemantic(request, requestedSemanticVersion);
+                }
+            } else if (defaultApiVersionMatcher != null) {
+                requestedVersion = requestedVersion(request, effectiveRange.isHeaderRequired());
+                outcome = check(effectiveRange, requestedVersion, request);
+                if (!synthetic) {
+                    track(request, requestedVersion);
+                }
+            } else {
+                // A custom matcher reads the version itself, so there is no requested version to record.
+                requestedVersion = DefaultApiVersionMatcher.NO_REQUESTED_VERSION;
+                outcome = check(effectiveRange, requestedVersion, request);
+            }
+
+            if (synthetic) {
+                return warmedUp(request, outcome, effectiveRejection);
+            }
+
+            if (outcome == VersionOutcome.ACCEPTED) {
+                admit(effectiveRange.isSemantic(), requestedVersion, requestedSemanticVersion, methodStatistics, start);
+            }
+            methodStatistics.record(outcome, requestedVersion, System.nanoTime() - start);
+
+            if(outcome == VersionOutcome.ACCEPTED) {
+                // A custom matcher reads the version itself, so there is no version to check a candidate against.
+                if (candidatePolicy != null && defaultApiVersionMatcher != null) {
+                    checkCandidate(requestedVersion, requestedSemanticVersion);
+                }
+                VersionTransforms.Chain chain = selectTransforms(request, transforms, effectiveRange, requestedVersion, requestedSemanticVersion);
+                // A cached response is sent as stored, so responses that are converted are neither looked up nor stored.
+                if (responseCacheFilter != null && chain == null) {
+                    responseCacheFilter.lookup(request, method);
+                }
+                return request;
+            }
+
+            throw effectiveRejection.exception();
+        }
+
+        /**
+         * Counts the request when the candidate range would reject it, leaving the request as it is.
+         */
+        private void checkCandidate(float requestedVersion, long requestedSemanticVersion) {
+            VersionPolicy.Snapshot snapshot = candidatePolicy.snapshot();
+            PolicyOverride current = candidate;
+
+            if (current == null || current.snapshot != snapshot) {
+                current = new PolicyOverride(snapshot, snapshot.rangeOf(method), null);
+                candidate = current;
+            }
+
+            if (current.range != null) {
+                VersionOutcome candidateOutcome = current.range.isSemantic()
+                        ? current.range.checkSemantic(requestedSemanticVersion)
+                        : current.range.check(requestedVersion);
+                if (candidateOutcome != VersionOutcome.ACCEPTED) {
+                    methodStatistics.recordWouldReject(candidateOutcome);
+                }
+            }
+        }
+
+        private PolicyOverride policyOverride() {
+            VersionPolicy.Snapshot snapshot = versionPolicy.snapshot();
+            PolicyOverride current = policyOverride;
+
+            // The override and its rejection body are only built again when a new snapshot has been published.
+            if (current == null || current.snapshot != snapshot) {
+                VersionRange overridden = snapshot.rangeOf(method);
+                current = new PolicyOverride(snapshot, overridden,
+                        overridden == null ? null : new VersionRejection(versionHeaderName, overridden));
+                policyOverride = current;
+            }
+
+            return current;
+        }
+    }
+
+    private static final class PolicyOverride {
+
+        private final VersionPolicy.Snapshot snapshot;
+        private final VersionRange range;
+        private final VersionRejection rejection;
+
+        private PolicyOverride(VersionPolicy.Snapshot snapshot, VersionRange range, VersionRejection rejection) {
+            this.snapshot = snapshot;
+            this.range = range;
+            this.rejection = rejection;
+        }
+    }
+
+    /**
+     * Selects which of a resource method's {@link ApiVersionAlternative}s serves the request with one lookup in its
+     * {@link VersionRouteTable}, leaving the choice for {@link ApiVersionRoutingDispatchAdapter} to dispatch on.
+     */
+    private class VersionRouteFilter implements ResourceFilter, ContainerRequestFilter {
+
+        private final VersionRouteTable routeTable;
+        private final VersionRejection rejection;
+        private final MethodVersionStatistics methodStatistics;
+        private final ResponseCacheFilter responseCacheFilter;
+        // The transforms of each implementation, by route, or null when none declares any.
+        private final VersionTransforms[] routeTransforms;
+
+        private VersionRouteFilter(VersionRouteTable routeTable, MethodVersionStatistics methodStatistics, ResponseCacheFilter responseCacheFilter,
+                                   VersionTransforms[] routeTransforms) {
+            this.routeTable = routeTable;
+            this.rejection = new VersionRejection(versionHeaderName, routeTable.span());
+            this.methodStatistics = methodStatistics;
+            this.responseCacheFilter = responseCacheFilter;
+            this.routeTransforms = routeTransforms;
+        }
+
+        @Override
+        public ContainerRequestFilter getRequestFilter() {
+            return this;
+        }
+
+        @Override
+        public ContainerResponseFilter getResponseFilter() {
+            return responseCacheFilter;
+        }
+
+        @Override
+        public ContainerRequest filter(final ContainerRequest request) {
+            long start = System.nanoTime();
+            int route;
+            VersionOutcome outcome;
+            float requestedVersion;
+            long requestedSemanticVersion = DefaultApiVersionMatcher.NO_REQUESTED_SEMANTIC_VERSION;
+            boolean synthetic = isWarmUp(request);
+            // A request without a version is routed to the resource method, so its range decides whether it is pinned.
+            boolean headerRequired = routeTable.rangeAt(routeTable.resourceMethodIndex()).isHeaderRequired();
+
+            // Without a version the resource method itself is the default, as it is the one visible to Jersey.
+            if (routeTable.isSemantic()) {
+                requestedSemanticVersion = requestedSemanticVersion(request, headerRequired);
+                route = requestedSemanticVersion == DefaultApiVersionMatcher.NO_REQUESTED_SEMANTIC_VERSION
+                        ? routeTable.resourceMethodIndex()
+                        : SemanticVersion.isValid(requestedSemanticVersion) ? routeTable.indexOfKey(requestedSemanticVersion) : -1;
+                if (route < 0) {
+                    outcome = withoutRoute(checkSemantic(routeTable.span(), requestedSemanticVersion));
+                } else if (checksDirectly) {
+                    outcome = routed(route, requestedSemanticVersion == DefaultApiVersionMatcher.NO_REQUESTED_SEMANTIC_VERSION);
+                } else {
+                    outcome = checkSemantic(routeTable.rangeAt(route), requestedSemanticVersion);
+                }
+                requestedVersion = statisticsVersion(requestedSemanticVersion);
+                if (!synthetic) {
+                    trackSemantic(request, requestedSemanticVersion);
+                }
+            } else {
+                requestedVersion = requestedVersion(request, headerRequired);
+                route = requestedVersion == DefaultApiVersionMatcher.NO_REQUESTED_VERSION
+                        ? routeTable.resourceMethodIndex()
+                        : routeTable.indexOf(requestedVersion);
+                if (route < 0) {
+                    outcome = withoutRoute(check(routeTable.span(), requestedVersion, request));
+                } else if (checksDirectly) {
+                    outcome = routed(route, requestedVersion == DefaultApiVersionMatcher.NO_REQUESTED_VERSION);
+                } else {
+                    // The route was found from the version, but whether it is supported is up to the matcher.
+                    outcome = check(routeTable.rangeAt(route), requestedVersion, request);
+                }
+                if (!synthetic) {
+                    track(request, requestedVersion);
+                }
+            }
+
+            if (synthetic) {
+                return warmedUp(request, outcome, rejection);
+            }
+
+            if (outcome == VersionOutcome.ACCEPTED) {
+                admit(routeTable.isSemantic(), requestedVersion, requestedSemanticVersion, methodStatistics, start);
+            }
+            methodStatistics.record(outcome, requestedVersion, System.nanoTime() - start);
+
+            if (outcome == VersionOutcome.ACCEPTED) {
+                // The dispatch adapter builds the same table, so the index names the same implementation there.
+                request.getProperties().put(VersionRouteTable.ROUTE_PROPERTY, route);
+                VersionTransforms.Chain chain = routeTransforms == null ? null
+                        : selectTransforms(request, routeTransforms[route], routeTable.rangeAt(route), requestedVersion, requestedSemanticVersion);
+                if (responseCacheFilter != null && chain == null) {
+                    responseCacheFilter.lookup(request, routeTable.methodAt(route));
+                }
+                return request;
+            }
+
+            throw rejection.exception();
+        }
+
+        /**
+         * @return the outcome of a request the binary search found a route for, whose version is within the range of the
+         * route unless none was sent and the route is the resource method's.
+         */
+        private VersionOutcome routed(int route, boolean noVersion) {
+            return noVersion && routeTable.rangeAt(route).isHeaderRequired() ? VersionOutcome.MISSING_HEADER : VersionOutcome.ACCEPTED;
+        }
+
+        private VersionOutcome withoutRoute(VersionOutcome spanOutcome) {
+            // A version within the span that no implementation serves falls between two of their ranges.
+            return spanOutcome == VersionOutcome.ACCEPTED ? VersionOutcome.UNSUPPORTED_VERSION : spanOutcome;
+        }
+    }
+
+    /**
+     * Answers accepted GET requests from the {@link VersionedResponseCache}, when one is set, and stores their responses
+     * under the method the version was resolved to, which the version filters look up once they have accepted a request.
+     */
+    private class ResponseCacheFilter implements ContainerResponseFilter {
+
+        private final boolean variesByAccept;
+        private final String vary;
+
+        private ResponseCacheFilter(boolean variesByAccept) {
+            this.variesByAccept = variesByAccept;
+            this.vary = variesByAccept ? versionHeaderName + ", " + HttpHeaders.ACCEPT : versionHeaderName;
+        }
+
+        private void lookup(ContainerRequest request, Method method) {
+            VersionedResponseCache cache = responseCache;
+            // HEAD requests are served by GET methods too, but their responses have no entity to store.
+            if (cache == null || !HttpMethod.GET.equals(request.getMethod())) {
+                return;
+            }
+
+            VersionedResponseCache.Key key = VersionedResponseCache.key(method, request, variesByAccept);
+            request.getProperties().put(responseCacheKeyProperty, key);
+
+            WebApplicationException cached = cache.cachedResponse(key, request);
+            if (cached != null) {
+                throw cached;
+            }
+        }
+
+        @Override
+        public ContainerResponse filter(ContainerRequest request, ContainerResponse response) {
+            VersionedResponseCache cache = responseCache;
+            VersionedResponseCache.Key key = cache == null ? null : (VersionedResponseCache.Key) request.getProperties().get(responseCacheKeyProperty);
+            if (key == null) {
+                return response;
+            }
+
+            addVary(response, vary);
+            cache.store(key, versionHeaderLookupName, request, response);
+            return response;
+        }
+    }
+
+    /**
+     * Adds the given names to the Vary header of the response, unless it already names the version header.
+     */
+    private void addVary(ContainerResponse response, String vary) {
+        Object existing = response.getHttpHeaders().getFirst(HttpHeaders.VARY);
+        if (existing == null) {
+            response.getHttpHeaders().putSingle(HttpHeaders.VARY, vary);
+        } else if (!existing.toString().toLowerCase(Locale.ENGLISH).contains(versionHeaderLookupName)) {
+            response.getHttpHeaders().putSingle(HttpHeaders.VARY, existing + ", " + vary);
+        }
+    }
+
+    /**
+     * Converts the JSON entity of a response down to the requested version as it is written, with the transforms the
+     * version filter selected for the request. Every JSON response of the method, converted or not, depends on the
+     * version sent, so the version header is added to its Vary header for caches between the API and its clients.
+     */
+    private class TransformFilter implements ResourceFilter, ContainerResponseFilter {
+
+        @Override
+        public ContainerRequestFilter getRequestFilter() {
+            return null;
+        }
+
+        @Override
+        public ContainerResponseFilter getResponseFilter() {
+            return this;
+        }
+
+        @Override
+        public ContainerResponse filter(ContainerRequest request, ContainerResponse response) {
+            VersionTransforms.Chain chain = (VersionTransforms.Chain) request.getProperties().get(transformChainProperty);
+
+            if (response.getEntity() == null || !isJson(response.getMediaType())) {
+                return response;
+            }
+
+            addVary(response, versionHeaderName);
+            if (chain != null) {
+                response.setContainerResponseWriter(new TransformingResponseWriter(response.getContainerResponseWriter(), chain));
+            }
+            return response;
+        }
+    }
+
+    private static final class TransformingResponseWriter implements ContainerResponseWriter {
+
+        private final ContainerResponseWriter writer;
+        private final VersionTransforms.Chain chain;
+        private JsonTransformStream stream;
+
+        private TransformingResponseWriter(ContainerResponseWriter writer, VersionTransforms.Chain chain) {
+            this.writer = writer;
+            this.chain = chain;
+        }
+
+        @Override
+        public OutputStream writeStatusAndHeaders(long contentLength, ContainerResponse response) throws IOException {
+            // The conversion changes the length, so the container is left to frame the entity.
+            response.getHttpHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            stream = chain.wrap(writer.writeStatusAndHeaders(-1, response));
+            return stream;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (stream != null) {
+                stream.finish();
+            }
+            writer.finish();
+        }
+    }
+}
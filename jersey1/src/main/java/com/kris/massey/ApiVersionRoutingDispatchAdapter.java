@@ -0,0 +1,104 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.core.HttpContext;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.api.model.AbstractSubResourceMethod;
+import com.sun.jersey.spi.container.ResourceMethodDispatchAdapter;
+import com.sun.jersey.spi.container.ResourceMethodDispatchProvider;
+import com.sun.jersey.spi.dispatch.RequestDispatcher;
+
+import javax.ws.rs.ext.Provider;
+import java.lang.reflect.Method;
+
+/**
+ * Dispatches requests for resource methods with {@link ApiVersionAlternative}s to the implementation selected for the
+ * requested version.
+ *
+ * The selection itself is made by the filter {@link ApiVersionResourceFilterFactory} attaches to the resource method,
+ * so both must be registered. Without a selection the resource method itself is invoked.
+ */
+@Provider
+public class ApiVersionRoutingDispatchAdapter implements ResourceMethodDispatchAdapter {
+
+    @Override
+    public ResourceMethodDispatchProvider adapt(ResourceMethodDispatchProvider provider) {
+        return new RoutingDispatchProvider(provider);
+    }
+
+    private static class RoutingDispatchProvider implements ResourceMethodDispatchProvider {
+
+        private final ResourceMethodDispatchProvider provider;
+
+        private RoutingDispatchProvider(ResourceMethodDispatchProvider provider) {
+            this.provider = provider;
+        }
+
+        @Override
+        public RequestDispatcher create(AbstractResourceMethod resourceMethod) {
+            RequestDispatcher dispatcher = provider.create(resourceMethod);
+            VersionRouteTable routeTable = VersionRouteTable.forResourceMethod(resourceMethod.getResource().getResourceClass(), resourceMethod.getMethod());
+
+            if (dispatcher == null || routeTable == null) {
+                return dispatcher;
+            }
+
+            RequestDispatcher[] dispatchers = new RequestDispatcher[routeTable.size()];
+            for (int i = 0; i < dispatchers.length; i++) {
+                Method method = routeTable.methodAt(i);
+                dispatchers[i] = method.equals(resourceMethod.getMethod()) ? dispatcher : provider.create(alternativeOf(resourceMethod, method));
+
+                if (dispatchers[i] == null) {
+                    throw new IllegalStateException("No dispatcher could be created for @ApiVersionAlternative method " + method);
+                }
+            }
+
+            return new VersionRoutingDispatcher(dispatchers, dispatcher);
+        }
+
+        private AbstractResourceMethod alternativeOf(AbstractResourceMethod resourceMethod, Method method) {
+            AbstractResourceMethod alternative;
+
+            if (resourceMethod instanceof AbstractSubResourceMethod) {
+                alternative = new AbstractSubResourceMethod(resourceMethod.getResource(), method, method.getReturnType(),
+                        method.getGenericReturnType(), ((AbstractSubResourceMethod) resourceMethod).getPath(),
+                        resourceMethod.getHttpMethod(), method.getAnnotations());
+            } else {
+                alternative = new AbstractResourceMethod(resourceMethod.getResource(), method, method.getReturnType(),
+                        method.getGenericReturnType(), resourceMethod.getHttpMethod(), method.getAnnotations());
+            }
+
+            // Alternatives are required to declare the same parameters, so the resource method's model applies to them.
+            alternative.getParameters().addAll(resourceMethod.getParameters());
+            alternative.getSupportedInputTypes().addAll(resourceMethod.getSupportedInputTypes());
+            alternative.getSupportedOutputTypes().addAll(resourceMethod.getSupportedOutputTypes());
+            alternative.setAreInputTypesDeclared(resourceMethod.areInputTypesDeclared());
+            alternative.setAreOutputTypesDeclared(resourceMethod.areOutputTypesDeclared());
+
+            return alternative;
+        }
+    }
+
+    private static class VersionRoutingDispatcher implements RequestDispatcher {
+
+        // By index in the route table, which the version filter selects from.
+        private final RequestDispatcher[] dispatchers;
+        private final RequestDispatcher resourceMethodDispatcher;
+
+        private VersionRoutingDispatcher(RequestDispatcher[] dispatchers, RequestDispatcher resourceMethodDispatcher) {
+            this.dispatchers = dispatchers;
+            this.resourceMethodDispatcher = resourceMethodDispatcher;
+        }
+
+        @Override
+        public void dispatch(Object resource, HttpContext context) {
+            Object route = context.getProperties().get(VersionRouteTable.ROUTE_PROPERTY);
+            int index = route instanceof Integer ? (Integer) route : -1;
+
+            if (index < 0) {
+                resourceMethodDispatcher.dispatch(resource, context);
+            } else {
+                dispatchers[index].dispatch(resource, context);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.kris.massey;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rejects requests for versions their resource method does not support before they reach Jersey, so a large upload
+ * from a client on a retired version is refused without its body being read or a Jersey request being built.
+ *
+ * The ranges are those {@link ApiVersionResourceFilterFactory} applies, read from the same annotations when the filter
+ * starts and checked as the {@link DefaultApiVersionMatcher} checks the version header, and rejections carry the same
+ * JSON body. The factory should still be registered: the filter only rejects a request when every resource method its
+ * path could match rejects the version, and lets everything else through to Jersey.
+ *
+ * Paths are matched against the path info of the request, or its servlet path when there is none, so the filter should
+ * be mapped to the same URL pattern as the Jersey servlet or filter. It is configured with the init parameters:
+ * <ul>
+ *     <li>{@value #RESOURCE_CLASSES_PARAMETER} - the root resource classes, separated by commas or whitespace</li>
+ *     <li>{@value #APPLICATION_PARAMETER} - or an {@link Application} whose classes are the root resources</li>
+ *     <li>{@value #VERSION_HEADER_NAME_PARAMETER} - the version header, "Version" by default</li>
+ * </ul>
+ *
+ * The filter only reads the version header, so it does not support factories taking the version from
+ * {@link VersionExtractor}s or through a matcher of their own, such as the {@link MediaTypeVersionMatcher}: it would
+ * reject requests sending their version elsewhere, which the factory accepts. Created from the factory in code, the
+ * filter refuses such a factory.
+ */
+public class ApiVersionServletFilter implements Filter {
+
+    public static final String RESOURCE_CLASSES_PARAMETER = "com.kris.massey.resourceClasses";
+    public static final String APPLICATION_PARAMETER = "javax.ws.rs.Application";
+    public static final String VERSION_HEADER_NAME_PARAMETER = "com.kris.massey.versionHeaderName";
+
+    private static final String DEFAULT_VERSION_HEADER_NAME = "Version";
+
+    private String versionHeaderName;
+    private VersionPathTable pathTable;
+
+    /**
+     * Creates a filter configured by its init parameters.
+     */
+    public ApiVersionServletFilter() {
+    }
+
+    /**
+     * Creates a filter for the given root resource classes, for registration in code, which ignores init parameters.
+     */
+    public ApiVersionServletFilter(String versionHeaderName, Class<?>... resourceClasses) {
+        this.versionHeaderName = versionHeaderName;
+        this.pathTable = VersionPathTable.forResourceClasses(versionHeaderName, Arrays.<Class<?>>asList(resourceClasses));
+    }
+
+    /**
+     * Creates a filter for the given root resource classes reading the version header of the factory, for registration
+     * in code, which ignores init parameters.
+     *
+     * @throws IllegalArgumentException when the factory reads the version other than from its version header alone.
+     */
+    public ApiVersionServletFilter(ApiVersionResourceFilterFactory factory, Class<?>... resourceClasses) {
+        this(versionHeaderNameOf(factory), resourceClasses);
+    }
+
+    private static String versionHeaderNameOf(ApiVersionResourceFilterFactory factory) {
+        if (!factory.readsTheVersionHeaderOnly()) {
+            throw new IllegalArgumentException(ApiVersionServletFilter.class.getSimpleName() + " only reads the version header, "
+                    + "so it cannot front a factory using VersionExtractors or a custom ApiVersionMatcher");
+        }
+        return factory.versionHeaderName();
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        if (pathTable != null) {
+            return;
+        }
+
+        String headerName = filterConfig.getInitParameter(VERSION_HEADER_NAME_PARAMETER);
+        versionHeaderName = headerName == null ? DEFAULT_VERSION_HEADER_NAME : headerName.trim();
+
+        try {
+            pathTable = VersionPathTable.forResourceClasses(versionHeaderName, resourceClasses(filterConfig));
+        } catch (ClassNotFoundException e) {
+            throw new ServletException("Resource class not found: " + e.getMessage(), e);
+        } catch (ReflectiveOperationException e) {
+            throw new ServletException("Could not create the Application " + filterConfig.getInitParameter(APPLICATION_PARAMETER), e);
+        }
+    }
+
+    private static List<Class<?>> resourceClasses(FilterConfig filterConfig) throws ReflectiveOperationException, ServletException {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader == null) {
+            classLoader = ApiVersionServletFilter.class.getClassLoader();
+        }
+
+        List<Class<?>> resourceClasses = new ArrayList<Class<?>>();
+
+        String classNames = filterConfig.getInitParameter(RESOURCE_CLASSES_PARAMETER);
+        if (classNames != null) {
+            for (String className : classNames.split("[\\s,]+")) {
+                if (!className.isEmpty()) {
+                    resourceClasses.add(Class.forName(className, false, classLoader));
+                }
+            }
+        }
+
+        String applicationName = filterConfig.getInitParameter(APPLICATION_PARAMETER);
+        if (applicationName != null) {
+            Application application = (Application) Class.forName(applicationName.trim(), true, classLoader).newInstance();
+
+            resourceClasses.addAll(application.getClasses());
+            for (Object singleton : application.getSingletons()) {
+                resourceClasses.add(singleton.getClass());
+            }
+        }
+
+        if (resourceClasses.isEmpty()) {
+            throw new ServletException(ApiVersionServletFilter.class.getSimpleName() + " needs the " + RESOURCE_CLASSES_PARAMETER
+                    + " or " + APPLICATION_PARAMETER + " init parameter");
+        }
+
+        return resourceClasses;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletRequest httpRequest = (HttpServletRequest) request;
+        String path = httpRequest.getPathInfo() != null ? httpRequest.getPathInfo() : httpRequest.getServletPath();
+        VersionRequirement rejectedBy = pathTable.rejectedBy(httpRequest.getMethod(), VersionPathTable.normalize(path),
+                httpRequest.getHeader(versionHeaderName));
+
+        if (rejectedBy == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        byte[] body = rejectedBy.rejectionBody();
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        httpResponse.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        httpResponse.setContentType(MediaType.APPLICATION_JSON);
+        httpResponse.setContentLength(body.length);
+        httpResponse.getOutputStream().write(body);
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
@@ -0,0 +1,158 @@
+package com.kris.massey;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects the {@link MethodVersionStatistics} of every filter a factory creates and publishes them over JMX when the
+ * factory is asked to.
+ *
+ * Statistics are only looked up by method when filters are created; each filter keeps a reference to its own.
+ */
+final class ApiVersionStatistics implements ApiVersionStatisticsMXBean {
+
+    private static final Logger LOGGER = Logger.getLogger(ApiVersionStatistics.class.getName());
+
+    private final ConcurrentMap<String, MethodVersionStatistics> methodStatistics = new ConcurrentHashMap<String, MethodVersionStatistics>();
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    // Guarded by this, null while not registered.
+    private ObjectName registeredName;
+
+    MethodVersionStatistics forMethod(Method method) {
+        String methodName = methodName(method);
+        MethodVersionStatistics statistics = new MethodVersionStatistics(latencyHistogram);
+        MethodVersionStatistics existing = methodStatistics.putIfAbsent(methodName, statistics);
+
+        return existing == null ? statistics : existing;
+    }
+
+    /**
+     * @return the name statistics are reported under, with the parameter types so overloaded methods are told apart.
+     */
+    static String methodName(Method method) {
+        StringBuilder methodName = new StringBuilder(method.getDeclaringClass().getName()).append('#').append(method.getName()).append('(');
+
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                methodName.append(',');
+            }
+            methodName.append(parameterTypes[i].getTypeName());
+        }
+
+        return methodName.append(')').toString();
+    }
+
+    /**
+     * Registers with the platform MBean server, leaving the statistics of any other factory in place.
+     *
+     * @throws IllegalStateException when statistics are already registered under the name.
+     */
+    synchronized void register(String application, String versionHeaderName) {
+        if (registeredName != null) {
+            throw new IllegalStateException("The statistics are already registered as " + registeredName);
+        }
+
+        try {
+            ObjectName objectName = objectName(application, versionHeaderName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            registeredName = objectName;
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("Statistics of another factory are registered for application " + application
+                    + " and header " + versionHeaderName + ", give each factory its own application name");
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Unable to register API version statistics for header " + versionHeaderName, e);
+        }
+    }
+
+    /**
+     * Unregisters from the platform MBean server, if registered, so it no longer holds on to the factory.
+     */
+    synchronized void unregister() {
+        if (registeredName == null) {
+            return;
+        }
+
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            if (mBeanServer.isRegistered(registeredName)) {
+                mBeanServer.unregisterMBean(registeredName);
+            }
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Unable to unregister API version statistics " + registeredName, e);
+        }
+        registeredName = null;
+    }
+
+    static ObjectName objectName(String application, String versionHeaderName) throws JMException {
+        return new ObjectName("com.kris.massey:type=ApiVersionStatistics,application=" + ObjectName.quote(application)
+                + ",versionHeader=" + ObjectName.quote(versionHeaderName));
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getAcceptedRequests() {
+        Map<String, Map<String, Long>> acceptedRequests = new TreeMap<String, Map<String, Long>>();
+
+        for (Map.Entry<String, MethodVersionStatistics> entry : methodStatistics.entrySet()) {
+            acceptedRequests.put(entry.getKey(), entry.getValue().acceptedRequests());
+        }
+
+        return acceptedRequests;
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getRejectedRequests() {
+        Map<String, Map<String, Long>> rejectedRequests = new TreeMap<String, Map<String, Long>>();
+
+        for (Map.Entry<String, MethodVersionStatistics> entry : methodStatistics.entrySet()) {
+            rejectedRequests.put(entry.getKey(), entry.getValue().rejectedRequests());
+        }
+
+        return rejectedRequests;
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getThrottledRequests() {
+        Map<String, Map<String, Long>> throttledRequests = new TreeMap<String, Map<String, Long>>();
+
+        for (Map.Entry<String, MethodVersionStatistics> entry : methodStatistics.entrySet()) {
+            throttledRequests.put(entry.getKey(), entry.getValue().throttledRequests());
+        }
+
+        return throttledRequests;
+    }
+
+    @Override
+    public Map<String, Map<String, Long>> getWouldRejectRequests() {
+        Map<String, Map<String, Long>> wouldRejectRequests = new TreeMap<String, Map<String, Long>>();
+
+        for (Map.Entry<String, MethodVersionStatistics> entry : methodStatistics.entrySet()) {
+            wouldRejectRequests.put(entry.getKey(), entry.getValue().wouldRejectRequests());
+        }
+
+        return wouldRejectRequests;
+    }
+
+    @Override
+    public Map<String, Long> getFilterLatencyHistogram() {
+        return latencyHistogram.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        for (MethodVersionStatistics statistics : methodStatistics.values()) {
+            statistics.reset();
+        }
+        latencyHistogram.reset();
+    }
+}
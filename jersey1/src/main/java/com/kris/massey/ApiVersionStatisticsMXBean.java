@@ -0,0 +1,46 @@
+package com.kris.massey;
+
+import java.util.Map;
+
+/**
+ * Request statistics of the filters created by one {@link ApiVersionResourceFilterFactory}, published over JMX by
+ * {@link ApiVersionResourceFilterFactory#registerStatistics} as
+ * {@code com.kris.massey:type=ApiVersionStatistics,application="<application>",versionHeader="<header name>"}.
+ *
+ * Resource methods are named {@code <class name>#<method name>(<parameter types>)}, as in
+ * {@code com.example.Widgets#find(java.lang.String)}, requested versions are bucketed by major version and
+ * filter latencies by powers of two nanoseconds. Only non-zero counts are reported.
+ */
+public interface ApiVersionStatisticsMXBean {
+
+    /**
+     * @return accepted requests per requested version bucket, for each resource method.
+     */
+    Map<String, Map<String, Long>> getAcceptedRequests();
+
+    /**
+     * @return rejected requests per {@link VersionOutcome}, for each resource method.
+     */
+    Map<String, Map<String, Long>> getRejectedRequests();
+
+    /**
+     * @return requests whose version was accepted but which were answered with 429 Too Many Requests, per requested
+     * version bucket, for each resource method. They are not counted as accepted.
+     * @see ApiVersionResourceFilterFactory#setVersionAdmission
+     */
+    Map<String, Map<String, Long>> getThrottledRequests();
+
+    /**
+     * @return accepted requests the candidate range of the method would reject, per {@link VersionOutcome} it would
+     * reject them with, for each resource method.
+     * @see ApiVersionResourceFilterFactory#setCandidatePolicy
+     */
+    Map<String, Map<String, Long>> getWouldRejectRequests();
+
+    /**
+     * @return the number of filtered requests per upper latency bound, across all resource methods.
+     */
+    Map<String, Long> getFilterLatencyHistogram();
+
+    void reset();
+}
@@ -0,0 +1,62 @@
+package com.kris.massey;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Converts the JSON a resource method produces down to what clients of versions below {@link #below()} expect, by
+ * removing, renaming and defaulting fields as the response is written, instead of keeping a method per old version.
+ *
+ * Fields are named by their path from the top of the document, the names of the members leading to them joined with
+ * dots; arrays do not add to the path, so {@code "items.createdBy"} is the field of every object in the items array,
+ * and {@code "createdBy"} that of every object in a top level array. Paths use the names the method produces.
+ * <pre>
+ * &#64;GET
+ * &#64;ApiVersion(minVersion = 1)
+ * &#64;ApiVersionTransform.List({
+ *     &#64;ApiVersionTransform(below = 2, remove = "items.createdBy", rename = "items.displayName=name"),
+ *     &#64;ApiVersionTransform(below = 1.5f, defaults = "items.color=\"blue\"")
+ * })
+ * public Widgets widgets() { ... }
+ * </pre>
+ * A request is converted by every transform whose version is above the requested version, the highest first, so each
+ * undoes one change on the way back to the requested version. Requests without a version are not converted, and only
+ * entities written as JSON are.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD })
+public @interface ApiVersionTransform {
+
+    /**
+     * The first version the transform is not applied to, for methods with float version ranges.
+     */
+    float below() default ApiVersion.ALL_VERSION_SUPPORTED;
+
+    /**
+     * The first version the transform is not applied to, for methods with semantic version ranges.
+     */
+    String belowSemanticVersion() default "";
+
+    /**
+     * The paths of the fields left out.
+     */
+    String[] remove() default {};
+
+    /**
+     * Fields written under another name, as {@code path=name}.
+     */
+    String[] rename() default {};
+
+    /**
+     * Fields added where an object does not have them, as {@code path=value} with the value in JSON.
+     */
+    String[] defaults() default {};
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ ElementType.METHOD })
+    @interface List {
+        ApiVersionTransform[] value();
+    }
+}
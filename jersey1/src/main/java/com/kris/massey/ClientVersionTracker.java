@@ -0,0 +1,375 @@
+package com.kris.massey;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tracks which clients still send which versions in fixed memory, however many clients there are, to find the API
+ * keys holding a version back from being retired.
+ *
+ * Every request with a valid version, accepted or rejected, adds its client and version to a {@link HyperLogLog} of the
+ * distinct clients of that version and to a {@link CountMinSketch} of requests per client and version. The clients
+ * with the highest counts are kept as heavy hitters, checked every {@value #HEAVY_HITTER_SAMPLING} requests of a client
+ * so clients with fewer requests are never among them. Recording a request hashes the client identifier and the version
+ * and allocates nothing, the heavy hitter entries being reused as clients replace each other.
+ *
+ * Versions are given one of a fixed number of slots as they are first seen, later versions share an overflow slot. When
+ * a snapshot file is given the estimates are written to it as JSON periodically, replacing the previous snapshot
+ * atomically, by a daemon thread stopped by {@link #close()}.
+ *
+ * Attach a tracker to the factory with {@link ApiVersionResourceFilterFactory#setClientVersionTracker}.
+ */
+public class ClientVersionTracker implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(ClientVersionTracker.class.getName());
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static final int VERSION_SLOTS = 32;
+    static final int HEAVY_HITTERS = 20;
+    static final int HYPER_LOG_LOG_PRECISION = 12;
+    static final int COUNT_MIN_DEPTH = 4;
+    static final int COUNT_MIN_WIDTH = 1 << 14;
+    // Heavy hitters are offered every this many requests, so the busiest clients do not take the lock on every request.
+    static final int HEAVY_HITTER_SAMPLING = 16;
+
+    // Never a version key: semantic keys are positive and float keys only set the sign bit and the low 32 bits.
+    private static final long EMPTY = -1;
+    private static final long FLOAT_KEY = Long.MIN_VALUE;
+
+    private final String clientHeaderName;
+    // Lower case, so Jersey's case insensitive header lookup does not have to lower case it on every request.
+    private final String clientHeaderLookupName;
+    private final AtomicLongArray versionKeys = new AtomicLongArray(VERSION_SLOTS);
+    // One per slot and one for the versions seen after every slot was taken.
+    private final HyperLogLog[] distinctClients = new HyperLogLog[VERSION_SLOTS + 1];
+    private final CountMinSketch requests = new CountMinSketch(COUNT_MIN_DEPTH, COUNT_MIN_WIDTH);
+    private final HeavyHitter[] heavyHitters = new HeavyHitter[HEAVY_HITTERS];
+    // The lowest count among the heavy hitters, read without the lock so most requests never take it.
+    private volatile long heavyHitterThreshold;
+    private final File snapshotFile;
+    private final ScheduledExecutorService snapshotExecutor;
+
+    /**
+     * Creates a tracker kept in memory only.
+     *
+     * @param clientHeaderName the header identifying the client, such as an API key.
+     */
+    public ClientVersionTracker(String clientHeaderName) {
+        this(clientHeaderName, null, 0, null);
+    }
+
+    /**
+     * Creates a tracker writing a snapshot of its estimates to the file at a fixed period.
+     */
+    public ClientVersionTracker(String clientHeaderName, File snapshotFile, long snapshotPeriod, TimeUnit unit) {
+        this.clientHeaderName = clientHeaderName;
+        this.clientHeaderLookupName = clientHeaderName.toLowerCase(Locale.ENGLISH);
+        this.snapshotFile = snapshotFile;
+
+        for (int i = 0; i < VERSION_SLOTS; i++) {
+            versionKeys.set(i, EMPTY);
+        }
+        for (int i = 0; i < distinctClients.length; i++) {
+            distinctClients[i] = new HyperLogLog(HYPER_LOG_LOG_PRECISION);
+        }
+        for (int i = 0; i < heavyHitters.length; i++) {
+            heavyHitters[i] = new HeavyHitter();
+        }
+
+        if (snapshotFile == null) {
+            this.snapshotExecutor = null;
+        } else {
+            this.snapshotExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "api-version-client-snapshot");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            this.snapshotExecutor.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    writeSnapshotQuietly();
+                }
+            }, snapshotPeriod, snapshotPeriod, unit);
+        }
+    }
+
+    String clientHeaderLookupName() {
+        return clientHeaderLookupName;
+    }
+
+    void recordVersion(String clientId, float version) {
+        record(clientId, FLOAT_KEY | (Float.floatToIntBits(version) & 0xffffffffL));
+    }
+
+    void recordSemanticVersion(String clientId, long semanticVersion) {
+        record(clientId, semanticVersion);
+    }
+
+    private void record(String clientId, long versionKey) {
+        if (clientId == null || clientId.isEmpty()) {
+            return;
+        }
+
+        long clientHash = hash(clientId);
+        distinctClients[slotOf(versionKey)].add(clientHash);
+
+        long count = requests.add(mix(clientHash + versionKey * 0x9e3779b97f4a7c15L));
+        if ((count & (HEAVY_HITTER_SAMPLING - 1)) == 0 && count > heavyHitterThreshold) {
+            offerHeavyHitter(clientId, versionKey, count);
+        }
+    }
+
+    private int slotOf(long versionKey) {
+        int start = (int) mix(versionKey) & (VERSION_SLOTS - 1);
+
+        for (int probe = 0; probe < VERSION_SLOTS; probe++) {
+            int slot = (start + probe) & (VERSION_SLOTS - 1);
+            long key = versionKeys.get(slot);
+
+            if (key == versionKey || key == EMPTY && (versionKeys.compareAndSet(slot, EMPTY, versionKey) || versionKeys.get(slot) == versionKey)) {
+                return slot;
+            }
+        }
+
+        return VERSION_SLOTS;
+    }
+
+    private synchronized void offerHeavyHitter(String clientId, long versionKey, long count) {
+        HeavyHitter lowest = heavyHitters[0];
+
+        for (HeavyHitter heavyHitter : heavyHitters) {
+            if (heavyHitter.versionKey == versionKey && clientId.equals(heavyHitter.clientId)) {
+                heavyHitter.count = Math.max(heavyHitter.count, count);
+                lowest = null;
+                break;
+            }
+            if (heavyHitter.count < lowest.count) {
+                lowest = heavyHitter;
+            }
+        }
+
+        // The entries are reused, so only the identifier, already a string the request holds, is kept.
+        if (lowest != null && count > lowest.count) {
+            lowest.clientId = clientId;
+            lowest.versionKey = versionKey;
+            lowest.count = count;
+        }
+
+        long threshold = Long.MAX_VALUE;
+        for (HeavyHitter heavyHitter : heavyHitters) {
+            threshold = Math.min(threshold, heavyHitter.count);
+        }
+        heavyHitterThreshold = threshold;
+    }
+
+    /**
+     * @return the estimated number of distinct clients by version, with versions seen after every slot was taken
+     * under "other".
+     */
+    public Map<String, Long> distinctClientsByVersion() {
+        Map<String, Long> distinct = new TreeMap<String, Long>();
+
+        for (int slot = 0; slot < VERSION_SLOTS; slot++) {
+            long versionKey = versionKeys.get(slot);
+            if (versionKey != EMPTY) {
+                distinct.put(versionOf(versionKey), distinctClients[slot].estimate());
+            }
+        }
+
+        long other = distinctClients[VERSION_SLOTS].estimate();
+        if (other > 0) {
+            distinct.put("other", other);
+        }
+
+        return distinct;
+    }
+
+    /**
+     * @return the clients sending the most requests for a version, most requests first, with estimated counts.
+     */
+    public synchronized List<ClientVersionCount> heavyHitters() {
+        List<ClientVersionCount> counts = new ArrayList<ClientVersionCount>();
+
+        for (HeavyHitter heavyHitter : heavyHitters) {
+            if (heavyHitter.clientId != null) {
+                counts.add(new ClientVersionCount(heavyHitter.clientId, versionOf(heavyHitter.versionKey),
+                        requests.estimate(mix(hash(heavyHitter.clientId) + heavyHitter.versionKey * 0x9e3779b97f4a7c15L))));
+            }
+        }
+
+        Collections.sort(counts, new Comparator<ClientVersionCount>() {
+            @Override
+            public int compare(ClientVersionCount first, ClientVersionCount second) {
+                return Long.compare(second.getRequests(), first.getRequests());
+            }
+        });
+
+        return counts;
+    }
+
+    /**
+     * Writes the estimates to the snapshot file now, through a temporary file moved into place.
+     */
+    public void writeSnapshot() throws IOException {
+        if (snapshotFile == null) {
+            throw new IllegalStateException("No snapshot file was given to this ClientVersionTracker");
+        }
+
+        File temporaryFile = new File(snapshotFile.getPath() + ".tmp");
+        Writer writer = new OutputStreamWriter(Files.newOutputStream(temporaryFile.toPath()), UTF_8);
+        try {
+            writer.write(toJson());
+        } finally {
+            writer.close();
+        }
+
+        Files.move(temporaryFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeSnapshotQuietly() {
+        try {
+            writeSnapshot();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to write the client version snapshot to " + snapshotFile, e);
+        } catch (RuntimeException e) {
+            // An exception would cancel every later snapshot.
+            LOGGER.log(Level.WARNING, "Unable to write the client version snapshot to " + snapshotFile, e);
+        }
+    }
+
+    String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"clientHeaderName\": ");
+        appendString(json, clientHeaderName);
+        json.append(", \"timestamp\": ").append(System.currentTimeMillis());
+
+        json.append(", \"distinctClients\": {");
+        String separator = "";
+        for (Map.Entry<String, Long> entry : distinctClientsByVersion().entrySet()) {
+            json.append(separator);
+            appendString(json, entry.getKey());
+            json.append(": ").append(entry.getValue());
+            separator = ", ";
+        }
+
+        json.append("}, \"heavyHitters\": [");
+        separator = "";
+        for (ClientVersionCount count : heavyHitters()) {
+            json.append(separator).append("{\"client\": ");
+            appendString(json, count.getClientId());
+            json.append(", \"version\": ");
+            appendString(json, count.getVersion());
+            json.append(", \"requests\": ").append(count.getRequests()).append('}');
+            separator = ", ";
+        }
+
+        return json.append("]}\n").toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static String versionOf(long versionKey) {
+        return versionKey < 0 ? String.valueOf(Float.intBitsToFloat((int) versionKey)) : SemanticVersion.toString(versionKey);
+    }
+
+    /**
+     * @return a 64 bit FNV-1a hash of the characters, mixed so every bit depends on every character.
+     */
+    static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    @Override
+    public void close() {
+        if (snapshotExecutor != null) {
+            snapshotExecutor.shutdown();
+        }
+    }
+
+    private static final class HeavyHitter {
+        private String clientId;
+        private long versionKey;
+        private long count;
+    }
+
+    /**
+     * The estimated number of requests a client sent for a version.
+     */
+    public static final class ClientVersionCount {
+
+        private final String clientId;
+        private final String version;
+        private final long requests;
+
+        ClientVersionCount(String clientId, String version, long requests) {
+            this.clientId = clientId;
+            this.version = version;
+            this.requests = requests;
+        }
+
+        public String getClientId() {
+            return clientId;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        @Override
+        public String toString() {
+            return clientId + " " + version + " " + requests;
+        }
+    }
+}
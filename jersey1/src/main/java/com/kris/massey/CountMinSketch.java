@@ -0,0 +1,55 @@
+package com.kris.massey;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Approximate counts of a stream of hashed keys in fixed memory. A count is never below the true count and exceeds it
+ * by at most a small fraction of the total with high probability, the fraction shrinking as the width grows.
+ *
+ * Each row is indexed by a different combination of the two halves of the 64 bit hash, so a key costs one increment
+ * per row and no allocation.
+ */
+final class CountMinSketch {
+
+    private final int depth;
+    private final int widthMask;
+    private final AtomicLongArray counters;
+
+    /**
+     * @param width the counters per row, rounded up to a power of two.
+     */
+    CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.widthMask = Integer.highestOneBit(Math.max(1, width - 1)) * 2 - 1;
+        this.counters = new AtomicLongArray(depth * (widthMask + 1));
+    }
+
+    /**
+     * @return the estimated count of the key after adding it once.
+     */
+    long add(long hash) {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+
+        for (int row = 0; row < depth; row++) {
+            int column = (first + row * second) & widthMask;
+            estimate = Math.min(estimate, counters.incrementAndGet(row * (widthMask + 1) + column));
+        }
+
+        return estimate;
+    }
+
+    long estimate(long hash) {
+        int first = (int) hash;
+        int second = (int) (hash >>> 32);
+        long estimate = Long.MAX_VALUE;
+
+        for (int row = 0; row < depth; row++) {
+            int column = (first + row * second) & widthMask;
+            estimate = Math.min(estimate, counters.get(row * (widthMask + 1) + column));
+        }
+
+        return estimate;
+    }
+}
@@ -0,0 +1,71 @@
+package com.kris.massey;
+
+import com.sun.jersey.spi.container.ContainerRequest;
+
+/**
+ * Matches the version sent in a request header against the supported range.
+ *
+ * {@link ApiVersionResourceFilterFactory} calls {@link #requestedVersion} and {@link #check} of this class directly so it
+ * can tell why a request was rejected. The float ranges of a subclass are decided by {@link #supportsRequestedVersion},
+ * so overriding any of the three is honoured, and {@link #check} is only called again to tell why a request it refused
+ * was rejected. {@link ApiVersionMatcher} has no counterpart for semantic ranges, which are always decided by
+ * {@link #requestedSemanticVersion} and {@link #checkSemantic}.
+ */
+public class DefaultApiVersionMatcher implements ApiVersionMatcher {
+
+    public static final float NO_REQUESTED_VERSION = VersionRange.NO_VERSION;
+    public static final float INVALID_REQUESTED_VERSION = VersionParser.INVALID_VERSION;
+    public static final long NO_REQUESTED_SEMANTIC_VERSION = VersionRange.NO_SEMANTIC_VERSION;
+    public static final long INVALID_REQUESTED_SEMANTIC_VERSION = SemanticVersion.INVALID_VERSION;
+
+    private final String versionHeaderName;
+    private final VersionCache versionCache = new VersionCache();
+
+    public DefaultApiVersionMatcher(String versionHeaderName) {
+        this.versionHeaderName = versionHeaderName;
+    }
+
+    @Override
+    public boolean supportsRequestedVersion(boolean headerRequired, float minVersion, float maxVersion, ContainerRequest request) {
+        return check(headerRequired, minVersion, maxVersion, requestedVersion(request)) == VersionOutcome.ACCEPTED;
+    }
+
+    /**
+     * @return the requested version, {@link #NO_REQUESTED_VERSION} when none was sent or {@link #INVALID_REQUESTED_VERSION}
+     * when the header is not a valid version.
+     */
+    public float requestedVersion(ContainerRequest request) {
+        String versionHeader = request.getHeaderValue(versionHeaderName);
+
+        return headerIsNotPresent(versionHeader) ? NO_REQUESTED_VERSION : versionCache.parse(versionHeader);
+    }
+
+    public VersionOutcome check(boolean headerRequired, float minVersion, float maxVersion, float requestedVersion) {
+        return VersionRange.check(headerRequired, minVersion, maxVersion, requestedVersion);
+    }
+
+    /**
+     * @return the requested major.minor[.patch] version packed into a long, {@link #NO_REQUESTED_SEMANTIC_VERSION} when
+     * none was sent or {@link #INVALID_REQUESTED_SEMANTIC_VERSION} when the header is not a valid semantic version.
+     */
+    public long requestedSemanticVersion(ContainerRequest request) {
+        String versionHeader = request.getHeaderValue(versionHeaderName);
+
+        return headerIsNotPresent(versionHeader) ? NO_REQUESTED_SEMANTIC_VERSION : SemanticVersion.parse(versionHeader);
+    }
+
+    /**
+     * Semantic version counterpart of {@link #check}, where every bound is a packed version and a range check is a pair
+     * of long comparisons.
+     *
+     * @param minVersion the lowest packed version supported, 0 when there is no minimum.
+     * @param maxVersion the highest packed version supported, {@link Long#MAX_VALUE} when there is no maximum.
+     */
+    public VersionOutcome checkSemantic(boolean headerRequired, long minVersion, long maxVersion, long requestedVersion) {
+        return VersionRange.checkSemantic(headerRequired, minVersion, maxVersion, requestedVersion);
+    }
+
+    private boolean headerIsNotPresent(String versionHeader) {
+        return versionHeader == null || versionHeader.isEmpty();
+    }
+}
@@ -0,0 +1,145 @@
+package com.kris.massey;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Watches one file from a daemon thread and runs a reload once its changes settle, whether it is moved into place,
+ * edited in place or deleted.
+ *
+ * Changes are debounced: after the first event the thread waits until no event has arrived for {@link #QUIET_MILLIS},
+ * so a file written in several steps is read once, after the last. The file may be a symbolic link, or sit in a linked
+ * directory, as in a Kubernetes ConfigMap volume, where every file links through {@code ..data} to a directory that is
+ * swapped whole. A linked file is then reloaded on any change in its directory, and the directory the links resolve to
+ * is watched too, resolved again after every reload, so edits to the target of a link are seen as well.
+ */
+final class FileWatcher implements Closeable {
+
+    static final long QUIET_MILLIS = 100;
+
+    private static final Logger LOGGER = Logger.getLogger(FileWatcher.class.getName());
+
+    private final Path file;
+    private final Runnable reload;
+    private final WatchService watchService;
+    private final WatchKey directoryKey;
+    // Only used by the watching thread once it has started.
+    private WatchKey resolvedKey;
+    private Path resolvedName;
+
+    /**
+     * Starts watching the file.
+     *
+     * @param file an absolute path.
+     */
+    FileWatcher(Path file, String threadName, Runnable reload) throws IOException {
+        this.file = file;
+        this.reload = reload;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.directoryKey = register(file.getParent());
+        resolve();
+
+        Thread watcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch();
+            }
+        }, threadName);
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private WatchKey register(Path directory) throws IOException {
+        return directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Watches the directory the file resolves to when links lead it elsewhere, and stops watching the previous one.
+     */
+    private void resolve() {
+        Path resolved;
+        try {
+            resolved = file.toRealPath();
+        } catch (IOException e) {
+            // Missing, or removed while resolving it, and the event of its creation reloads it.
+            resolved = null;
+        }
+
+        Path directory = resolved == null || resolved.equals(file) ? null : resolved.getParent();
+        if (resolvedKey != null && !resolvedKey.watchable().equals(directory)) {
+            resolvedKey.cancel();
+            resolvedKey = null;
+        }
+        resolvedName = resolved == null ? null : resolved.getFileName();
+
+        if (directory != null && resolvedKey == null) {
+            try {
+                WatchKey key = register(directory);
+                // A linked parent resolves to the directory already watched, which has the one key.
+                resolvedKey = key == directoryKey ? null : key;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Could not watch " + directory + ", which " + file + " links to", e);
+            }
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                if (!changed(watchService.take())) {
+                    continue;
+                }
+
+                // Wait for the writes to settle, so a file written in several steps is read once.
+                WatchKey next;
+                while ((next = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed(next);
+                }
+
+                reload.run();
+                resolve();
+                if (!directoryKey.isValid()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Closed by close(), nothing left to watch.
+        }
+    }
+
+    /**
+     * @return whether any event of the key is a change of the file, the key reset for the next events.
+     */
+    private boolean changed(WatchKey key) {
+        // A linked file changes with anything in its directory, such as the swap of a ConfigMap's ..data link.
+        boolean linked = key == directoryKey && Files.isSymbolicLink(file);
+        Path name = key == directoryKey ? file.getFileName() : resolvedName;
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            changed |= linked || event.kind() == StandardWatchEventKinds.OVERFLOW || event.context().equals(name);
+        }
+        key.reset();
+
+        return changed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,53 @@
+package com.kris.massey;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Estimates the number of distinct hashed keys in fixed memory, 2^precision registers with a standard error of about
+ * 1.04 / sqrt(2^precision). Adding a key costs one register read and, rarely, a compare and set.
+ */
+final class HyperLogLog {
+
+    private final int precision;
+    private final AtomicIntegerArray registers;
+
+    HyperLogLog(int precision) {
+        this.precision = precision;
+        this.registers = new AtomicIntegerArray(1 << precision);
+    }
+
+    void add(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // The marker bit bounds the rank when every remaining bit is zero.
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+
+        int current = registers.get(index);
+        while (rank > current && !registers.compareAndSet(index, current, rank)) {
+            current = registers.get(index);
+        }
+    }
+
+    long estimate() {
+        int registerCount = registers.length();
+        double sum = 0;
+        int zeros = 0;
+
+        for (int i = 0; i < registerCount; i++) {
+            int register = registers.get(i);
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double alpha = 0.7213 / (1 + 1.079 / registerCount);
+        double estimate = alpha * registerCount * registerCount / sum;
+
+        // Small cardinalities are counted more accurately from the registers still empty.
+        if (estimate <= 2.5 * registerCount && zeros > 0) {
+            estimate = registerCount * Math.log((double) registerCount / zeros);
+        }
+
+        return Math.round(estimate);
+    }
+}
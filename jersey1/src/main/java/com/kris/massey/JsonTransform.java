@@ -0,0 +1,172 @@
+package com.kris.massey;
+
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One {@link ApiVersionTransform} or {@link ApiVersionRequestTransform} compiled to a tree of the objects it changes, so {@link JsonTransformStream} looks up
+ * a member with one hash lookup in the node of its object, and members outside the tree with none.
+ */
+final class JsonTransform {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final String annotationName;
+    private final Node root = new Node();
+
+    JsonTransform(ApiVersionTransform annotation) {
+        this("@ApiVersionTransform", annotation.remove(), annotation.rename(), annotation.defaults());
+    }
+
+    JsonTransform(ApiVersionRequestTransform annotation) {
+        this("@ApiVersionRequestTransform", annotation.remove(), annotation.rename(), annotation.defaults());
+    }
+
+    /**
+     * @throws IllegalStateException when a path or a field is not declared as the annotation describes.
+     */
+    private JsonTransform(String annotationName, String[] remove, String[] rename, String[] defaults) {
+        this.annotationName = annotationName;
+
+        for (String path : remove) {
+            memberOf(path).remove = true;
+        }
+
+        for (String renamed : rename) {
+            int separator = separatorOf(renamed, "rename");
+            String name = renamed.substring(separator + 1).trim();
+            if (name.isEmpty()) {
+                throw new IllegalStateException(annotationName + " rename \"" + renamed + "\" has no new name");
+            }
+            memberOf(renamed.substring(0, separator)).renamedKey = name.getBytes(UTF_8);
+        }
+
+        for (String fieldDefault : defaults) {
+            int separator = separatorOf(fieldDefault, "defaults");
+            String path = fieldDefault.substring(0, separator).trim();
+            String value = fieldDefault.substring(separator + 1).trim();
+            if (value.isEmpty()) {
+                throw new IllegalStateException(annotationName + " default \"" + fieldDefault + "\" has no value");
+            }
+
+            int lastDot = path.lastIndexOf('.');
+            Node node = lastDot < 0 ? root : nodeOf(path.substring(0, lastDot));
+            String name = path.substring(lastDot + 1);
+            Member member = memberOf(path);
+
+            if (node.defaultMembers.size() == Long.SIZE) {
+                throw new IllegalStateException(annotationName + " can default at most " + Long.SIZE + " fields of an object");
+            }
+            member.defaultIndex = node.defaultMembers.size();
+            node.defaultMembers.add(("\"" + name + "\":" + value).getBytes(UTF_8));
+        }
+    }
+
+    private int separatorOf(String declaration, String attribute) {
+        int separator = declaration.indexOf('=');
+        if (separator < 0) {
+            throw new IllegalStateException(annotationName + " " + attribute + " \"" + declaration + "\" is not path=value");
+        }
+        return separator;
+    }
+
+    private Node nodeOf(String path) {
+        Node node = root;
+        for (String name : split(path)) {
+            Member member = node.members.get(name);
+            if (member == null) {
+                member = new Member();
+                node.members.put(name, member);
+            }
+            if (member.child == null) {
+                member.child = new Node();
+            }
+            node = member.child;
+        }
+        return node;
+    }
+
+    private Member memberOf(String path) {
+        String trimmed = path.trim();
+        int lastDot = trimmed.lastIndexOf('.');
+        Node node = lastDot < 0 ? root : nodeOf(trimmed.substring(0, lastDot));
+        String name = split(trimmed.substring(lastDot + 1))[0];
+
+        Member member = node.members.get(name);
+        if (member == null) {
+            member = new Member();
+            node.members.put(name, member);
+        }
+        return member;
+    }
+
+    private String[] split(String path) {
+        String[] names = path.trim().split("\\.", -1);
+        for (String name : names) {
+            if (name.isEmpty()) {
+                throw new IllegalStateException(annotationName + " path \"" + path + "\" has an empty field name");
+            }
+        }
+        return names;
+    }
+
+    JsonTransformStream wrap(OutputStream out, String entity) {
+        return new JsonTransformStream(out, root, entity);
+    }
+
+    static final class Node {
+
+        private final Map<String, Member> members = new HashMap<String, Member>();
+        private final List<byte[]> defaultMembers = new ArrayList<byte[]>();
+
+        boolean hasMembers() {
+            return !members.isEmpty();
+        }
+
+        Member member(String name) {
+            return members.get(name);
+        }
+
+        int defaultCount() {
+            return defaultMembers.size();
+        }
+
+        /**
+         * @return the default as a member, name and value, ready to be written.
+         */
+        byte[] defaultMember(int index) {
+            return defaultMembers.get(index);
+        }
+    }
+
+    static final class Member {
+
+        private boolean remove;
+        private byte[] renamedKey;
+        private int defaultIndex = -1;
+        private Node child;
+
+        boolean isRemoved() {
+            return remove;
+        }
+
+        byte[] renamedKey() {
+            return renamedKey;
+        }
+
+        int defaultIndex() {
+            return defaultIndex;
+        }
+
+        /**
+         * @return the node of the members of the value, null when no transform reaches into it.
+         */
+        Node child() {
+            return child;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.kris.massey;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Reads an entity converted by a {@link VersionTransforms.Chain}, pulling a chunk of the original entity through the
+ * chain whenever what was converted so far has been read, so no more than a chunk and what the chain made of it is ever
+ * held, whatever the size of the entity.
+ */
+final class JsonTransformInputStream extends InputStream {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final InputStream in;
+    private final Converted converted = new Converted();
+    private final JsonTransformStream transform;
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private boolean ended;
+
+    JsonTransformInputStream(InputStream in, VersionTransforms.Chain chain) {
+        this.in = in;
+        this.transform = chain.wrap(converted);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return converted.bytes[converted.start++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+
+        int read = Math.min(length, converted.end - converted.start);
+        System.arraycopy(converted.bytes, converted.start, bytes, offset, read);
+        converted.start += read;
+        return read;
+    }
+
+    @Override
+    public int available() {
+        return converted.end - converted.start;
+    }
+
+    /**
+     * @return whether there is converted entity to read, false once the entity has been read to its end.
+     * @throws WebApplicationException answering 400 Bad Request when the entity the client sent is not JSON.
+     */
+    private boolean fill() throws IOException {
+        try {
+            return convert();
+        } catch (JsonTransformStream.MalformedJsonException e) {
+            throw new WebApplicationException(e, Response.status(Response.Status.BAD_REQUEST)
+                    .type(MediaType.TEXT_PLAIN_TYPE)
+                    .entity(e.getMessage())
+                    .build());
+        }
+    }
+
+    private boolean convert() throws IOException {
+        while (converted.start == converted.end) {
+            if (ended) {
+                return false;
+            }
+
+            converted.start = 0;
+            converted.end = 0;
+            int read = in.read(chunk);
+            if (read < 0) {
+                ended = true;
+            } else {
+                transform.write(chunk, 0, read);
+            }
+            // Each stage of the chain buffers what it writes, so what the chunk converted to is written through to the end.
+            transform.finish();
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * What the chain wrote out and was not read yet, growing only as far as one chunk converts to.
+     */
+    private static final class Converted extends OutputStream {
+
+        private byte[] bytes = new byte[CHUNK_SIZE];
+        private int start;
+        private int end;
+
+        @Override
+        public void write(int b) {
+            if (end == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[end++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] written, int offset, int length) {
+            if (end + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, end + length));
+            }
+            System.arraycopy(written, offset, bytes, end, length);
+            end += length;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package com.kris.massey;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Rewrites the JSON written through it by one {@link JsonTransform}, a byte at a time, holding no more than the open
+ * containers and the name of the current member, so a document of any size is converted in constant memory.
+ *
+ * Every structural character of JSON is ASCII and no byte of a multi-byte UTF-8 character is, so the document is
+ * scanned as bytes without decoding it. Whitespace between tokens is dropped, and separators are written again as
+ * members are, so removing a member never leaves a stray comma.
+ */
+final class JsonTransformStream extends OutputStream {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int BUFFER_SIZE = 4096;
+
+    private static final int EXPECT_VALUE = 0;
+    private static final int IN_STRING = 1;
+    private static final int IN_STRING_ESCAPE = 2;
+    private static final int IN_LITERAL = 3;
+    private static final int EXPECT_KEY = 4;
+    private static final int IN_KEY = 5;
+    private static final int IN_KEY_ESCAPE = 6;
+    private static final int EXPECT_COLON = 7;
+    private static final int EXPECT_COMMA = 8;
+    private static final int DONE = 9;
+
+    private final OutputStream out;
+    private final JsonTransform.Node root;
+    private final String entity;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int buffered;
+
+    private int state = EXPECT_VALUE;
+    // The open containers, innermost last: whether each is an object, the node of its members, the members or elements
+    // written so far and the defaults of the node it already has.
+    private int depth;
+    private boolean[] objects = new boolean[16];
+    private JsonTransform.Node[] nodes = new JsonTransform.Node[16];
+    private int[] written = new int[16];
+    private long[] seen = new long[16];
+    private byte[] key = new byte[64];
+    private int keyLength;
+    // The node of the value of the member being read.
+    private JsonTransform.Node memberNode;
+    // The depth of the value of a removed member while it is being skipped, -1 otherwise.
+    private int skipDepth = -1;
+
+    /**
+     * @param entity what is converted, "request" or "response", as named when the entity turns out not to be JSON.
+     */
+    JsonTransformStream(OutputStream out, JsonTransform.Node root, String entity) {
+        this.out = out;
+        this.root = root;
+        this.entity = entity;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        accept((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            accept(bytes[i]);
+        }
+    }
+
+    private void accept(byte b) throws IOException {
+        switch (state) {
+            case EXPECT_VALUE:
+                if (isWhitespace(b)) {
+                    return;
+                }
+                if (b == ']' && depth > 0 && !objects[depth - 1]) {
+                    endContainer();
+                    return;
+                }
+                startValue(b);
+                return;
+            case IN_STRING:
+                emit(b);
+                if (b == '\\') {
+                    state = IN_STRING_ESCAPE;
+                } else if (b == '"') {
+                    endValue();
+                }
+                return;
+            case IN_STRING_ESCAPE:
+                emit(b);
+                state = IN_STRING;
+                return;
+            case IN_LITERAL:
+                if (isWhitespace(b) || b == ',' || b == ']' || b == '}') {
+                    endValue();
+                    accept(b);
+                } else {
+                    emit(b);
+                }
+                return;
+            case EXPECT_KEY:
+                if (isWhitespace(b)) {
+                    return;
+                }
+                if (b == '}') {
+                    endContainer();
+                } else if (b == '"') {
+                    keyLength = 0;
+                    state = IN_KEY;
+                } else {
+                    throw malformed(b);
+                }
+                return;
+            case IN_KEY:
+                if (b == '"') {
+                    state = EXPECT_COLON;
+                    return;
+                }
+                appendKey(b);
+                if (b == '\\') {
+                    state = IN_KEY_ESCAPE;
+                }
+                return;
+            case IN_KEY_ESCAPE:
+                appendKey(b);
+                state = IN_KEY;
+                return;
+            case EXPECT_COLON:
+                if (isWhitespace(b)) {
+                    return;
+                }
+                if (b != ':') {
+                    throw malformed(b);
+                }
+                startMember();
+                state = EXPECT_VALUE;
+                return;
+            case EXPECT_COMMA:
+                if (isWhitespace(b)) {
+                    return;
+                }
+                if (b == ',') {
+                    state = objects[depth - 1] ? EXPECT_KEY : EXPECT_VALUE;
+                } else if (b == (objects[depth - 1] ? '}' : ']')) {
+                    endContainer();
+                } else {
+                    throw malformed(b);
+                }
+                return;
+            default:
+                if (!isWhitespace(b)) {
+                    throw malformed(b);
+                }
+        }
+    }
+
+    private void startValue(byte b) throws IOException {
+        JsonTransform.Node node;
+        if (depth == 0) {
+            node = root;
+        } else if (objects[depth - 1]) {
+            node = memberNode;
+        } else {
+            // Elements of an array have the path of the array.
+            node = nodes[depth - 1];
+            separate(depth - 1);
+        }
+
+        emit(b);
+        if (b == '{') {
+            push(true, node);
+            state = EXPECT_KEY;
+        } else if (b == '[') {
+            push(false, node);
+            state = EXPECT_VALUE;
+        } else if (b == '"') {
+            state = IN_STRING;
+        } else {
+            state = IN_LITERAL;
+        }
+    }
+
+    private void startMember() throws IOException {
+        int container = depth - 1;
+        JsonTransform.Node node = nodes[container];
+        JsonTransform.Member member = node == null || !node.hasMembers() ? null : node.member(new String(key, 0, keyLength, UTF_8));
+        memberNode = member == null ? null : member.child();
+
+        if (member != null && member.isRemoved()) {
+            if (skipDepth < 0) {
+                skipDepth = depth;
+            }
+            return;
+        }
+
+        if (member != null && member.defaultIndex() >= 0) {
+            seen[container] |= 1L << member.defaultIndex();
+        }
+
+        separate(container);
+        emit((byte) '"');
+        if (member != null && member.renamedKey() != null) {
+            emit(member.renamedKey(), member.renamedKey().length);
+        } else {
+            emit(key, keyLength);
+        }
+        emit((byte) '"');
+        emit((byte) ':');
+    }
+
+    private void endValue() {
+        if (skipDepth == depth) {
+            skipDepth = -1;
+        }
+        state = depth == 0 ? DONE : EXPECT_COMMA;
+    }
+
+    private void endContainer() throws IOException {
+        int container = depth - 1;
+
+        if (objects[container]) {
+            JsonTransform.Node node = nodes[container];
+            if (node != null) {
+                for (int i = 0; i < node.defaultCount(); i++) {
+                    if ((seen[container] & (1L << i)) == 0) {
+                        separate(container);
+                        emit(node.defaultMember(i), node.defaultMember(i).length);
+                    }
+                }
+            }
+            emit((byte) '}');
+        } else {
+            emit((byte) ']');
+        }
+
+        depth--;
+        endValue();
+    }
+
+    private void push(boolean object, JsonTransform.Node node) {
+        if (depth == objects.length) {
+            int length = depth * 2;
+            objects = Arrays.copyOf(objects, length);
+            nodes = Arrays.copyOf(nodes, length);
+            written = Arrays.copyOf(written, length);
+            seen = Arrays.copyOf(seen, length);
+        }
+
+        objects[depth] = object;
+        nodes[depth] = node;
+        written[depth] = 0;
+        seen[depth] = 0;
+        depth++;
+    }
+
+    private void separate(int container) throws IOException {
+        if (skipDepth < 0 && written[container]++ > 0) {
+            emit((byte) ',');
+        }
+    }
+
+    private void appendKey(byte b) {
+        if (keyLength == key.length) {
+            key = Arrays.copyOf(key, keyLength * 2);
+        }
+        key[keyLength++] = b;
+    }
+
+    private void emit(byte b) throws IOException {
+        if (skipDepth >= 0) {
+            return;
+        }
+        if (buffered == buffer.length) {
+            flushBuffer();
+        }
+        buffer[buffered++] = b;
+    }
+
+    private void emit(byte[] bytes, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            emit(bytes[i]);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (buffered > 0) {
+            out.write(buffer, 0, buffered);
+            buffered = 0;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private MalformedJsonException malformed(byte b) {
+        return new MalformedJsonException("The " + entity + " entity is not JSON, '" + (char) b + "' was not expected at depth " + depth);
+    }
+
+    /**
+     * Writes out what is buffered, and what the transforms it writes to buffer, without closing the stream.
+     */
+    void finish() throws IOException {
+        flushBuffer();
+        if (out instanceof JsonTransformStream) {
+            ((JsonTransformStream) out).finish();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushBuffer();
+        out.close();
+    }
+
+    /**
+     * Thrown when what is written is not JSON, so a request entity can be told apart from a failure to read it and
+     * rejected as the client's error.
+     */
+    static final class MalformedJsonException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private MalformedJsonException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.kris.massey;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free histogram of latencies in power of two nanosecond buckets.
+ */
+final class LatencyHistogram {
+
+    private final LongAdder[] buckets = MethodVersionStatistics.counters(Long.SIZE);
+
+    void record(long latencyNanos) {
+        int bucket = latencyNanos <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(latencyNanos);
+        buckets[Math.min(bucket, Long.SIZE - 1)].increment();
+    }
+
+    Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<String, Long>();
+
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            long count = buckets[bucket].sum();
+            if (count > 0) {
+                snapshot.put("<" + (1L << bucket) + "ns", count);
+            }
+        }
+
+        return snapshot;
+    }
+
+    void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.kris.massey;
+
+import com.sun.jersey.spi.container.ContainerRequest;
+
+/**
+ * Finds one parameter in a raw Accept or Content-Type header without parsing it into media types.
+ *
+ * The header is scanned once, in place, and the position of the value is returned packed into a long, so looking up a
+ * parameter allocates nothing. Parameter names are matched ignoring case and quoted values are returned without their
+ * quotes, but with any backslash escapes inside them as sent. The first media range carrying the parameter wins.
+ */
+final class MediaTypeParameters {
+
+    static final long NOT_FOUND = -1;
+
+    // Lower case, so Jersey's case insensitive header lookup does not have to lower case them on every request.
+    private static final String ACCEPT = "accept";
+    private static final String CONTENT_TYPE = "content-type";
+    // Set in positions found in the Content-Type header, above the 30 bits the start is kept in.
+    private static final long IN_CONTENT_TYPE = 1L << 62;
+    private static final long START_MASK = (1L << 30) - 1;
+
+    private MediaTypeParameters() {
+    }
+
+    /**
+     * Looks the parameter up in the Accept header, or failing that in the Content-Type header.
+     *
+     * @return the position of the parameter's value, in the header returned by {@link #header}, or {@link #NOT_FOUND}.
+     */
+    static long find(ContainerRequest request, String parameterName) {
+        long position = find(request.getHeaderValue(ACCEPT), parameterName);
+        if (position != NOT_FOUND) {
+            return position;
+        }
+
+        position = find(request.getHeaderValue(CONTENT_TYPE), parameterName);
+        return position == NOT_FOUND ? NOT_FOUND : position | IN_CONTENT_TYPE;
+    }
+
+    /**
+     * @return the header a position found by {@link #find(ContainerRequest, String)} is in.
+     */
+    static String header(ContainerRequest request, long position) {
+        return request.getHeaderValue((position & IN_CONTENT_TYPE) == 0 ? ACCEPT : CONTENT_TYPE);
+    }
+
+    /**
+     * @return the position of the parameter's value, to be read with {@link #start} and {@link #end}, or
+     * {@link #NOT_FOUND} when no media range in the header has the parameter.
+     */
+    static long find(String header, String parameterName) {
+        if (header == null) {
+            return NOT_FOUND;
+        }
+
+        int length = header.length();
+        int i = 0;
+
+        while (i < length) {
+            if (header.charAt(i++) != ';') {
+                continue;
+            }
+
+            i = skipWhitespace(header, i);
+            int nameStart = i;
+            while (i < length && isTokenChar(header.charAt(i))) {
+                i++;
+            }
+            int nameEnd = i;
+
+            i = skipWhitespace(header, i);
+            if (i >= length || header.charAt(i) != '=') {
+                continue;
+            }
+            i = skipWhitespace(header, i + 1);
+
+            int valueStart;
+            int valueEnd;
+            if (i < length && header.charAt(i) == '"') {
+                valueStart = i + 1;
+                i = valueStart;
+                // A backslash escapes the character after it, which may be a quote.
+                while (i < length && header.charAt(i) != '"') {
+                    i += header.charAt(i) == '\\' ? 2 : 1;
+                }
+                valueEnd = Math.min(i, length);
+                i = valueEnd + 1;
+            } else {
+                valueStart = i;
+                while (i < length && header.charAt(i) != ';' && header.charAt(i) != ',') {
+                    i++;
+                }
+                valueEnd = i;
+                while (valueEnd > valueStart && isWhitespace(header.charAt(valueEnd - 1))) {
+                    valueEnd--;
+                }
+            }
+
+            if (nameEnd - nameStart == parameterName.length() && header.regionMatches(true, nameStart, parameterName, 0, parameterName.length())) {
+                return ((long) valueStart << 32) | valueEnd;
+            }
+        }
+
+        return NOT_FOUND;
+    }
+
+    static int start(long position) {
+        return (int) ((position >>> 32) & START_MASK);
+    }
+
+    static int end(long position) {
+        return (int) position;
+    }
+
+    private static int skipWhitespace(String header, int i) {
+        while (i < header.length() && isWhitespace(header.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean isTokenChar(char c) {
+        return c > ' ' && c != '=' && c != ';' && c != ',' && c != '"' && c < 127;
+    }
+}
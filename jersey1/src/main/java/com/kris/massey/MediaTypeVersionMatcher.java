@@ -0,0 +1,53 @@
+package com.kris.massey;
+
+import com.sun.jersey.spi.container.ContainerRequest;
+
+/**
+ * Reads the requested version from a parameter of the Accept header, or failing that of the Content-Type header, as in
+ * {@code Accept: application/vnd.acme+json; version=2.1}.
+ *
+ * The raw header is scanned in place rather than parsed with Jersey's {@code MediaType}, which builds a parameter map
+ * for every request, so reading the version allocates nothing. A header without the parameter counts as no version
+ * being sent. Ranges are checked exactly as {@link DefaultApiVersionMatcher} checks them, and rejections carry the same
+ * body, so pass the header name clients should look at to the {@link ApiVersionResourceFilterFactory} as well:
+ *
+ * <pre>
+ * new ApiVersionResourceFilterFactory(new MediaTypeVersionMatcher(), "Accept")
+ * </pre>
+ */
+public class MediaTypeVersionMatcher extends DefaultApiVersionMatcher {
+
+    public static final String DEFAULT_PARAMETER_NAME = "version";
+
+    // Lower case, so Jersey's case insensitive header lookup does not have to lower case it on every request.
+    private static final String ACCEPT = "accept";
+
+    private final String parameterName;
+
+    public MediaTypeVersionMatcher() {
+        this(DEFAULT_PARAMETER_NAME);
+    }
+
+    public MediaTypeVersionMatcher(String parameterName) {
+        super(ACCEPT);
+        this.parameterName = parameterName;
+    }
+
+    @Override
+    public float requestedVersion(ContainerRequest request) {
+        long position = MediaTypeParameters.find(request, parameterName);
+
+        return position == MediaTypeParameters.NOT_FOUND
+                ? NO_REQUESTED_VERSION
+                : VersionParser.parse(MediaTypeParameters.header(request, position), MediaTypeParameters.start(position), MediaTypeParameters.end(position));
+    }
+
+    @Override
+    public long requestedSemanticVersion(ContainerRequest request) {
+        long position = MediaTypeParameters.find(request, parameterName);
+
+        return position == MediaTypeParameters.NOT_FOUND
+                ? NO_REQUESTED_SEMANTIC_VERSION
+                : SemanticVersion.parse(MediaTypeParameters.header(request, position), MediaTypeParameters.start(position), MediaTypeParameters.end(position));
+    }
+}
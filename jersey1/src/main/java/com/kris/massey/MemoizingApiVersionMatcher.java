@@ -0,0 +1,233 @@
+package com.kris.massey;
+
+import com.sun.jersey.spi.container.ContainerRequest;
+
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the decisions of an expensive {@link ApiVersionMatcher}, such as one consulting a policy store per tenant,
+ * by tenant, requested version and range, so the matcher is asked once per key and time to live:
+ *
+ * <pre>
+ * new ApiVersionResourceFilterFactory(
+ *         new MemoizingApiVersionMatcher(tenantMatcher, "X-Tenant", VersionExtractors.header("Version"), 10000, 1, TimeUnit.MINUTES),
+ *         "Version")
+ * </pre>
+ *
+ * The matcher must decide from the tenant header and the version alone. Decisions are kept in a concurrent map bounded
+ * to the maximum entries, the oldest entry leaving first when it is full, and an entry past its time to live is asked
+ * again. Concurrent requests missing the same key wait for the one asking the matcher instead of all asking it. A
+ * matcher that throws is not remembered, and the exception is thrown to every request waiting on it.
+ */
+public final class MemoizingApiVersionMatcher implements ApiVersionMatcher {
+
+    private final ApiVersionMatcher matcher;
+    // Lower case, so Jersey's case insensitive header lookup does not have to lower case it on every request.
+    private final String tenantHeaderLookupName;
+    private final VersionExtractor versionExtractor;
+    private final int maxEntries;
+    private final long timeToLiveNanos;
+
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+    // Every entry in the order it was added, with entries since replaced, so the oldest is evicted first.
+    private final ConcurrentLinkedQueue<Entry> insertionOrder = new ConcurrentLinkedQueue<Entry>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param tenantHeaderName the header naming the tenant the matcher decides for.
+     * @param versionExtractor where the matcher reads the requested version, as sent.
+     */
+    public MemoizingApiVersionMatcher(ApiVersionMatcher matcher, String tenantHeaderName, VersionExtractor versionExtractor,
+                                      int maxEntries, long timeToLive, TimeUnit unit) {
+        if (maxEntries < 1 || timeToLive < 1) {
+            throw new IllegalArgumentException("A memoizing matcher needs positive maximum entries and time to live, not "
+                    + maxEntries + " entries for " + timeToLive + " " + unit);
+        }
+
+        this.matcher = matcher;
+        this.tenantHeaderLookupName = tenantHeaderName.toLowerCase(Locale.ENGLISH);
+        this.versionExtractor = versionExtractor;
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+    }
+
+    @Override
+    public boolean supportsRequestedVersion(boolean headerRequired, float minVersion, float maxVersion, ContainerRequest request) {
+        return supportsRequestedVersion(headerRequired, minVersion, maxVersion, request, System.nanoTime());
+    }
+
+    boolean supportsRequestedVersion(final boolean headerRequired, final float minVersion, final float maxVersion,
+                                     final ContainerRequest request, long now) {
+        Key key = new Key(request.getHeaderValue(tenantHeaderLookupName), versionExtractor.extract(request),
+                headerRequired, minVersion, maxVersion);
+
+        Entry entry = entries.get(key);
+        while (entry == null || entry.isExpired(now)) {
+            Entry loading = new Entry(key, now + timeToLiveNanos, new FutureTask<Boolean>(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    return matcher.supportsRequestedVersion(headerRequired, minVersion, maxVersion, request);
+                }
+            }));
+
+            boolean added = entry == null ? entries.putIfAbsent(key, loading) == null : entries.replace(key, entry, loading);
+            if (added) {
+                misses.increment();
+                insertionOrder.add(loading);
+                queued.incrementAndGet();
+                evict();
+                loading.decision.run();
+                return decision(loading);
+            }
+
+            // Another request added the entry first, and it is waited for like any other.
+            entry = entries.get(key);
+        }
+
+        if (entry.decision.isDone()) {
+            hits.increment();
+        } else {
+            coalesced.increment();
+        }
+        return decision(entry);
+    }
+
+    private boolean decision(Entry entry) {
+        try {
+            return entry.decision.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while the version matcher decided for another request", e);
+        } catch (ExecutionException e) {
+            entries.remove(entry.key, entry);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void evict() {
+        // Entries replaced since they were queued are dropped from the queue as they come up, without counting.
+        while (queued.get() > maxEntries) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            queued.decrementAndGet();
+            if (entries.remove(oldest.key, oldest)) {
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * @return the requests decided by a remembered decision.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the requests the matcher was asked for.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the requests that waited for the matcher to decide for another request with the same key.
+     */
+    public long getCoalescedMisses() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return the decisions forgotten to make room for newer ones.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static final class Key {
+
+        private final String tenant;
+        private final String version;
+        private final boolean headerRequired;
+        private final float minVersion;
+        private final float maxVersion;
+        private final int hash;
+
+        private Key(String tenant, String version, boolean headerRequired, float minVersion, float maxVersion) {
+            this.tenant = tenant;
+            this.version = version;
+            this.headerRequired = headerRequired;
+            this.minVersion = minVersion;
+            this.maxVersion = maxVersion;
+
+            int hash = tenant == null ? 0 : tenant.hashCode();
+            hash = 31 * hash + (version == null ? 0 : version.hashCode());
+            hash = 31 * hash + (headerRequired ? 1 : 0);
+            hash = 31 * hash + Float.floatToIntBits(minVersion);
+            this.hash = 31 * hash + Float.floatToIntBits(maxVersion);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+
+            Key key = (Key) other;
+            return hash == key.hash
+                    && headerRequired == key.headerRequired
+                    && Float.floatToIntBits(minVersion) == Float.floatToIntBits(key.minVersion)
+                    && Float.floatToIntBits(maxVersion) == Float.floatToIntBits(key.maxVersion)
+                    && (tenant == null ? key.tenant == null : tenant.equals(key.tenant))
+                    && (version == null ? key.version == null : version.equals(key.version));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Key key;
+        private final long expiresAt;
+        private final FutureTask<Boolean> decision;
+
+        private Entry(Key key, long expiresAt, FutureTask<Boolean> decision) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+            this.decision = decision;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.kris.massey;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the requests filtered for one resource method.
+ *
+ * Every counter is created up front and indexed by version bucket or {@link VersionOutcome} ordinal, so recording a
+ * request is a couple of array reads and striped increments with no locking or allocation.
+ */
+final class MethodVersionStatistics {
+
+    // Bucket 0 holds requests without a known version, buckets 1 to 16 major versions 0 to 15 and the last one the rest.
+    static final int MAJOR_VERSION_BUCKETS = 16;
+
+    private static final VersionOutcome[] OUTCOMES = VersionOutcome.values();
+
+    private final LongAdder[] acceptedByVersion = counters(MAJOR_VERSION_BUCKETS + 2);
+    // Requests whose version was accepted but which admission control answered with 429, by version bucket.
+    private final LongAdder[] throttledByVersion = counters(MAJOR_VERSION_BUCKETS + 2);
+    private final LongAdder[] rejectedByOutcome = counters(OUTCOMES.length);
+    // Accepted requests the candidate range would reject, by the outcome it would reject them with.
+    private final LongAdder[] wouldRejectByOutcome = counters(OUTCOMES.length);
+    private final LatencyHistogram latencyHistogram;
+
+    MethodVersionStatistics(LatencyHistogram latencyHistogram) {
+        this.latencyHistogram = latencyHistogram;
+    }
+
+    void record(VersionOutcome outcome, float requestedVersion, long latencyNanos) {
+        if (outcome == VersionOutcome.ACCEPTED) {
+            acceptedByVersion[versionBucket(requestedVersion)].increment();
+        } else {
+            rejectedByOutcome[outcome.ordinal()].increment();
+        }
+
+        latencyHistogram.record(latencyNanos);
+    }
+
+    void recordThrottled(float requestedVersion, long latencyNanos) {
+        throttledByVersion[versionBucket(requestedVersion)].increment();
+        latencyHistogram.record(latencyNanos);
+    }
+
+    void recordWouldReject(VersionOutcome outcome) {
+        wouldRejectByOutcome[outcome.ordinal()].increment();
+    }
+
+    Map<String, Long> acceptedRequests() {
+        return countsByVersion(acceptedByVersion);
+    }
+
+    Map<String, Long> throttledRequests() {
+        return countsByVersion(throttledByVersion);
+    }
+
+    private static Map<String, Long> countsByVersion(LongAdder[] counters) {
+        Map<String, Long> counts = new LinkedHashMap<String, Long>();
+
+        for (int bucket = 0; bucket < counters.length; bucket++) {
+            long count = counters[bucket].sum();
+            if (count > 0) {
+                counts.put(versionBucketName(bucket), count);
+            }
+        }
+
+        return counts;
+    }
+
+    Map<String, Long> rejectedRequests() {
+        return countsByOutcome(rejectedByOutcome);
+    }
+
+    private static Map<String, Long> countsByOutcome(LongAdder[] counters) {
+        Map<String, Long> counts = new LinkedHashMap<String, Long>();
+
+        for (VersionOutcome outcome : OUTCOMES) {
+            long count = counters[outcome.ordinal()].sum();
+            if (count > 0) {
+                counts.put(outcome.name(), count);
+            }
+        }
+
+        return counts;
+    }
+
+    Map<String, Long> wouldRejectRequests() {
+        return countsByOutcome(wouldRejectByOutcome);
+    }
+
+    void reset() {
+        for (LongAdder counter : acceptedByVersion) {
+            counter.reset();
+        }
+        for (LongAdder counter : throttledByVersion) {
+            counter.reset();
+        }
+        for (LongAdder counter : rejectedByOutcome) {
+            counter.reset();
+        }
+        for (LongAdder counter : wouldRejectByOutcome) {
+            counter.reset();
+        }
+    }
+
+    private static int versionBucket(float requestedVersion) {
+        if (!(requestedVersion >= 0)) {
+            return 0;
+        }
+
+        return requestedVersion >= MAJOR_VERSION_BUCKETS ? MAJOR_VERSION_BUCKETS + 1 : 1 + (int) requestedVersion;
+    }
+
+    private static String versionBucketName(int bucket) {
+        if (bucket == 0) {
+            return "none";
+        }
+
+        return bucket > MAJOR_VERSION_BUCKETS ? MAJOR_VERSION_BUCKETS + ".x+" : (bucket - 1) + ".x";
+    }
+
+    static LongAdder[] counters(int size) {
+        LongAdder[] counters = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            counters[i] = new LongAdder();
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,282 @@
+package com.kris.massey;
+
+import com.sun.jersey.spi.container.ContainerRequest;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The version each client, named by a header such as an API key, signed up on, used as the requested version of its
+ * requests that send none. Attach it to the factory with {@link ApiVersionResourceFilterFactory#setPinnedVersions}.
+ *
+ * The pins are read from a table file built offline with {@link #write}, and memory mapped rather than read into the
+ * heap, so millions of clients cost page cache instead of objects. The table is open addressing with linear probing:
+ * a header, then a power of two number of slots, each the 64 bit hash of a client and its version read both as a float
+ * and as a semantic version. Only hashes are kept, so two clients whose hashes collide, which is unlikely among even
+ * hundreds of millions of clients, share a pin. Looking a client up hashes the header value in place and reads the
+ * mapped slots, allocating nothing.
+ *
+ * The file is watched by a daemon thread stopped by {@link #close()}, and a new table is mapped and published with a
+ * single volatile write once it has been moved into place, edited in place or deleted and no further change followed
+ * for a moment. A symbolic link, such as a file of a Kubernetes ConfigMap volume, is mapped again when anything in its
+ * directory changes, so swapping the ConfigMap's {@code ..data} link is seen. Replace the file with {@link #write},
+ * which moves a complete table into place, so requests never see a table being written: a mapped file rewritten in
+ * place changes under the table reading it, and truncating it makes reads fail. A file that is not a valid table is
+ * rejected and the last good table stays in place; only when the pins are created does an invalid file fail. A missing
+ * file pins nothing.
+ */
+public final class PinnedVersions implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(PinnedVersions.class.getName());
+
+    private static final int MAGIC = 0x50494e31;
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 24;
+    // Slots are mapped as one buffer, whose size is an int.
+    private static final int MAX_SLOTS = Integer.highestOneBit((Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE);
+    private static final double MAX_LOAD = 0.7;
+    private static final long EMPTY = 0;
+    private static final int NO_FLOAT_VERSION = Float.floatToIntBits(VersionParser.INVALID_VERSION);
+
+    private final Path tableFile;
+    // Lower case, so Jersey's case insensitive header lookup does not have to lower case it on every request.
+    private final String clientHeaderLookupName;
+    private final FileWatcher watcher;
+    private volatile Table table;
+
+    /**
+     * Maps the table and watches the file for changes.
+     *
+     * @param clientHeaderName the header identifying the client, such as an API key.
+     * @throws IllegalStateException when the file exists but is not a valid table.
+     */
+    public PinnedVersions(File tableFile, String clientHeaderName) throws IOException {
+        this(tableFile, clientHeaderName, true);
+    }
+
+    PinnedVersions(File tableFile, String clientHeaderName, boolean watch) throws IOException {
+        this.tableFile = tableFile.getAbsoluteFile().toPath();
+        this.clientHeaderLookupName = clientHeaderName.toLowerCase(Locale.ENGLISH);
+        this.table = load();
+
+        this.watcher = watch ? new FileWatcher(this.tableFile, "api-version-pin-watcher", new Runnable() {
+            @Override
+            public void run() {
+                reload();
+            }
+        }) : null;
+    }
+
+    /**
+     * Writes the pins as a table, to a temporary file moved over the file, so a table being watched is replaced whole.
+     *
+     * @param pins the version of each client, as clients send it: a float version, a semantic version, or both.
+     * @throws IllegalArgumentException when a version is neither.
+     */
+    public static void write(Map<String, String> pins, File tableFile) throws IOException {
+        // At least one slot is left empty, so every probe ends.
+        long needed = (long) Math.ceil(pins.size() / MAX_LOAD) + 1;
+        if (needed > MAX_SLOTS) {
+            throw new IllegalArgumentException(pins.size() + " pins do not fit in one table");
+        }
+        int slots = Integer.highestOneBit((int) needed);
+        slots = slots < needed ? slots << 1 : slots;
+
+        Path target = tableFile.getAbsoluteFile().toPath();
+        Path temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            try {
+                // Written through a mapping of its own, so a table larger than the heap can be built.
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * SLOT_SIZE);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                fill(buffer, pins, slots);
+                buffer.force();
+            } finally {
+                channel.close();
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void fill(ByteBuffer buffer, Map<String, String> pins, int slots) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, slots);
+        buffer.putInt(8, pins.size());
+
+        for (Map.Entry<String, String> pin : pins.entrySet()) {
+            float version = VersionParser.parse(pin.getValue().trim());
+            long semanticVersion = SemanticVersion.parse(pin.getValue().trim());
+            if (!VersionParser.isValid(version) && !SemanticVersion.isValid(semanticVersion)) {
+                throw new IllegalArgumentException("The version " + pin.getValue() + " pinned for " + pin.getKey() + " is not a version");
+            }
+
+            long hash = hashOf(pin.getKey());
+            int slot = (int) hash & (slots - 1);
+            while (buffer.getLong(offsetOf(slot)) != EMPTY && buffer.getLong(offsetOf(slot)) != hash) {
+                slot = (slot + 1) & (slots - 1);
+            }
+
+            int offset = offsetOf(slot);
+            buffer.putLong(offset, hash);
+            buffer.putLong(offset + 8, SemanticVersion.isValid(semanticVersion) ? semanticVersion : DefaultApiVersionMatcher.NO_REQUESTED_SEMANTIC_VERSION);
+            buffer.putInt(offset + 16, VersionParser.isValid(version) ? Float.floatToIntBits(version) : NO_FLOAT_VERSION);
+        }
+    }
+
+    /**
+     * Maps the file again, keeping the current table when it is invalid.
+     *
+     * @return whether the file was valid and its pins are now in place.
+     */
+    public boolean reload() {
+        try {
+            table = load();
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not map the pinned versions " + tableFile + ", keeping the last good table", e);
+        } catch (IllegalStateException e) {
+            LOGGER.log(Level.WARNING, "Rejected the pinned versions " + tableFile + ", keeping the last good table: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of clients pinned.
+     */
+    public int size() {
+        return table.size;
+    }
+
+    /**
+     * @return the float version the client of the request is pinned to, or
+     * {@link DefaultApiVersionMatcher#NO_REQUESTED_VERSION} when it is not pinned to one.
+     */
+    float pinnedVersion(ContainerRequest request) {
+        String client = request.getHeaderValue(clientHeaderLookupName);
+        return client == null ? DefaultApiVersionMatcher.NO_REQUESTED_VERSION : pinnedVersion(client);
+    }
+
+    /**
+     * @return the semantic version the client of the request is pinned to, or
+     * {@link DefaultApiVersionMatcher#NO_REQUESTED_SEMANTIC_VERSION} when it is not pinned to one.
+     */
+    long pinnedSemanticVersion(ContainerRequest request) {
+        String client = request.getHeaderValue(clientHeaderLookupName);
+        return client == null ? DefaultApiVersionMatcher.NO_REQUESTED_SEMANTIC_VERSION : pinnedSemanticVersion(client);
+    }
+
+    float pinnedVersion(String client) {
+        Table current = table;
+        int offset = current.find(hashOf(client));
+        if (offset < 0) {
+            return DefaultApiVersionMatcher.NO_REQUESTED_VERSION;
+        }
+
+        int bits = current.slots.getInt(offset + 16);
+        return bits == NO_FLOAT_VERSION ? DefaultApiVersionMatcher.NO_REQUESTED_VERSION : Float.intBitsToFloat(bits);
+    }
+
+    long pinnedSemanticVersion(String client) {
+        Table current = table;
+        int offset = current.find(hashOf(client));
+        return offset < 0 ? DefaultApiVersionMatcher.NO_REQUESTED_SEMANTIC_VERSION : current.slots.getLong(offset + 8);
+    }
+
+    private static long hashOf(String client) {
+        long hash = ClientVersionTracker.hash(client);
+        // 0 marks an empty slot.
+        return hash == EMPTY ? 1 : hash;
+    }
+
+    private static int offsetOf(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private Table load() throws IOException {
+        if (!Files.exists(tableFile)) {
+            return Table.EMPTY_TABLE;
+        }
+
+        // The mapping stays valid once the channel is closed, and when the file is replaced it keeps the table it mapped.
+        FileChannel channel = FileChannel.open(tableFile, StandardOpenOption.READ);
+        MappedByteBuffer mapped;
+        try {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("The file is not a pinned version table, it is " + channel.size() + " bytes long");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            channel.close();
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+        int slots = mapped.getInt(4);
+        if (mapped.getInt(0) != MAGIC || slots < 1 || slots > MAX_SLOTS || Integer.bitCount(slots) != 1
+                || mapped.capacity() != HEADER_SIZE + slots * SLOT_SIZE) {
+            throw new IllegalStateException("The file is not a pinned version table written by PinnedVersions.write");
+        }
+
+        return new Table(mapped, slots - 1, mapped.getInt(8));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    /**
+     * One mapped table, never modified once published. Only absolute reads are made, so it is shared by every thread.
+     */
+    private static final class Table {
+
+        private static final Table EMPTY_TABLE = new Table(
+                ByteBuffer.allocate(HEADER_SIZE + SLOT_SIZE).order(ByteOrder.LITTLE_ENDIAN), 0, 0);
+
+        private final ByteBuffer slots;
+        private final int mask;
+        private final int size;
+
+        private Table(ByteBuffer slots, int mask, int size) {
+            this.slots = slots;
+            this.mask = mask;
+            this.size = size;
+        }
+
+        /**
+         * @return the offset of the slot of the hash, or -1 when it is not in the table.
+         */
+        int find(long hash) {
+            int slot = (int) hash & mask;
+            // Tables written by write() always have an empty slot, the bound only guards against a damaged file.
+            for (int probe = 0; probe <= mask; probe++) {
+                long slotHash = slots.getLong(offsetOf(slot));
+                if (slotHash == hash) {
+                    return offsetOf(slot);
+                }
+                if (slotHash == EMPTY) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+    }
+}
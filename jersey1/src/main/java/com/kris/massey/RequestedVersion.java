@@ -0,0 +1,31 @@
+package com.kris.massey;
+
+/**
+ * The version a request carries, parsed both ways once, so every filter the request passes through reads it from the
+ * request properties instead of extracting and parsing it again.
+ */
+final class RequestedVersion {
+
+    static final RequestedVersion NONE = new RequestedVersion(DefaultApiVersionMatcher.NO_REQUESTED_VERSION,
+            DefaultApiVersionMatcher.NO_REQUESTED_SEMANTIC_VERSION);
+
+    private final float version;
+    private final long semanticVersion;
+
+    private RequestedVersion(float version, long semanticVersion) {
+        this.version = version;
+        this.semanticVersion = semanticVersion;
+    }
+
+    static RequestedVersion parse(String rawVersion, VersionCache versionCache) {
+        return rawVersion == null ? NONE : new RequestedVersion(versionCache.parse(rawVersion), SemanticVersion.parse(rawVersion));
+    }
+
+    float version() {
+        return version;
+    }
+
+    long semanticVersion() {
+        return semanticVersion;
+    }
+}
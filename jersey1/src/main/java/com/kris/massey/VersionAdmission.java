@@ -0,0 +1,175 @@
+package com.kris.massey;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the rate of accepted requests per range of requested versions, for
+ * {@link ApiVersionResourceFilterFactory#setVersionAdmission}, so that under load clients of deprecated versions are
+ * slowed down while current versions are served as before.
+ *
+ * Ranges are declared the way {@link ApiVersion} declares them, with {@link ApiVersion#ALL_VERSION_SUPPORTED} or an empty
+ * string for an open end, and a version is counted against the first range holding it. Versions in no range, and
+ * requests without a version, are never limited. Each range is a token bucket refilled at its rate and holding up to its
+ * burst, kept as the time its next token is due in one atomic long, so taking a token is a compare and set and takes no
+ * lock. A request over the budget is refused with 429 Too Many Requests, with a Retry-After of the seconds until a token
+ * is due and a body formatted when the range was added.
+ */
+public final class VersionAdmission {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final String TOO_MANY_REQUESTS_TEMPLATE = "{\"message\": {\"limitedMinVersion\":%s,\"limitedMaxVersion\":%s,\"requestsPerSecond\":%s}}";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private volatile Limit[] floatLimits = new Limit[0];
+    private volatile Limit[] semanticLimits = new Limit[0];
+
+    /**
+     * @param requestsPerSecond the rate tokens are refilled at.
+     * @param burst the number of requests admitted at once after a quiet period.
+     */
+    public VersionAdmission limit(float minVersion, float maxVersion, double requestsPerSecond, int burst) {
+        VersionRange range = new VersionRange(false, minVersion, maxVersion);
+        String min = minVersion == ApiVersion.ALL_VERSION_SUPPORTED ? "\"no minimum version\"" : String.valueOf(minVersion);
+        String max = maxVersion == ApiVersion.ALL_VERSION_SUPPORTED ? "\"no maximum version\"" : String.valueOf(maxVersion);
+
+        synchronized (this) {
+            floatLimits = add(floatLimits, new Limit(range, requestsPerSecond, burst, min, max));
+        }
+        return this;
+    }
+
+    /**
+     * @throws IllegalStateException when a version is not a major.minor[.patch] semantic version, as for {@link ApiVersion}.
+     */
+    public VersionAdmission limitSemantic(String minSemanticVersion, String maxSemanticVersion, double requestsPerSecond, int burst) {
+        VersionRange range = VersionRange.of(false, ApiVersion.ALL_VERSION_SUPPORTED, ApiVersion.ALL_VERSION_SUPPORTED,
+                minSemanticVersion, maxSemanticVersion);
+        String min = range.minSemanticVersion() == null ? "\"no minimum version\"" : "\"" + range.minSemanticVersion() + "\"";
+        String max = range.maxSemanticVersion() == null ? "\"no maximum version\"" : "\"" + range.maxSemanticVersion() + "\"";
+
+        synchronized (this) {
+            semanticLimits = add(semanticLimits, new Limit(range, requestsPerSecond, burst, min, max));
+        }
+        return this;
+    }
+
+    private static Limit[] add(Limit[] limits, Limit limit) {
+        Limit[] added = Arrays.copyOf(limits, limits.length + 1);
+        added[limits.length] = limit;
+        return added;
+    }
+
+    /**
+     * @param requestedVersion a valid float version.
+     * @throws WebApplicationException carrying the 429 when the range of the version has no token left.
+     */
+    void admit(float requestedVersion) {
+        admit(floatLimits, VersionRange.key(requestedVersion), System.nanoTime());
+    }
+
+    /**
+     * @param requestedSemanticVersion a valid packed {@link SemanticVersion}.
+     */
+    void admitSemantic(long requestedSemanticVersion) {
+        admit(semanticLimits, requestedSemanticVersion, System.nanoTime());
+    }
+
+    static void admit(Limit[] limits, long key, long now) {
+        for (Limit limit : limits) {
+            if (limit.range.lowerKey() <= key && key <= limit.range.upperKey()) {
+                long wait = limit.acquire(now);
+                if (wait > 0) {
+                    throw limit.exception(wait);
+                }
+                return;
+            }
+        }
+    }
+
+    Limit[] floatLimits() {
+        return floatLimits;
+    }
+
+    Limit[] semanticLimits() {
+        return semanticLimits;
+    }
+
+    static final class Limit {
+
+        private final VersionRange range;
+        private final long interval;
+        private final long tolerance;
+        private final byte[] body;
+        // The time the bucket is full again, so a token is due when it is less than the tolerance ahead of now.
+        private final AtomicLong theoreticalArrival;
+
+        private Limit(VersionRange range, double requestsPerSecond, int burst, String minVersion, String maxVersion) {
+            if (!(requestsPerSecond > 0) || burst < 1) {
+                throw new IllegalArgumentException("A version limit needs a positive rate and burst, not " + requestsPerSecond
+                        + " requests per second and a burst of " + burst);
+            }
+
+            this.range = range;
+            this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+            this.tolerance = interval * (burst - 1);
+            this.body = String.format(TOO_MANY_REQUESTS_TEMPLATE, minVersion, maxVersion, requestsPerSecond).getBytes(UTF_8);
+            this.theoreticalArrival = new AtomicLong(System.nanoTime());
+        }
+
+        /**
+         * @return 0 when a token was taken, or else the nanoseconds until one is due.
+         */
+        long acquire(long now) {
+            while (true) {
+                long arrival = theoreticalArrival.get();
+                long due = Math.max(arrival, now);
+                long wait = due - tolerance - now;
+
+                if (wait > 0) {
+                    return wait;
+                }
+
+                if (theoreticalArrival.compareAndSet(arrival, due + interval)) {
+                    return 0;
+                }
+            }
+        }
+
+        WebApplicationException exception(long wait) {
+            // Retry-After is in whole seconds, rounded up so a client retrying on time finds a token.
+            long retryAfter = Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+
+            return new TooManyRequestsException(Response.status(TOO_MANY_REQUESTS)
+                    .header(RETRY_AFTER, retryAfter)
+                    .type(MediaType.APPLICATION_JSON_TYPE)
+                    .entity(body)
+                    .build());
+        }
+
+        @Override
+        public String toString() {
+            return range.toString();
+        }
+    }
+
+    private static class TooManyRequestsException extends WebApplicationException {
+
+        private static final long serialVersionUID = 1L;
+
+        private TooManyRequestsException(Response response) {
+            super(response);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
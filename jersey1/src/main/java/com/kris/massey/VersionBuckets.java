@@ -0,0 +1,129 @@
+package com.kris.massey;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Splits the version line at every bound of the registered ranges, so each range is a set of whole buckets and the
+ * endpoints a version can reach are listed from the bitset of its bucket.
+ *
+ * Ranges are registered as filters are created, which Jersey may do lazily for sub-resources while serving traffic, and
+ * the table is built on first use after the last registration. The filters check versions against their own range
+ * directly, so only listing the endpoints reads the table. Float and semantic ranges are keyed differently, so each kind
+ * has its own buckets.
+ */
+final class VersionBuckets {
+
+    private final List<Method> methods = new ArrayList<Method>();
+    private final List<VersionRange> ranges = new ArrayList<VersionRange>();
+    private volatile Table table;
+
+    synchronized void register(Method method, VersionRange range) {
+        methods.add(method);
+        ranges.add(range);
+        table = null;
+    }
+
+    Table table() {
+        Table current = table;
+        if (current == null) {
+            synchronized (this) {
+                current = table;
+                if (current == null) {
+                    current = new Table(methods, ranges);
+                    table = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    static final class Table {
+
+        // The first key of every bucket but the first, which starts at the lowest key.
+        private final long[] bounds;
+        // The endpoints accepting each bucket, as words of a bitset.
+        private final long[][] endpoints;
+        private final Method[] methods;
+
+        private Table(List<Method> methods, List<VersionRange> ranges) {
+            long[] allBounds = new long[ranges.size() * 2];
+            int size = 0;
+            for (VersionRange range : ranges) {
+                allBounds[size++] = range.lowerKey();
+                // Nothing follows the highest key, so there is no bucket to start there.
+                if (range.upperKey() != Long.MAX_VALUE) {
+                    allBounds[size++] = range.upperKey() + 1;
+                }
+            }
+
+            Arrays.sort(allBounds, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || allBounds[i] != allBounds[distinct - 1]) {
+                    allBounds[distinct++] = allBounds[i];
+                }
+            }
+
+            this.bounds = Arrays.copyOf(allBounds, distinct);
+            this.endpoints = new long[distinct + 1][(ranges.size() + 63) >>> 6];
+            this.methods = methods.toArray(new Method[methods.size()]);
+
+            for (int endpoint = 0; endpoint < ranges.size(); endpoint++) {
+                VersionRange range = ranges.get(endpoint);
+                // The range starts exactly at a bound and ends just before the bound after its last key, or at the end.
+                int first = bucketOf(range.lowerKey());
+                int last = range.upperKey() == Long.MAX_VALUE ? distinct : bucketOf(range.upperKey());
+
+                for (int bucket = first; bucket <= last; bucket++) {
+                    endpoints[bucket][endpoint >>> 6] |= 1L << endpoint;
+                }
+            }
+        }
+
+        /**
+         * @return the bucket holding the key, found with one binary search.
+         */
+        int bucketOf(long key) {
+            int low = 0;
+            int high = bounds.length - 1;
+
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (bounds[middle] <= key) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * @return the methods whose range holds the key, in the order they were registered.
+         */
+        List<Method> methodsAccepting(long key) {
+            long[] words = endpoints[bucketOf(key)];
+            List<Method> accepting = new ArrayList<Method>();
+
+            for (int word = 0; word < words.length; word++) {
+                long bits = words[word];
+                while (bits != 0) {
+                    accepting.add(methods[(word << 6) + Long.numberOfTrailingZeros(bits)]);
+                    bits &= bits - 1;
+                }
+            }
+
+            return Collections.unmodifiableList(accepting);
+        }
+
+        int bucketCount() {
+            return endpoints.length;
+        }
+    }
+}
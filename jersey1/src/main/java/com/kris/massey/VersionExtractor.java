@@ -0,0 +1,18 @@
+package com.kris.massey;
+
+import com.sun.jersey.spi.container.ContainerRequest;
+
+/**
+ * One place a request may carry its version, such as a header or a query parameter.
+ *
+ * Extractors configured on {@link ApiVersionResourceFilterFactory} are tried in order and the first to find a version
+ * wins. The chain runs once per request, however many versioned filters the request passes through. Ready made
+ * extractors are available from {@link VersionExtractors}.
+ */
+public interface VersionExtractor {
+
+    /**
+     * @return the version as sent, not yet parsed, or null when the request carries none in this place.
+     */
+    String extract(ContainerRequest request);
+}
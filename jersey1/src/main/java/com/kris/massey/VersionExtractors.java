@@ -0,0 +1,159 @@
+package com.kris.massey;
+
+import com.sun.jersey.spi.container.ContainerRequest;
+
+import java.util.Locale;
+
+/**
+ * The {@link VersionExtractor}s for the usual places a version is sent.
+ *
+ * Each reads the raw request data Jersey already holds, the header values and the raw request URI, rather than the
+ * parsed views that build a map for every request. Only the version found is copied out.
+ */
+public final class VersionExtractors {
+
+    private VersionExtractors() {
+    }
+
+    /**
+     * @return an extractor reading the whole value of the named header, as {@link DefaultApiVersionMatcher} does.
+     */
+    public static VersionExtractor header(String headerName) {
+        return new HeaderExtractor(headerName);
+    }
+
+    /**
+     * @return an extractor reading the first value of the named query parameter, as in {@code /widgets?version=2}.
+     */
+    public static VersionExtractor queryParameter(String parameterName) {
+        return new QueryParameterExtractor(parameterName);
+    }
+
+    /**
+     * @return an extractor reading the first path segment made of the prefix followed by a version and nothing else, as
+     * the "2.1" in {@code /api/v2.1/widgets} with the prefix "v", so {@code /v8engine} holds no version. The segment is
+     * still part of the path Jersey matches resources on.
+     */
+    public static VersionExtractor pathSegment(String prefix) {
+        return new PathSegmentExtractor(prefix);
+    }
+
+    /**
+     * @return an extractor reading the named parameter of the Accept header, or failing that of the Content-Type header,
+     * as {@link MediaTypeVersionMatcher} does.
+     */
+    public static VersionExtractor mediaTypeParameter(String parameterName) {
+        return new MediaTypeParameterExtractor(parameterName);
+    }
+
+    private static final class HeaderExtractor implements VersionExtractor {
+
+        // Lower case, so Jersey's case insensitive header lookup does not have to lower case it on every request.
+        private final String headerLookupName;
+
+        private HeaderExtractor(String headerName) {
+            this.headerLookupName = headerName.toLowerCase(Locale.ENGLISH);
+        }
+
+        @Override
+        public String extract(ContainerRequest request) {
+            String version = request.getHeaderValue(headerLookupName);
+            return version == null || version.isEmpty() ? null : version;
+        }
+    }
+
+    private static final class QueryParameterExtractor implements VersionExtractor {
+
+        private final String parameterName;
+
+        private QueryParameterExtractor(String parameterName) {
+            this.parameterName = parameterName;
+        }
+
+        @Override
+        public String extract(ContainerRequest request) {
+            String query = request.getRequestUri().getRawQuery();
+            if (query == null) {
+                return null;
+            }
+
+            int start = 0;
+            while (start < query.length()) {
+                int end = query.indexOf('&', start);
+                if (end < 0) {
+                    end = query.length();
+                }
+
+                int valueStart = start + parameterName.length() + 1;
+                if (valueStart <= end && query.startsWith(parameterName, start) && query.charAt(valueStart - 1) == '=') {
+                    // Versions never need encoding, so an encoded value is passed on as sent and will not parse.
+                    return valueStart == end ? null : query.substring(valueStart, end);
+                }
+
+                start = end + 1;
+            }
+
+            return null;
+        }
+    }
+
+    private static final class PathSegmentExtractor implements VersionExtractor {
+
+        private final String prefix;
+
+        private PathSegmentExtractor(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public String extract(ContainerRequest request) {
+            String path = request.getRequestUri().getRawPath();
+            if (path == null) {
+                return null;
+            }
+
+            int start = 0;
+            while (start < path.length()) {
+                int end = path.indexOf('/', start);
+                if (end < 0) {
+                    end = path.length();
+                }
+
+                int versionStart = start + prefix.length();
+                if (versionStart < end && path.startsWith(prefix, start) && isVersion(path, versionStart, end)) {
+                    return path.substring(versionStart, end);
+                }
+
+                start = end + 1;
+            }
+
+            return null;
+        }
+
+        /**
+         * @return whether the rest of the segment is a whole version, so a segment such as "v8engine" is not taken for one.
+         */
+        private static boolean isVersion(String path, int start, int end) {
+            return VersionParser.isValid(VersionParser.parse(path, start, end)) || SemanticVersion.isValid(SemanticVersion.parse(path, start, end));
+        }
+    }
+
+    private static final class MediaTypeParameterExtractor implements VersionExtractor {
+
+        private final String parameterName;
+
+        private MediaTypeParameterExtractor(String parameterName) {
+            this.parameterName = parameterName;
+        }
+
+        @Override
+        public String extract(ContainerRequest request) {
+            long position = MediaTypeParameters.find(request, parameterName);
+            if (position == MediaTypeParameters.NOT_FOUND || MediaTypeParameters.start(position) == MediaTypeParameters.end(position)) {
+                return null;
+            }
+
+            return MediaTypeParameters.header(request, position).substring(MediaTypeParameters.start(position), MediaTypeParameters.end(position));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.kris.massey;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Overrides the {@link ApiVersion} ranges of resource methods from a local properties file, so a version can be
+ * retired without a redeploy. Each entry names a resource method and the range it supports from then on, written as
+ * ranges are reported, with {@code *} for an open end:
+ * <pre>
+ * com.example.Widgets#list = [2.0, *]
+ * com.example.Widgets#find = [2.9.0, 3.1.0]
+ * </pre>
+ * An entry applies to every public method of the class with that name. It replaces the bounds of the annotated range,
+ * which must be a float range for float bounds and a semantic range for semantic ones, and keeps whether the header is
+ * required. An override can only narrow the annotated range, as {@link ApiVersionServletFilter} and the pre-matching
+ * filter of the Jersey 2 module check requests against the annotations and would still reject what a wider range
+ * accepts. Methods with {@link ApiVersionAlternative}s, and the alternatives themselves, cannot be overridden.
+ *
+ * The file is read into an immutable snapshot, replaced with a single volatile write when the file changes, so the
+ * filters read the overrides with one volatile read per request and take no lock. A file that cannot be read, names a
+ * class or method that does not exist, or declares an invalid range is rejected as a whole and the last good snapshot
+ * stays in place; only when the policy is created does an invalid file fail. A missing file overrides nothing. The file
+ * is watched by a daemon thread stopped by {@link #close()}, which reads it again once it has been created, moved into
+ * place, edited in place or deleted and no further change followed for a moment. A symbolic link, such as a file of a
+ * Kubernetes ConfigMap volume, is read again when anything in its directory changes, so swapping the ConfigMap's
+ * {@code ..data} link is seen. Moving a complete file over the policy is still the safest way to replace it, since an
+ * editor pausing mid-write can leave a partial file that happens to be valid.
+ *
+ * Attach a policy to the factory with {@link ApiVersionResourceFilterFactory#setVersionPolicy}.
+ */
+public final class VersionPolicy implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(VersionPolicy.class.getName());
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String OPEN_END = "*";
+
+    private final Path policyFile;
+    private final ClassLoader classLoader;
+    private final FileWatcher watcher;
+    private volatile Snapshot snapshot;
+
+    /**
+     * Reads the file and watches it for changes.
+     *
+     * @throws IllegalStateException when the file exists but is invalid.
+     */
+    public VersionPolicy(File policyFile) throws IOException {
+        this(policyFile, true);
+    }
+
+    VersionPolicy(File policyFile, boolean watch) throws IOException {
+        this.policyFile = policyFile.getAbsoluteFile().toPath();
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        this.classLoader = contextClassLoader == null ? VersionPolicy.class.getClassLoader() : contextClassLoader;
+        this.snapshot = load();
+
+        this.watcher = watch ? new FileWatcher(this.policyFile, "api-version-policy-watcher", new Runnable() {
+            @Override
+            public void run() {
+                reload();
+            }
+        }) : null;
+    }
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Reads the file again, keeping the current overrides when it is invalid.
+     *
+     * @return whether the file was valid and its overrides are now in place.
+     */
+    public boolean reload() {
+        try {
+            snapshot = load();
+            return true;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not read the version policy " + policyFile + ", keeping the last good policy", e);
+        } catch (IllegalStateException e) {
+            LOGGER.log(Level.WARNING, "Rejected the version policy " + policyFile + ", keeping the last good policy: " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * @return the range each overridden method supports, in the form of the file.
+     */
+    public Map<String, String> getOverrides() {
+        Map<String, String> overrides = new HashMap<String, String>();
+        for (Map.Entry<Method, VersionRange> override : snapshot.ranges.entrySet()) {
+            overrides.put(override.getKey().getDeclaringClass().getName() + "#" + override.getKey().getName(), override.getValue().toString());
+        }
+        return overrides;
+    }
+
+    private Snapshot load() throws IOException {
+        if (!Files.exists(policyFile)) {
+            return new Snapshot(Collections.<Method, VersionRange>emptyMap());
+        }
+
+        Properties properties = new Properties();
+        Reader reader = new InputStreamReader(Files.newInputStream(policyFile), UTF_8);
+        try {
+            properties.load(reader);
+        } finally {
+            reader.close();
+        }
+
+        Map<Method, VersionRange> ranges = new HashMap<Method, VersionRange>();
+        for (String name : properties.stringPropertyNames()) {
+            String value = properties.getProperty(name).trim();
+            int separator = name.indexOf('#');
+            if (separator < 0) {
+                throw new IllegalStateException("\"" + name + "\" does not name a method as class#method");
+            }
+
+            Class<?> resourceClass;
+            try {
+                resourceClass = Class.forName(name.substring(0, separator).trim(), false, classLoader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("\"" + name + "\" names a class that was not found");
+            }
+
+            String methodName = name.substring(separator + 1).trim();
+            boolean found = false;
+            for (Method method : resourceClass.getMethods()) {
+                if (method.getName().equals(methodName)) {
+                    ranges.put(method, override(name, resourceClass, method, value));
+                    found = true;
+                }
+            }
+
+            if (!found) {
+                throw new IllegalStateException("\"" + name + "\" names a method that was not found");
+            }
+        }
+
+        return new Snapshot(ranges);
+    }
+
+    private static VersionRange override(String name, Class<?> resourceClass, Method method, String value) {
+        VersionRange annotated = VersionRange.forMethod(resourceClass, method);
+        if (annotated == null) {
+            throw new IllegalStateException("\"" + name + "\" names a method without @ApiVersion");
+        }
+        if (method.isAnnotationPresent(ApiVersionAlternative.class) || VersionRouteTable.forResourceMethod(resourceClass, method) != null) {
+            throw new IllegalStateException("\"" + name + "\" names a method with @ApiVersionAlternatives, which cannot be overridden");
+        }
+
+        if (value.length() < 2 || value.charAt(0) != '[' || value.charAt(value.length() - 1) != ']') {
+            throw new IllegalStateException("\"" + name + "\" is not given a range like [1.0, 2.0] but " + value);
+        }
+        String[] bounds = value.substring(1, value.length() - 1).split(",", -1);
+        if (bounds.length != 2) {
+            throw new IllegalStateException("\"" + name + "\" is not given a range like [1.0, 2.0] but " + value);
+        }
+
+        String min = bounds[0].trim();
+        String max = bounds[1].trim();
+        VersionRange range;
+
+        if (annotated.isSemantic()) {
+            range = VersionRange.semantic(annotated.isHeaderRequired(),
+                    min.equals(OPEN_END) ? 0 : semanticBound(name, min),
+                    max.equals(OPEN_END) ? Long.MAX_VALUE : semanticBound(name, max));
+        } else {
+            range = new VersionRange(annotated.isHeaderRequired(),
+                    min.equals(OPEN_END) ? ApiVersion.ALL_VERSION_SUPPORTED : floatBound(name, min),
+                    max.equals(OPEN_END) ? ApiVersion.ALL_VERSION_SUPPORTED : floatBound(name, max));
+        }
+
+        if (range.lowerKey() > range.upperKey()) {
+            throw new IllegalStateException("\"" + name + "\" is given a range whose minimum is above its maximum: " + value);
+        }
+        if (range.lowerKey() < annotated.lowerKey() || range.upperKey() > annotated.upperKey()) {
+            throw new IllegalStateException("\"" + name + "\" is given " + value + ", which is wider than its annotated range " + annotated);
+        }
+
+        return range;
+    }
+
+    private static float floatBound(String name, String bound) {
+        float version = VersionParser.parse(bound);
+        // ALL_VERSION_SUPPORTED would read as an open end, so an override cannot bound a range at 0.
+        if (!VersionParser.isValid(version) || version == ApiVersion.ALL_VERSION_SUPPORTED) {
+            throw new IllegalStateException("\"" + name + "\" is given " + bound + ", which is not a positive float version");
+        }
+        return version;
+    }
+
+    private static long semanticBound(String name, String bound) {
+        long version = SemanticVersion.parse(bound);
+        if (!SemanticVersion.isValid(version)) {
+            throw new IllegalStateException("\"" + name + "\" is given " + bound + ", which is not a major.minor[.patch] semantic version");
+        }
+        return version;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+
+    /**
+     * The overrides read from one version of the file, never modified once published.
+     */
+    static final class Snapshot {
+
+        private final Map<Method, VersionRange> ranges;
+
+        private Snapshot(Map<Method, VersionRange> ranges) {
+            this.ranges = ranges;
+        }
+
+        /**
+         * @return the range overriding the annotated range of the method, or null when it is not overridden.
+         */
+        VersionRange rangeOf(Method method) {
+            return ranges.get(method);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.kris.massey;
+
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The {@link ApiVersionTransform}s and {@link ApiVersionRequestTransform}s of a resource method, each kind highest
+ * version first, so the transforms applying to a requested version are the first few and are found by comparing the
+ * version with each until one does not apply.
+ *
+ * The chain of the first n transforms is built once for every n, so selecting the transforms of a request allocates
+ * nothing.
+ */
+final class VersionTransforms {
+
+    private final boolean semantic;
+    private final Ladder responseLadder;
+    private final Ladder requestLadder;
+
+    private VersionTransforms(boolean semantic, Ladder responseLadder, Ladder requestLadder) {
+        this.semantic = semantic;
+        this.responseLadder = responseLadder;
+        this.requestLadder = requestLadder;
+    }
+
+    /**
+     * @param range the range of the method, whose kind of version the transforms must use.
+     * @return the transforms of the method, or null when it has none.
+     * @throws IllegalStateException when a transform is declared invalidly.
+     */
+    static VersionTransforms forMethod(Method method, VersionRange range) {
+        List<Long> responseKeys = new ArrayList<Long>();
+        List<JsonTransform> responseTransforms = new ArrayList<JsonTransform>();
+        List<ApiVersionTransform> responseAnnotations = new ArrayList<ApiVersionTransform>();
+        if (method.isAnnotationPresent(ApiVersionTransform.class)) {
+            responseAnnotations.add(method.getAnnotation(ApiVersionTransform.class));
+        }
+        if (method.isAnnotationPresent(ApiVersionTransform.List.class)) {
+            responseAnnotations.addAll(Arrays.asList(method.getAnnotation(ApiVersionTransform.List.class).value()));
+        }
+        for (ApiVersionTransform annotation : responseAnnotations) {
+            responseKeys.add(belowKey("@ApiVersionTransform", annotation.below(), annotation.belowSemanticVersion(), range, method));
+            responseTransforms.add(new JsonTransform(annotation));
+        }
+
+        List<Long> requestKeys = new ArrayList<Long>();
+        List<JsonTransform> requestTransforms = new ArrayList<JsonTransform>();
+        List<ApiVersionRequestTransform> requestAnnotations = new ArrayList<ApiVersionRequestTransform>();
+        if (method.isAnnotationPresent(ApiVersionRequestTransform.class)) {
+            requestAnnotations.add(method.getAnnotation(ApiVersionRequestTransform.class));
+        }
+        if (method.isAnnotationPresent(ApiVersionRequestTransform.List.class)) {
+            requestAnnotations.addAll(Arrays.asList(method.getAnnotation(ApiVersionRequestTransform.List.class).value()));
+        }
+        for (ApiVersionRequestTransform annotation : requestAnnotations) {
+            requestKeys.add(belowKey("@ApiVersionRequestTransform", annotation.below(), annotation.belowSemanticVersion(), range, method));
+            requestTransforms.add(new JsonTransform(annotation));
+        }
+
+        if (responseKeys.isEmpty() && requestKeys.isEmpty()) {
+            return null;
+        }
+
+        return new VersionTransforms(range.isSemantic(),
+                responseKeys.isEmpty() ? null : Ladder.of(responseKeys, responseTransforms, false),
+                requestKeys.isEmpty() ? null : Ladder.of(requestKeys, requestTransforms, true));
+    }
+
+    private static long belowKey(String annotationName, float below, String belowSemanticVersion, VersionRange range, Method method) {
+        boolean semanticBelow = !belowSemanticVersion.isEmpty();
+
+        if (semanticBelow == (below != ApiVersion.ALL_VERSION_SUPPORTED)) {
+            throw new IllegalStateException(annotationName + " on " + method + " must declare either below or belowSemanticVersion");
+        }
+        if (semanticBelow != range.isSemantic()) {
+            throw new IllegalStateException(annotationName + " on " + method + " must use the kind of version its @ApiVersion range uses");
+        }
+
+        if (!semanticBelow) {
+            return VersionRange.key(below);
+        }
+
+        long version = SemanticVersion.parse(belowSemanticVersion);
+        if (!SemanticVersion.isValid(version)) {
+            throw new IllegalStateException("\"" + belowSemanticVersion + "\" in " + annotationName + " on " + method
+                    + " is not a major.minor[.patch] semantic version");
+        }
+        return version;
+    }
+
+    boolean hasResponseTransforms() {
+        return responseLadder != null;
+    }
+
+    /**
+     * @param requestedVersion a float version, or {@link DefaultApiVersionMatcher#NO_REQUESTED_VERSION}.
+     * @return the chain converting the response down to the version, or null when it needs no conversion.
+     */
+    Chain chainFor(float requestedVersion) {
+        return chainFor(responseLadder, requestedVersion);
+    }
+
+    Chain chainForSemantic(long requestedSemanticVersion) {
+        return chainForSemantic(responseLadder, requestedSemanticVersion);
+    }
+
+    /**
+     * @param requestedVersion a float version, or {@link DefaultApiVersionMatcher#NO_REQUESTED_VERSION}.
+     * @return the chain converting the request entity up from the version, or null when it needs no conversion.
+     */
+    Chain requestChainFor(float requestedVersion) {
+        return chainFor(requestLadder, requestedVersion);
+    }
+
+    Chain requestChainForSemantic(long requestedSemanticVersion) {
+        return chainForSemantic(requestLadder, requestedSemanticVersion);
+    }
+
+    private Chain chainFor(Ladder ladder, float requestedVersion) {
+        return ladder == null || semantic || requestedVersion == DefaultApiVersionMatcher.NO_REQUESTED_VERSION
+                || !VersionParser.isValid(requestedVersion)
+                ? null
+                : ladder.chainFor(VersionRange.key(requestedVersion));
+    }
+
+    private Chain chainForSemantic(Ladder ladder, long requestedSemanticVersion) {
+        return ladder == null || !semantic || !SemanticVersion.isValid(requestedSemanticVersion)
+                ? null
+                : ladder.chainFor(requestedSemanticVersion);
+    }
+
+    private static final class Ladder {
+
+        // The key of the version each transform stops applying at, descending.
+        private final long[] belowKeys;
+        private final Chain[] chains;
+
+        private Ladder(long[] belowKeys, Chain[] chains) {
+            this.belowKeys = belowKeys;
+            this.chains = chains;
+        }
+
+        static Ladder of(final List<Long> keys, List<JsonTransform> transforms, boolean upward) {
+            Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+
+            Arrays.sort(order, Collections.reverseOrder(new Comparator<Integer>() {
+                @Override
+                public int compare(Integer first, Integer second) {
+                    return Long.compare(keys.get(first), keys.get(second));
+                }
+            }));
+
+            long[] sortedKeys = new long[order.length];
+            JsonTransform[] sortedTransforms = new JsonTransform[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedKeys[i] = keys.get(order[i]);
+                sortedTransforms[i] = transforms.get(order[i]);
+            }
+
+            Chain[] chains = new Chain[order.length + 1];
+            for (int i = 1; i < chains.length; i++) {
+                chains[i] = new Chain(Arrays.copyOf(sortedTransforms, i), upward);
+            }
+            return new Ladder(sortedKeys, chains);
+        }
+
+        Chain chainFor(long key) {
+            int applying = 0;
+            while (applying < belowKeys.length && key < belowKeys[applying]) {
+                applying++;
+            }
+            return chains[applying];
+        }
+    }
+
+    static final class Chain {
+
+        // Highest version first.
+        private final JsonTransform[] transforms;
+        private final boolean upward;
+
+        private Chain(JsonTransform[] transforms, boolean upward) {
+            this.transforms = transforms;
+            this.upward = upward;
+        }
+
+        /**
+         * @return a stream writing the JSON written to it converted by every transform of the chain, highest version
+         * first when converting a response down and lowest first when converting a request up.
+         */
+        JsonTransformStream wrap(OutputStream out) {
+            OutputStream wrapped = out;
+            String entity = upward ? "request" : "response";
+            if (upward) {
+                // The highest version's transform writes to the resource, so the lowest one is the first to see the entity.
+                for (JsonTransform transform : transforms) {
+                    wrapped = transform.wrap(wrapped, entity);
+                }
+            } else {
+                // The lowest version's transform writes to the response, so the highest one is the first to see the entity.
+                for (int i = transforms.length - 1; i >= 0; i--) {
+                    wrapped = transforms[i].wrap(wrapped, entity);
+                }
+            }
+            return (JsonTransformStream) wrapped;
+        }
+    }
+}
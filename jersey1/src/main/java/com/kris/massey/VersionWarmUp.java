@@ -0,0 +1,146 @@
+package com.kris.massey;
+
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.WebApplication;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Sends synthetic in-memory requests through every version filter a factory has created, an accepted version, a version
+ * out of range, no version and a malformed version for each, so the filters, the matcher and the rejections are loaded
+ * and compiled before the first real request arrives.
+ *
+ * The JIT gives no notice when the code it is compiling is done, so requests are sent until the JVM's total compilation
+ * time stops growing for two checks in a row, or at most until the time allowed runs out. Without compilation time
+ * monitoring, the minimum number of requests is sent.
+ *
+ * Each request carries a property, named by the factory, that its filters recognize so the synthetic requests leave the
+ * statistics, the client version tracker, admission control and the response cache alone.
+ */
+final class VersionWarmUp {
+
+    // The filter code is shared by every filter, so with one of the four kinds of request in each, it is run above the
+    // invocation count at which the server compiler compiles a method.
+    private static final long MIN_REQUESTS = 40000;
+    private static final long REQUESTS_PER_CHECK = 10000;
+    private static final String MALFORMED_VERSION = "warm-up";
+
+    private final List<Target> targets = new CopyOnWriteArrayList<Target>();
+
+    void register(ContainerRequestFilter filter, VersionRange range) {
+        targets.add(new Target(filter, range));
+    }
+
+    int size() {
+        return targets.size();
+    }
+
+    /**
+     * @param versionHeaderName the header the versions are sent in.
+     * @param warmUpProperty the request property marking the requests as synthetic.
+     * @return the number of requests sent.
+     */
+    long run(String versionHeaderName, String warmUpProperty, long timeoutNanos) {
+        WebApplication application = WebApplicationFactory.createWebApplication();
+        URI baseUri = URI.create("http://localhost/");
+        List<Request> requests = new ArrayList<Request>();
+        for (Target target : targets) {
+            requests.add(new Request(target.filter, target.acceptedVersion));
+            requests.add(new Request(target.filter, null));
+            requests.add(new Request(target.filter, MALFORMED_VERSION));
+            if (target.rejectedVersion != null) {
+                requests.add(new Request(target.filter, target.rejectedVersion));
+            }
+        }
+
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        boolean monitored = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+        long deadline = System.nanoTime() + timeoutNanos;
+        long lastCompilationTime = -1;
+        int quietChecks = 0;
+        long sent = 0;
+        long nextCheck = REQUESTS_PER_CHECK;
+
+        while (!requests.isEmpty() && System.nanoTime() < deadline) {
+            for (Request request : requests) {
+                send(application, baseUri, versionHeaderName, warmUpProperty, request);
+            }
+            sent += requests.size();
+
+            if (sent >= nextCheck) {
+                nextCheck = sent + REQUESTS_PER_CHECK;
+                long compilationTime = monitored ? compilation.getTotalCompilationTime() : 0;
+                quietChecks = compilationTime == lastCompilationTime ? quietChecks + 1 : 0;
+                lastCompilationTime = compilationTime;
+                if (sent >= MIN_REQUESTS && (!monitored || quietChecks >= 2)) {
+                    break;
+                }
+            }
+        }
+
+        return sent;
+    }
+
+    private static void send(WebApplication application, URI baseUri, String versionHeaderName, String warmUpProperty, Request request) {
+        InBoundHeaders headers = new InBoundHeaders();
+        if (request.version != null) {
+            headers.putSingle(versionHeaderName, request.version);
+        }
+
+        ContainerRequest containerRequest = new ContainerRequest(application, "GET", baseUri, baseUri.resolve("warm-up"), headers,
+                new ByteArrayInputStream(new byte[0]));
+        containerRequest.getProperties().put(warmUpProperty, Boolean.TRUE);
+        try {
+            request.filter.filter(containerRequest);
+        } catch (RuntimeException e) {
+            // Rejections are the responses of the requests sent to exercise them.
+        }
+    }
+
+    private static final class Target {
+
+        private final ContainerRequestFilter filter;
+        private final String acceptedVersion;
+        // Null when the range holds every version.
+        private final String rejectedVersion;
+
+        private Target(ContainerRequestFilter filter, VersionRange range) {
+            this.filter = filter;
+            if (range.isSemantic()) {
+                this.acceptedVersion = range.minSemanticVersion() != null ? range.minSemanticVersion()
+                        : range.maxSemanticVersion() != null ? range.maxSemanticVersion() : "1.0.0";
+                long rejected = range.upperKey() != Long.MAX_VALUE ? range.upperKey() + 1
+                        : range.lowerKey() > 0 ? range.lowerKey() - 1 : SemanticVersion.INVALID_VERSION;
+                this.rejectedVersion = SemanticVersion.isValid(rejected) ? SemanticVersion.toString(rejected) : null;
+            } else {
+                float min = range.getMinVersion();
+                float max = range.getMaxVersion();
+                this.acceptedVersion = String.valueOf(min != ApiVersion.ALL_VERSION_SUPPORTED ? min
+                        : max != ApiVersion.ALL_VERSION_SUPPORTED ? max : 1);
+                float rejected = max != ApiVersion.ALL_VERSION_SUPPORTED ? max + 1
+                        : min != ApiVersion.ALL_VERSION_SUPPORTED ? min / 2 : VersionParser.INVALID_VERSION;
+                this.rejectedVersion = VersionParser.isValid(VersionParser.parse(String.valueOf(rejected))) ? String.valueOf(rejected) : null;
+            }
+        }
+    }
+
+    private static final class Request {
+
+        private final ContainerRequestFilter filter;
+        private final String version;
+
+        private Request(ContainerRequestFilter filter, String version) {
+            this.filter = filter;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+package com.kris.massey;
+
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerResponse;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the GET responses of versioned resource methods, for {@link ApiVersionResourceFilterFactory#setResponseCache}.
+ *
+ * Entries are keyed by the resource method the version was resolved to and the path and query of the request, not by
+ * the version as sent, so "2", "2.0" and "2.5" share an entry when they are served by the same method. A method that can
+ * produce more than one media type is also keyed by the Accept header. Only 200 responses whose Cache-Control allows a
+ * shared cache to keep them for a max-age or s-maxage are stored, for that long. A response whose Vary header names any
+ * header but the version header, and Accept for a method keyed by it, is not stored, as it would be replayed to requests
+ * it was not chosen for. Responses to requests with an Authorization header are only stored with an s-maxage.
+ *
+ * Entries are spread over up to 16 stripes by key, each with its own lock and its own share of the entries, so concurrent
+ * lookups of different keys rarely wait on each other. The least recently used entry of a stripe is evicted when it is
+ * full, which is the least recently used entry of the cache for small caches, which have one stripe, and close to it for
+ * large ones.
+ *
+ * Stored responses get a weak ETag, unless the resource set one, and a request whose If-None-Match holds it is answered
+ * with 304 Not Modified. Entities are replayed as the resource method returned them, so they must not be modified once
+ * returned, and streamed entities are never stored.
+ */
+public final class VersionedResponseCache {
+
+    private static final String AUTHORIZATION_LOOKUP_NAME = "authorization";
+    private static final String CACHE_CONTROL_LOOKUP_NAME = "cache-control";
+    private static final String PRAGMA_LOOKUP_NAME = "pragma";
+    private static final String IF_NONE_MATCH_LOOKUP_NAME = "if-none-match";
+    private static final String ACCEPT_LOOKUP_NAME = "accept";
+    private static final String AGE = "Age";
+    private static final int MAX_STRIPES = 16;
+    // Below this many entries a stripe is not split further, so small caches keep exact least recently used order.
+    private static final int MIN_STRIPE_ENTRIES = 64;
+    private static final String NO_CACHE = "no-cache";
+    // The headers a 304 Not Modified repeats from the response it stands for.
+    private static final String[] NOT_MODIFIED_HEADERS = {HttpHeaders.ETAG, HttpHeaders.VARY, HttpHeaders.CACHE_CONTROL, HttpHeaders.EXPIRES};
+
+    private final int maxEntries;
+    private final Map<Key, Entry>[] stripes;
+    // ETags are numbered from a random prefix, so a restarted cache does not reuse the tags of the one before it.
+    private final String etagPrefix = Long.toHexString(new SecureRandom().nextLong());
+    private final AtomicLong etagSequence = new AtomicLong();
+
+    /**
+     * @param maxEntries the number of responses kept, beyond which the least recently used is evicted.
+     */
+    public VersionedResponseCache(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("A response cache needs room for at least one entry, not " + maxEntries);
+        }
+
+        this.maxEntries = maxEntries;
+        int stripeCount = 1;
+        while (stripeCount < MAX_STRIPES && maxEntries / (stripeCount * 2) >= MIN_STRIPE_ENTRIES) {
+            stripeCount *= 2;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Map<Key, Entry>[] stripes = new Map[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = stripe(maxEntries / stripeCount + (i < maxEntries % stripeCount ? 1 : 0));
+        }
+        this.stripes = stripes;
+    }
+
+    private static Map<Key, Entry> stripe(final int stripeEntries) {
+        return new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > stripeEntries;
+            }
+        };
+    }
+
+    private Map<Key, Entry> stripeOf(Key key) {
+        int hash = key.hash ^ (key.hash >>> 16);
+        return stripes[hash & (stripes.length - 1)];
+    }
+
+    public int size() {
+        int size = 0;
+        for (Map<Key, Entry> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Drops every response, for example when the data they were built from has changed.
+     */
+    public void clear() {
+        for (Map<Key, Entry> stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    /**
+     * @param method the resource method, or {@link ApiVersionAlternative}, the requested version was resolved to.
+     * @param variesByAccept whether the method can produce more than one media type.
+     */
+    static Key key(Method method, ContainerRequest request, boolean variesByAccept) {
+        URI uri = request.getRequestUri();
+        return new Key(method, uri.getRawPath(), uri.getRawQuery(), variesByAccept,
+                variesByAccept ? request.getHeaderValue(ACCEPT_LOOKUP_NAME) : null);
+    }
+
+    /**
+     * @return an exception carrying the stored response, or 304 Not Modified when the request already holds it, to be
+     * thrown from a request filter, or null when nothing usable is stored.
+     */
+    WebApplicationException cachedResponse(Key key, ContainerRequest request) {
+        if (forcesRevalidation(request)) {
+            return null;
+        }
+
+        long now = System.nanoTime();
+        Map<Key, Entry> stripe = stripeOf(key);
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.get(key);
+            if (entry != null && now - entry.expiresAt >= 0) {
+                stripe.remove(key);
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            return null;
+        }
+
+        Response.ResponseBuilder builder;
+        if (matches(request.getHeaderValue(IF_NONE_MATCH_LOOKUP_NAME), entry.etag)) {
+            builder = Response.notModified();
+            for (String name : NOT_MODIFIED_HEADERS) {
+                addHeader(builder, name, entry.headers.get(name));
+            }
+        } else {
+            builder = Response.ok(entry.entity);
+            for (Map.Entry<String, List<Object>> header : entry.headers.entrySet()) {
+                addHeader(builder, header.getKey(), header.getValue());
+            }
+        }
+
+        builder.header(AGE, TimeUnit.NANOSECONDS.toSeconds(now - entry.storedAt));
+        return new CachedResponseException(builder.build());
+    }
+
+    private static void addHeader(Response.ResponseBuilder builder, String name, List<Object> values) {
+        if (values != null) {
+            for (Object value : values) {
+                builder.header(name, value);
+            }
+        }
+    }
+
+    /**
+     * Stores the response when it may be cached, giving it an ETag when it has none.
+     *
+     * @param versionHeaderLookupName the lower case name of the version header, which the response may vary by.
+     */
+    void store(Key key, String versionHeaderLookupName, ContainerRequest request, ContainerResponse response) {
+        Object entity = response.getEntity();
+        if (response.getStatus() != Response.Status.OK.getStatusCode() || entity == null || isStreamed(entity)) {
+            return;
+        }
+
+        MultivaluedMap<String, Object> headers = response.getHttpHeaders();
+        Object cacheControlHeader = headers.getFirst(HttpHeaders.CACHE_CONTROL);
+        if (cacheControlHeader == null || headers.containsKey(HttpHeaders.SET_COOKIE)
+                || !variesOnlyByTheKey(headers.get(HttpHeaders.VARY), versionHeaderLookupName, key.variesByAccept)) {
+            return;
+        }
+
+        CacheControl cacheControl = cacheControlHeader instanceof CacheControl
+                ? (CacheControl) cacheControlHeader
+                : CacheControl.valueOf(cacheControlHeader.toString());
+        if (cacheControl.isPrivate() || cacheControl.isNoStore() || cacheControl.isNoCache()) {
+            return;
+        }
+
+        boolean authorized = request.getHeaderValue(AUTHORIZATION_LOOKUP_NAME) != null;
+        int maxAge = cacheControl.getSMaxAge() >= 0 ? cacheControl.getSMaxAge() : authorized ? -1 : cacheControl.getMaxAge();
+        if (maxAge <= 0) {
+            return;
+        }
+
+        Object etagHeader = headers.getFirst(HttpHeaders.ETAG);
+        if (etagHeader == null) {
+            etagHeader = new EntityTag(etagPrefix + "-" + Long.toHexString(etagSequence.incrementAndGet()), true);
+            headers.putSingle(HttpHeaders.ETAG, etagHeader);
+        }
+
+        Map<String, List<Object>> storedHeaders = new LinkedHashMap<String, List<Object>>();
+        for (Map.Entry<String, List<Object>> header : headers.entrySet()) {
+            storedHeaders.put(header.getKey(), new ArrayList<Object>(header.getValue()));
+        }
+
+        Type entityType = response.getEntityType();
+        Object storedEntity = entityType instanceof ParameterizedType ? new GenericEntity<Object>(entity, entityType) : entity;
+        long now = System.nanoTime();
+        Entry entry = new Entry(storedEntity, storedHeaders, opaqueTag(etagHeader), now, now + TimeUnit.SECONDS.toNanos(maxAge));
+
+        Map<Key, Entry> stripe = stripeOf(key);
+        synchronized (stripe) {
+            stripe.put(key, entry);
+        }
+    }
+
+    /**
+     * @return whether every header the response varies by is one the key already holds.
+     */
+    private static boolean variesOnlyByTheKey(List<Object> vary, String versionHeaderLookupName, boolean variesByAccept) {
+        if (vary == null) {
+            return true;
+        }
+
+        for (Object value : vary) {
+            for (String name : value.toString().split(",")) {
+                String lookupName = name.trim().toLowerCase(Locale.ENGLISH);
+                // "*", varying by anything, is never keyed.
+                boolean keyed = lookupName.isEmpty() || lookupName.equals(versionHeaderLookupName)
+                        || (variesByAccept && lookupName.equals(ACCEPT_LOOKUP_NAME));
+                if (!keyed) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isStreamed(Object entity) {
+        return entity instanceof InputStream || entity instanceof Reader || entity instanceof StreamingOutput;
+    }
+
+    private static boolean forcesRevalidation(ContainerRequest request) {
+        String cacheControl = request.getHeaderValue(CACHE_CONTROL_LOOKUP_NAME);
+        String pragma = request.getHeaderValue(PRAGMA_LOOKUP_NAME);
+        return (cacheControl != null && cacheControl.contains(NO_CACHE)) || (pragma != null && pragma.contains(NO_CACHE));
+    }
+
+    /**
+     * @return the tag without its quotes or weak indicator, as If-None-Match compares tags weakly.
+     */
+    private static String opaqueTag(Object etagHeader) {
+        if (etagHeader instanceof EntityTag) {
+            return ((EntityTag) etagHeader).getValue();
+        }
+
+        return unquote(etagHeader.toString().trim());
+    }
+
+    private static String unquote(String tag) {
+        String opaque = tag.startsWith("W/") ? tag.substring(2) : tag;
+        return opaque.length() >= 2 && opaque.charAt(0) == '"' && opaque.charAt(opaque.length() - 1) == '"'
+                ? opaque.substring(1, opaque.length() - 1)
+                : opaque;
+    }
+
+    static boolean matches(String ifNoneMatch, String opaqueTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || unquote(trimmed).equals(opaqueTag)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    static final class Key {
+
+        private final Method method;
+        private final String path;
+        private final String query;
+        private final String accept;
+        // Decided by the method, so it is not compared.
+        private final boolean variesByAccept;
+        private final int hash;
+
+        private Key(Method method, String path, String query, boolean variesByAccept, String accept) {
+            this.method = method;
+            this.path = path;
+            this.query = query;
+            this.variesByAccept = variesByAccept;
+            this.accept = accept;
+
+            int hash = method.hashCode();
+            hash = 31 * hash + path.hashCode();
+            hash = 31 * hash + (query == null ? 0 : query.hashCode());
+            this.hash = 31 * hash + (accept == null ? 0 : accept.hashCode());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) o;
+            return hash == other.hash
+                    && method.equals(other.method)
+                    && path.equals(other.path)
+                    && (query == null ? other.query == null : query.equals(other.query))
+                    && (accept == null ? other.accept == null : accept.equals(other.accept));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object entity;
+        private final Map<String, List<Object>> headers;
+        private final String etag;
+        private final long storedAt;
+        private final long expiresAt;
+
+        private Entry(Object entity, Map<String, List<Object>> headers, String etag, long storedAt, long expiresAt) {
+            this.entity = entity;
+            this.headers = headers;
+            this.etag = etag;
+            this.storedAt = storedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static class CachedResponseException extends WebApplicationException {
+
+        private static final long serialVersionUID = 1L;
+
+        private CachedResponseException(Response response) {
+            super(response);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
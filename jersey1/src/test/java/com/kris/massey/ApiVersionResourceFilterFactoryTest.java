@@ -7,6 +7,7 @@ import com.sun.jersey.test.framework.JerseyTest;
 import com.sun.jersey.test.framework.WebAppDescriptor;
 import org.junit.Test;
 
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 
 import static org.hamcrest.CoreMatchers.containsString;
@@ -259,4 +260,91 @@ public class ApiVersionResourceFilterFactoryTest extends JerseyTest {
         assertThat(responseBody, containsString("\"maxVersion\":3"));
     }
 
+    @Test
+    public void badRequestIsSentAsJson() {
+        WebResource webResource = resource();
+
+        ClientResponse response = webResource
+                .path("/required/noMinOrMax")
+                .get(ClientResponse.class);
+
+        assertThat(response.getType(), is(MediaType.APPLICATION_JSON_TYPE));
+    }
+
+    @Test
+    public void repeatedBadRequestsCarryTheSameBody() {
+        WebResource webResource = resource();
+
+        ClientResponse firstResponse = webResource
+                .path("/notRequired/min/two/max/three")
+                .header(VERSION_HEADER_NAME, 1)
+                .get(ClientResponse.class);
+
+        ClientResponse secondResponse = webResource
+                .path("/notRequired/min/two/max/three")
+                .header(VERSION_HEADER_NAME, 4)
+                .get(ClientResponse.class);
+
+        assertThat(secondResponse.getEntity(String.class), equalTo(firstResponse.getEntity(String.class)));
+    }
+
+    @Test
+    public void classRangeAppliesToMethodsWithoutTheirOwnAnnotation() {
+        WebResource webResource = resource();
+
+        ClientResponse accepted = webResource
+                .path("/classVersioned/classRange")
+                .header(VERSION_HEADER_NAME, 4)
+                .get(ClientResponse.class);
+
+        ClientResponse rejected = webResource
+                .path("/classVersioned/classRange")
+                .header(VERSION_HEADER_NAME, 5)
+                .get(ClientResponse.class);
+
+        assertThat(accepted.getStatus(), is(Response.Status.NO_CONTENT.getStatusCode()));
+        assertThat(rejected.getStatus(), is(Response.Status.BAD_REQUEST.getStatusCode()));
+    }
+
+    @Test
+    public void methodAnnotationNarrowsClassRange() {
+        WebResource webResource = resource();
+
+        ClientResponse response = webResource
+                .path("/classVersioned/narrowed")
+                .header(VERSION_HEADER_NAME, 2.5)
+                .get(ClientResponse.class);
+
+        assertThat(response.getStatus(), is(Response.Status.BAD_REQUEST.getStatusCode()));
+        String responseBody = response.getEntity(String.class);
+        assertThat(responseBody, containsString("\"minVersion\":3"));
+        assertThat(responseBody, containsString("\"maxVersion\":4"));
+    }
+
+    @Test
+    public void semanticVersionsCompareMinorVersionsAsNumbers() {
+        WebResource webResource = resource();
+
+        ClientResponse response = webResource
+                .path("/semantic")
+                .header(VERSION_HEADER_NAME, "2.10")
+                .get(ClientResponse.class);
+
+        assertThat(response.getStatus(), is(Response.Status.NO_CONTENT.getStatusCode()));
+    }
+
+    @Test
+    public void semanticVersionAbovePatchLimitIsRejectedWithSemanticRange() {
+        WebResource webResource = resource();
+
+        ClientResponse response = webResource
+                .path("/semantic")
+                .header(VERSION_HEADER_NAME, "2.10.6")
+                .get(ClientResponse.class);
+
+        assertThat(response.getStatus(), is(Response.Status.BAD_REQUEST.getStatusCode()));
+        String responseBody = response.getEntity(String.class);
+        assertThat(responseBody, containsString("\"minVersion\":\"2.9.0\""));
+        assertThat(responseBody, containsString("\"maxVersion\":\"2.10.5\""));
+    }
 }
@@ -0,0 +1,106 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.core.PackagesResourceConfig;
+import com.sun.jersey.test.framework.JerseyTest;
+import com.sun.jersey.test.framework.WebAppDescriptor;
+import org.junit.Test;
+
+import javax.ws.rs.core.Response;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ApiVersionRoutingTest extends JerseyTest {
+
+    private static final String VERSION_HEADER_NAME = "Version";
+
+    public ApiVersionRoutingTest() throws Exception {
+        super(new WebAppDescriptor.Builder()
+                .initParam(PackagesResourceConfig.PROPERTY_PACKAGES, "com.kris.massey")
+                .initParam(PackagesResourceConfig.PROPERTY_RESOURCE_FILTER_FACTORIES, "com.kris.massey.ApiVersionResourceFilterFactory")
+                .build());
+    }
+
+    @Test
+    public void versionWithinResourceMethodRangeIsServedByResourceMethod() {
+        ClientResponse response = resource()
+                .path("/routed")
+                .header(VERSION_HEADER_NAME, 2)
+                .get(ClientResponse.class);
+
+        assertThat(response.getEntity(String.class), equalTo("current"));
+    }
+
+    @Test
+    public void versionWithinAlternativeRangeIsServedByAlternative() {
+        ClientResponse response = resource()
+                .path("/routed")
+                .header(VERSION_HEADER_NAME, 1.5)
+                .get(ClientResponse.class);
+
+        assertThat(response.getEntity(String.class), equalTo("legacy"));
+    }
+
+    @Test
+    public void versionBetweenRangesIsRejected() {
+        ClientResponse response = resource()
+                .path("/routed")
+                .header(VERSION_HEADER_NAME, 1.8)
+                .get(ClientResponse.class);
+
+        assertThat(response.getStatus(), is(Response.Status.BAD_REQUEST.getStatusCode()));
+    }
+
+    @Test
+    public void rejectionDescribesAllRoutedVersions() {
+        ClientResponse response = resource()
+                .path("/routed")
+                .header(VERSION_HEADER_NAME, 0.5)
+                .get(ClientResponse.class);
+
+        String responseBody = response.getEntity(String.class);
+        assertThat(responseBody, containsString("\"minVersion\":1.0"));
+        assertThat(responseBody, containsString("\"maxVersion\":\"no maximum version\""));
+    }
+
+    @Test
+    public void malformedVersionIsRejected() {
+        ClientResponse response = resource()
+                .path("/routed")
+                .header(VERSION_HEADER_NAME, "INVALID")
+                .get(ClientResponse.class);
+
+        assertThat(response.getStatus(), is(Response.Status.BAD_REQUEST.getStatusCode()));
+    }
+
+    @Test
+    public void missingRequiredVersionIsRejected() {
+        ClientResponse response = resource()
+                .path("/routed")
+                .get(ClientResponse.class);
+
+        assertThat(response.getStatus(), is(Response.Status.BAD_REQUEST.getStatusCode()));
+    }
+
+    @Test
+    public void missingOptionalVersionIsServedByResourceMethod() {
+        ClientResponse response = resource()
+                .path("/routed/widget")
+                .get(ClientResponse.class);
+
+        assertThat(response.getEntity(String.class), equalTo("current widget"));
+    }
+
+    @Test
+    public void alternativeReceivesResourceMethodParameters() {
+        ClientResponse response = resource()
+                .path("/routed/widget")
+                .header(VERSION_HEADER_NAME, 1)
+                .get(ClientResponse.class);
+
+        assertThat(response.getEntity(String.class), equalTo("legacy widget"));
+    }
+}
@@ -0,0 +1,239 @@
+package com.kris.massey;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Method;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ApiVersionServletFilterTest {
+
+    private final ByteArrayOutputStream responseBody = new ByteArrayOutputStream();
+
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private FilterChain chain;
+    @Mock
+    private FilterConfig filterConfig;
+
+    private ApiVersionServletFilter filter;
+
+    @Before
+    public void setUp() throws Exception {
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                responseBody.write(b);
+            }
+        });
+        when(filterConfig.getInitParameter(ApiVersionServletFilter.RESOURCE_CLASSES_PARAMETER)).thenReturn(
+                TestResource.class.getName() + ", " + ClassVersionedTestResource.class.getName() + "\n" + LocatorResource.class.getName());
+
+        filter = new ApiVersionServletFilter();
+        filter.init(filterConfig);
+    }
+
+    @Test
+    public void supportedVersionIsPassedOn() throws Exception {
+        get("/required/min/two/max/three", "2.5");
+
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    public void unsupportedVersionIsRejectedWithTheFactoryBody() throws Exception {
+        get("/required/min/two/max/three", "4");
+
+        verify(chain, never()).doFilter(request, response);
+        verify(response).setStatus(400);
+        verify(response).setContentType("application/json");
+        assertThat(responseBody.toString("UTF-8"), is(new String(factoryRejectionBody(), "UTF-8")));
+    }
+
+    @Test
+    public void missingAndMalformedVersionsAreRejectedAsByTheFactory() throws Exception {
+        get("/required/min/two/max/three", null);
+        get("/required/min/two/max/three", "two");
+        get("/notRequired/minAndMaxSet", null);
+
+        verify(chain).doFilter(request, response);
+        verify(response, times(2)).setStatus(400);
+    }
+
+    @Test
+    public void classRangeAppliesToItsMethods() throws Exception {
+        get("/classVersioned/classRange", "5");
+        get("/classVersioned/narrowed/", "2.5");
+
+        verify(chain, never()).doFilter(request, response);
+    }
+
+    @Test
+    public void routedMethodAcceptsTheVersionsOfItsAlternatives() throws Exception {
+        get("/routed", "1.2");
+        get("/routed/widget", "1");
+
+        verify(chain, times(2)).doFilter(request, response);
+    }
+
+    @Test
+    public void templateVariablesMatchOneSegment() throws Exception {
+        get("/servletFilter/versioned/42", "9");
+        verify(response).setStatus(400);
+
+        get("/servletFilter/versioned/42/more", "9");
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    public void templateVariablesMayDeclareARegex() throws Exception {
+        request("POST", "/servletFilter/versioned/42/items", "9");
+        verify(response).setStatus(400);
+
+        request("POST", "/servletFilter/versioned/abc/items", "9");
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    public void literalUnversionedMethodWinsOverVersionedTemplate() throws Exception {
+        get("/servletFilter/versioned/unversioned", "9");
+
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    public void pathsBelowLocatorsAndUnknownPathsArePassedOn() throws Exception {
+        get("/servletFilter/locator/anything", "9");
+        get("/unknown", "9");
+
+        verify(chain, times(2)).doFilter(request, response);
+    }
+
+    @Test
+    public void otherHttpMethodsArePassedOnButHeadFallsBackToGet() throws Exception {
+        request("POST", "/required/min/two/max/three", "9");
+        verify(chain).doFilter(request, response);
+
+        request("HEAD", "/required/min/two/max/three", "9");
+        verify(response).setStatus(400);
+    }
+
+    @Test
+    public void servletPathIsUsedWhenThereIsNoPathInfo() throws Exception {
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getServletPath()).thenReturn("/required/min/two/max/three");
+        when(request.getHeader("Version")).thenReturn("9");
+
+        filter.doFilter(request, response, chain);
+
+        verify(response).setStatus(400);
+    }
+
+    @Test(expected = ServletException.class)
+    public void resourceClassesMustBeConfigured() throws Exception {
+        new ApiVersionServletFilter().init(mock(FilterConfig.class));
+    }
+
+    @Test
+    public void filterCanBeCreatedInCode() throws Exception {
+        ApiVersionServletFilter codeFilter = new ApiVersionServletFilter("Api-Version", TestResource.class);
+        codeFilter.init(filterConfig);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getPathInfo()).thenReturn("/required/min/two/max/three");
+        when(request.getHeader("Api-Version")).thenReturn("9");
+
+        codeFilter.doFilter(request, response, chain);
+
+        verify(response).setStatus(400);
+    }
+
+    @Test
+    public void filterCreatedFromAFactoryReadsItsVersionHeader() throws Exception {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory(new DefaultApiVersionMatcher("api-version"), "Api-Version");
+        ApiVersionServletFilter codeFilter = new ApiVersionServletFilter(factory, TestResource.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getPathInfo()).thenReturn("/required/min/two/max/three");
+        when(request.getHeader("Api-Version")).thenReturn("9");
+
+        codeFilter.doFilter(request, response, chain);
+
+        verify(response).setStatus(400);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void factoriesUsingExtractorsAreRefused() {
+        new ApiVersionServletFilter(new ApiVersionResourceFilterFactory("Version", VersionExtractors.queryParameter("version")), TestResource.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void factoriesUsingTheMediaTypeMatcherAreRefused() {
+        new ApiVersionServletFilter(new ApiVersionResourceFilterFactory(new MediaTypeVersionMatcher(), "Version"), TestResource.class);
+    }
+
+    private void get(String path, String version) throws Exception {
+        request("GET", path, version);
+    }
+
+    private void request(String httpMethod, String path, String version) throws Exception {
+        when(request.getMethod()).thenReturn(httpMethod);
+        when(request.getPathInfo()).thenReturn(path);
+        when(request.getHeader("Version")).thenReturn(version);
+
+        filter.doFilter(request, response, chain);
+    }
+
+    private static byte[] factoryRejectionBody() throws NoSuchMethodException {
+        Method method = TestResource.class.getMethod("requiredMinTwoMaxThree");
+        return new VersionRejection("Version", VersionRange.forMethod(TestResource.class, method)).body();
+    }
+
+    @Path("/servletFilter")
+    public static class LocatorResource {
+
+        @GET
+        @ApiVersion(minVersion = 1, maxVersion = 2)
+        @Path("/versioned/{id}")
+        public void versioned() {
+        }
+
+        @GET
+        @Path("/versioned/unversioned")
+        public void unversioned() {
+        }
+
+        @POST
+        @ApiVersion(minVersion = 1, maxVersion = 2)
+        @Path("/versioned/{id: [0-9]+}/items")
+        public void upload() {
+        }
+
+        @Path("/locator")
+        public Object locator() {
+            return null;
+        }
+    }
+}
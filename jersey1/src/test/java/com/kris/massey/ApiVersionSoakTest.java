@@ -0,0 +1,264 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.container.grizzly2.GrizzlyServerFactory;
+import com.sun.jersey.api.core.DefaultResourceConfig;
+import com.sun.jersey.api.core.ResourceConfig;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Serves {@link TestResource} from Grizzly with and without {@link ApiVersionResourceFilterFactory} and drives both with
+ * concurrent local clients after a warm-up, then logs the throughput and latency percentiles of each and warns when the
+ * filter costs more throughput than allowed. Throughput on a shared machine varies from run to run, so the overhead is
+ * advisory and the test only fails when requests fail without a response.
+ *
+ * Two mixes are sent: accepted versions only, which measures the cost of the filter itself, and a realistic mix of
+ * valid, missing, out of range and malformed versions. Grizzly closes the connection after a 400 Bad Request, so in the
+ * realistic mix every rejection also costs the client a new connection, and it is allowed a higher overhead.
+ *
+ * It runs for about a minute and only with the soak profile, {@code mvn test -Psoak}, configured by the system properties
+ * {@code soak.clients}, {@code soak.warmupSeconds}, {@code soak.seconds}, {@code soak.maxOverheadPercent} and
+ * {@code soak.maxMixedOverheadPercent}.
+ */
+public class ApiVersionSoakTest {
+
+    private static final Logger LOGGER = Logger.getLogger(ApiVersionSoakTest.class.getName());
+
+    private static final int CLIENTS = Integer.getInteger("soak.clients", 32);
+    private static final int WARMUP_SECONDS = Integer.getInteger("soak.warmupSeconds", 5);
+    private static final int SECONDS = Integer.getInteger("soak.seconds", 10);
+    private static final double MAX_OVERHEAD_PERCENT = Double.parseDouble(System.getProperty("soak.maxOverheadPercent", "20"));
+    private static final double MAX_MIXED_OVERHEAD_PERCENT = Double.parseDouble(System.getProperty("soak.maxMixedOverheadPercent", "50"));
+
+    private static final String VERSION_HEADER_NAME = "Version";
+
+    // Requests in proportion to how often they are sent.
+    private static final String[][] ACCEPTED = {
+            {"/required/min/two/max/three", "2.5", "40"},
+            {"/routed", "1.2", "10"},
+            {"/routed/widget", "2", "10"},
+            {"/semantic", "2.10.1", "10"},
+    };
+
+    // Mostly accepted versions, and some of each kind of rejection.
+    private static final String[][] MIXED = {
+            {"/required/min/two/max/three", "2.5", "40"},
+            {"/routed", "1.2", "10"},
+            {"/routed/widget", "2", "10"},
+            {"/semantic", "2.10.1", "10"},
+            {"/required/min/two/max/three", null, "10"},
+            {"/required/min/two/max/three", "4", "10"},
+            {"/required/min/two/max/three", "two.five", "10"},
+    };
+
+    @Test
+    public void requestsAreServedUnderLoad() throws Exception {
+        ResourceConfig baselineConfig = new DefaultResourceConfig(TestResource.class);
+
+        ResourceConfig versionedConfig = new DefaultResourceConfig(TestResource.class, ApiVersionRoutingDispatchAdapter.class);
+        versionedConfig.getProperties().put(ResourceConfig.PROPERTY_RESOURCE_FILTER_FACTORIES,
+                Collections.singletonList(new ApiVersionResourceFilterFactory()));
+
+        Result[] baseline = new Result[2];
+        Result[] versioned = new Result[2];
+        HttpServer baselineServer = GrizzlyServerFactory.createHttpServer(URI.create("http://localhost:" + freePort() + "/"), baselineConfig);
+        HttpServer versionedServer = GrizzlyServerFactory.createHttpServer(URI.create("http://localhost:" + freePort() + "/"), versionedConfig);
+        try {
+            String baselineUri = "http://localhost:" + baselineServer.getListeners().iterator().next().getPort();
+            String versionedUri = "http://localhost:" + versionedServer.getListeners().iterator().next().getPort();
+
+            run(baselineUri, MIXED, WARMUP_SECONDS);
+            run(versionedUri, MIXED, WARMUP_SECONDS);
+
+            baseline[0] = run(baselineUri, ACCEPTED, SECONDS);
+            versioned[0] = run(versionedUri, ACCEPTED, SECONDS);
+            baseline[1] = run(baselineUri, MIXED, SECONDS);
+            versioned[1] = run(versionedUri, MIXED, SECONDS);
+        } finally {
+            baselineServer.stop();
+            versionedServer.stop();
+        }
+
+        double overheadPercent = baseline[0].overheadPercentOf(versioned[0]);
+        double mixedOverheadPercent = baseline[1].overheadPercentOf(versioned[1]);
+
+        String newLine = System.getProperty("line.separator");
+        LOGGER.info(String.format(Locale.ENGLISH, "Soak test with %d clients for %d seconds per run", CLIENTS, SECONDS) + newLine
+                + String.format(Locale.ENGLISH, "%-20s %12s %10s %10s %10s %8s", "", "requests/s", "p50 us", "p99 us", "p999 us", "errors") + newLine
+                + baseline[0].format("accepted, no filter") + newLine
+                + versioned[0].format("accepted, filter") + newLine
+                + baseline[1].format("mixed, no filter") + newLine
+                + versioned[1].format("mixed, filter") + newLine
+                + String.format(Locale.ENGLISH, "Throughput overhead %.1f%% accepted (allowed %.1f%%), %.1f%% mixed (allowed %.1f%%)",
+                        overheadPercent, MAX_OVERHEAD_PERCENT, mixedOverheadPercent, MAX_MIXED_OVERHEAD_PERCENT));
+
+        if (overheadPercent > MAX_OVERHEAD_PERCENT) {
+            LOGGER.warning(String.format(Locale.ENGLISH, "The filter cost %.1f%% of the throughput of accepted requests, more than the %.1f%% allowed",
+                    overheadPercent, MAX_OVERHEAD_PERCENT));
+        }
+        if (mixedOverheadPercent > MAX_MIXED_OVERHEAD_PERCENT) {
+            LOGGER.warning(String.format(Locale.ENGLISH, "The filter cost %.1f%% of the throughput of mixed requests, more than the %.1f%% allowed",
+                    mixedOverheadPercent, MAX_MIXED_OVERHEAD_PERCENT));
+        }
+
+        for (Result result : new Result[]{baseline[0], versioned[0], baseline[1], versioned[1]}) {
+            assertThat("requests failed without a response", result.errors, is(0L));
+        }
+    }
+
+    private static int freePort() throws IOException {
+        ServerSocket socket = new ServerSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static Result run(final String baseUri, final String[][] mix, int seconds) throws Exception {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<Client>> clients = new ArrayList<Future<Client>>();
+            for (int i = 0; i < CLIENTS; i++) {
+                final long seed = i;
+                clients.add(executor.submit(new Callable<Client>() {
+                    @Override
+                    public Client call() {
+                        Client client = new Client(baseUri, mix, seed);
+                        while (System.nanoTime() < deadline) {
+                            client.send();
+                        }
+                        return client;
+                    }
+                }));
+            }
+
+            Result result = new Result(seconds);
+            for (Future<Client> client : clients) {
+                result.add(client.get());
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class Client {
+
+        private final URL[] urls;
+        private final String[] versions;
+        private final byte[] buffer = new byte[1024];
+        private long[] latencies = new long[1 << 16];
+        private int requests;
+        private long errors;
+
+        private Client(String baseUri, String[][] mix, long seed) {
+            List<String[]> requests = new ArrayList<String[]>();
+            for (String[] request : mix) {
+                for (int i = 0; i < Integer.parseInt(request[2]); i++) {
+                    requests.add(request);
+                }
+            }
+            Collections.shuffle(requests, new Random(seed));
+
+            this.urls = new URL[requests.size()];
+            this.versions = new String[requests.size()];
+            for (int i = 0; i < urls.length; i++) {
+                try {
+                    urls[i] = new URL(baseUri + requests.get(i)[0]);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                versions[i] = requests.get(i)[1];
+            }
+        }
+
+        private void send() {
+            int next = requests % urls.length;
+            long start = System.nanoTime();
+
+            try {
+                HttpURLConnection connection = (HttpURLConnection) urls[next].openConnection();
+                if (versions[next] != null) {
+                    connection.setRequestProperty(VERSION_HEADER_NAME, versions[next]);
+                }
+
+                // The whole body is read, so the connection is kept alive for the next request.
+                InputStream body = connection.getResponseCode() < 400 ? connection.getInputStream() : connection.getErrorStream();
+                if (body != null) {
+                    while (body.read(buffer) >= 0) {
+                        // Drained.
+                    }
+                    body.close();
+                }
+            } catch (IOException e) {
+                errors++;
+            }
+
+            if (requests == latencies.length) {
+                latencies = Arrays.copyOf(latencies, latencies.length * 2);
+            }
+            latencies[requests++] = System.nanoTime() - start;
+        }
+    }
+
+    private static final class Result {
+
+        private final int seconds;
+        private long[] latencies = new long[0];
+        private long errors;
+
+        private Result(int seconds) {
+            this.seconds = seconds;
+        }
+
+        private void add(Client client) {
+            int size = latencies.length;
+            latencies = Arrays.copyOf(latencies, size + client.requests);
+            System.arraycopy(client.latencies, 0, latencies, size, client.requests);
+            errors += client.errors;
+        }
+
+        private double throughput() {
+            return (double) latencies.length / seconds;
+        }
+
+        private double overheadPercentOf(Result other) {
+            return (throughput() - other.throughput()) / throughput() * 100;
+        }
+
+        private double percentileMicros(double percentile) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1000.0;
+        }
+
+        private String format(String name) {
+            return String.format(Locale.ENGLISH, "%-20s %12.0f %10.1f %10.1f %10.1f %8d", name, throughput(),
+                    percentileMicros(0.5), percentileMicros(0.99), percentileMicros(0.999), errors);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.core.PackagesResourceConfig;
+import com.sun.jersey.api.core.ResourceConfig;
+import com.sun.jersey.test.framework.JerseyTest;
+import com.sun.jersey.test.framework.LowLevelAppDescriptor;
+import com.sun.jersey.test.framework.spi.container.TestContainerFactory;
+import com.sun.jersey.test.framework.spi.container.grizzly2.GrizzlyTestContainerFactory;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.JMX;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ApiVersionStatisticsTest extends JerseyTest {
+
+    private static final String VERSION_HEADER_NAME = "Version";
+    private static final String METHOD_NAME = TestResource.class.getName() + "#requiredMinTwoMaxThree()";
+    private static final String APPLICATION = "statistics-test";
+    private static final ApiVersionResourceFilterFactory FACTORY = new ApiVersionResourceFilterFactory();
+
+    private ApiVersionStatisticsMXBean statistics;
+
+    public ApiVersionStatisticsTest() {
+        super(new LowLevelAppDescriptor.Builder(resourceConfig()).build());
+    }
+
+    private static ResourceConfig resourceConfig() {
+        ResourceConfig resourceConfig = new PackagesResourceConfig("com.kris.massey");
+        resourceConfig.getProperties().put(ResourceConfig.PROPERTY_RESOURCE_FILTER_FACTORIES, Collections.singletonList(FACTORY));
+        return resourceConfig;
+    }
+
+    @Override
+    protected TestContainerFactory getTestContainerFactory() {
+        return new GrizzlyTestContainerFactory();
+    }
+
+    @Before
+    public void setUpStatistics() throws Exception {
+        FACTORY.unregisterStatistics();
+        FACTORY.registerStatistics(APPLICATION);
+
+        statistics = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                ApiVersionStatistics.objectName(APPLICATION, VERSION_HEADER_NAME), ApiVersionStatisticsMXBean.class);
+        statistics.reset();
+    }
+
+    @AfterClass
+    public static void unregisterStatistics() {
+        FACTORY.unregisterStatistics();
+    }
+
+    @Test
+    public void acceptedRequestsAreCountedByMajorVersion() {
+        request("2");
+        request("2.5");
+        request("3");
+
+        Map<String, Long> acceptedRequests = statistics.getAcceptedRequests().get(METHOD_NAME);
+        assertThat(acceptedRequests.get("2.x"), is(2L));
+        assertThat(acceptedRequests.get("3.x"), is(1L));
+    }
+
+    @Test
+    public void rejectedRequestsAreCountedByReason() {
+        request(null);
+        request("INVALID");
+        request("INVALID");
+        request("1");
+        request("4");
+
+        Map<String, Long> rejectedRequests = statistics.getRejectedRequests().get(METHOD_NAME);
+        assertThat(rejectedRequests.get(VersionOutcome.MISSING_HEADER.name()), is(1L));
+        assertThat(rejectedRequests.get(VersionOutcome.MALFORMED_HEADER.name()), is(2L));
+        assertThat(rejectedRequests.get(VersionOutcome.BELOW_MIN_VERSION.name()), is(1L));
+        assertThat(rejectedRequests.get(VersionOutcome.ABOVE_MAX_VERSION.name()), is(1L));
+    }
+
+    @Test
+    public void everyFilteredRequestIsInTheLatencyHistogram() {
+        request("2");
+        request("4");
+
+        long filteredRequests = 0;
+        for (long count : statistics.getFilterLatencyHistogram().values()) {
+            filteredRequests += count;
+        }
+
+        assertThat(filteredRequests, is(2L));
+    }
+
+    @Test
+    public void factoriesOfOtherApplicationsAreRegisteredApart() throws Exception {
+        ApiVersionResourceFilterFactory other = new ApiVersionResourceFilterFactory();
+        other.registerStatistics("other-application");
+        try {
+            request("2");
+
+            assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(ApiVersionStatistics.objectName(APPLICATION, VERSION_HEADER_NAME)),
+                    is(true));
+            assertThat(statistics.getAcceptedRequests().get(METHOD_NAME).get("2.x"), is(1L));
+        } finally {
+            other.unregisterStatistics();
+        }
+
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(ApiVersionStatistics.objectName("other-application", VERSION_HEADER_NAME)),
+                is(false));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void secondFactoryForTheSameApplicationIsRefused() {
+        new ApiVersionResourceFilterFactory().registerStatistics(APPLICATION);
+    }
+
+    @Test
+    public void overloadedMethodsAreCountedApart() throws Exception {
+        ApiVersionStatistics methodStatistics = new ApiVersionStatistics();
+
+        MethodVersionStatistics ofInt = methodStatistics.forMethod(String.class.getMethod("valueOf", int.class));
+        MethodVersionStatistics ofChars = methodStatistics.forMethod(String.class.getMethod("valueOf", char[].class));
+
+        assertThat(ofInt == ofChars, is(false));
+        assertThat(methodStatistics.getAcceptedRequests().keySet().toString(),
+                is("[java.lang.String#valueOf(char[]), java.lang.String#valueOf(int)]"));
+    }
+
+    private void request(String version) {
+        if (version == null) {
+            resource().path("/required/min/two/max/three").get(ClientResponse.class);
+        } else {
+            resource().path("/required/min/two/max/three").header(VERSION_HEADER_NAME, version).get(ClientResponse.class);
+        }
+    }
+}
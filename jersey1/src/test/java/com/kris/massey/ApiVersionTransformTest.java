@@ -0,0 +1,94 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.core.DefaultResourceConfig;
+import com.sun.jersey.api.core.ResourceConfig;
+import com.sun.jersey.test.framework.JerseyTest;
+import com.sun.jersey.test.framework.LowLevelAppDescriptor;
+import com.sun.jersey.test.framework.spi.container.TestContainerFactory;
+import com.sun.jersey.test.framework.spi.container.grizzly2.GrizzlyTestContainerFactory;
+import org.junit.Test;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ApiVersionTransformTest extends JerseyTest {
+
+    private static final String VERSION_HEADER_NAME = "Version";
+    private static final String CURRENT = "{\"items\": [{\"displayName\": \"a\", \"createdBy\": \"kris\"}, {\"displayName\": \"b\", \"createdBy\": \"kris\"}]}";
+
+    public ApiVersionTransformTest() {
+        super(new LowLevelAppDescriptor.Builder(resourceConfig()).build());
+    }
+
+    private static ResourceConfig resourceConfig() {
+        ResourceConfig resourceConfig = new DefaultResourceConfig(TransformedTestResource.class);
+        resourceConfig.getProperties().put(ResourceConfig.PROPERTY_RESOURCE_FILTER_FACTORIES,
+                Collections.singletonList(new ApiVersionResourceFilterFactory()));
+        return resourceConfig;
+    }
+
+    @Override
+    protected TestContainerFactory getTestContainerFactory() {
+        return new GrizzlyTestContainerFactory();
+    }
+
+    @Test
+    public void olderVersionsGetTheConvertedEntity() {
+        ClientResponse response = resource().path("/transformed").header(VERSION_HEADER_NAME, "1.5").get(ClientResponse.class);
+
+        assertThat(response.getEntity(String.class), equalTo("{\"items\":[{\"name\":\"a\"},{\"name\":\"b\"}]}"));
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_LENGTH), not(equalTo(String.valueOf(CURRENT.length()))));
+    }
+
+    @Test
+    public void convertedAndCurrentResponsesVaryByTheVersionHeader() {
+        ClientResponse converted = resource().path("/transformed").header(VERSION_HEADER_NAME, "1.5").get(ClientResponse.class);
+        ClientResponse current = resource().path("/transformed").header(VERSION_HEADER_NAME, "2").get(ClientResponse.class);
+
+        assertThat(converted.getHeaders().getFirst(HttpHeaders.VARY), equalTo(VERSION_HEADER_NAME));
+        assertThat(current.getHeaders().getFirst(HttpHeaders.VARY), equalTo(VERSION_HEADER_NAME));
+    }
+
+    @Test
+    public void currentVersionsAndRequestsWithoutAVersionGetTheEntityAsProduced() {
+        assertThat(resource().path("/transformed").header(VERSION_HEADER_NAME, "2").get(String.class), equalTo(CURRENT));
+        assertThat(resource().path("/transformed").get(String.class), equalTo(CURRENT));
+    }
+
+    @Test
+    public void entitiesNotWrittenAsJsonAreNotConverted() {
+        assertThat(resource().path("/transformed/text").header(VERSION_HEADER_NAME, "1").get(String.class), equalTo("createdBy"));
+    }
+
+    @Test
+    public void olderVersionsSendTheEntityTheMethodReads() {
+        String imported = resource().path("/transformed/import").header(VERSION_HEADER_NAME, "1")
+                .type(MediaType.APPLICATION_JSON_TYPE)
+                .post(String.class, "{\"items\": [{\"name\": \"a\"}, {\"name\": \"b\", \"color\": \"red\"}]}");
+
+        assertThat(imported, equalTo("{\"items\":[{\"displayName\":\"a\",\"color\":\"blue\"},{\"displayName\":\"b\",\"color\":\"red\"}]}"));
+    }
+
+    @Test
+    public void currentVersionsSendTheEntityAsIs() {
+        String entity = "{\"items\": [{\"displayName\": \"a\"}]}";
+
+        assertThat(resource().path("/transformed/import").header(VERSION_HEADER_NAME, "2")
+                .type(MediaType.APPLICATION_JSON_TYPE).post(String.class, entity), equalTo(entity));
+    }
+
+    @Test
+    public void requestEntitiesThatAreNotJsonAreBadRequests() {
+        ClientResponse response = resource().path("/transformed/import").header(VERSION_HEADER_NAME, "1")
+                .type(MediaType.APPLICATION_JSON_TYPE).post(ClientResponse.class, "{\"items\" []}");
+
+        assertThat(response.getStatus(), equalTo(400));
+        assertThat(response.getEntity(String.class), equalTo("The request entity is not JSON, '[' was not expected at depth 1"));
+    }
+}
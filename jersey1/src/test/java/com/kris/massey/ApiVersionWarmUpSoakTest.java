@@ -0,0 +1,64 @@
+package com.kris.massey;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+/**
+ * Measures how long the first requests through a version filter take right after the filters are created, in a fresh
+ * JVM each time, without and with {@link ApiVersionResourceFilterFactory#warmUp}, and fails when warming up does not
+ * make them faster. The probe writes its measurements to a file, and the comparison is logged through java.util.logging.
+ * It runs with the soak profile, {@code mvn test -Psoak}.
+ */
+public class ApiVersionWarmUpSoakTest {
+
+    private static final Logger LOGGER = Logger.getLogger(ApiVersionWarmUpSoakTest.class.getName());
+
+    @Test
+    public void warmUpShortensTheFirstRequests() throws Exception {
+        Map<String, Long> cold = probe("cold");
+        Map<String, Long> warm = probe("warm");
+
+        StringBuilder table = new StringBuilder(String.format(Locale.ENGLISH, "%-22s %12s %12s", "first request, us", "cold", "warmed up"));
+        for (String measurement : cold.keySet()) {
+            table.append(System.getProperty("line.separator")).append(String.format(Locale.ENGLISH, "%-22s %12.1f %12.1f", measurement,
+                    cold.get(measurement) / 1000.0, warm.get(measurement) / 1000.0));
+        }
+        LOGGER.info(table.toString());
+
+        assertThat(String.format(Locale.ENGLISH, "The first %d requests took %.1f us warmed up and %.1f us cold",
+                        WarmUpLatencyProbe.REQUESTS, warm.get("total") / 1000.0, cold.get("total") / 1000.0),
+                warm.get("total") < cold.get("total"), is(true));
+    }
+
+    private static Map<String, Long> probe(String mode) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        File output = File.createTempFile("warm-up-" + mode, ".txt");
+        try {
+            Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    WarmUpLatencyProbe.class.getName(), mode, output.getPath())
+                    .inheritIO()
+                    .start();
+            assertThat("the " + mode + " probe failed", process.waitFor(), is(0));
+
+            Map<String, Long> measurements = new LinkedHashMap<String, Long>();
+            for (String line : Files.readAllLines(output.toPath(), Charset.forName("UTF-8"))) {
+                String[] measurement = line.split(" ");
+                measurements.put(measurement[0], Long.parseLong(measurement[1]));
+            }
+            return measurements;
+        } finally {
+            Files.deleteIfExists(output.toPath());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+import org.junit.Test;
+
+import javax.ws.rs.HttpMethod;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class ApiVersionWarmUpTest {
+
+    @Test
+    public void factoryIsReadyOnlyOnceWarmedUp() throws NoSuchMethodException {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        filter(factory, "requiredMinTwoMaxThree");
+        filter(factory, "semantic");
+
+        assertThat(factory.isReady(), is(false));
+
+        factory.warmUp(30, TimeUnit.SECONDS);
+
+        assertThat(factory.isReady(), is(true));
+    }
+
+    @Test
+    public void warmUpRequestsAreNotCounted() throws NoSuchMethodException {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        filter(factory, "requiredMinTwoMaxThree");
+
+        factory.warmUp(30, TimeUnit.SECONDS);
+
+        for (Map<String, Long> accepted : factory.getStatistics().getAcceptedRequests().values()) {
+            assertThat(accepted.isEmpty(), is(true));
+        }
+        for (Map<String, Long> rejected : factory.getStatistics().getRejectedRequests().values()) {
+            assertThat(rejected.isEmpty(), is(true));
+        }
+    }
+
+    @Test
+    public void requestsBeforeTheWarmUpStayCounted() throws NoSuchMethodException {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        ContainerRequestFilter filter = filter(factory, "requiredMinTwoMaxThree");
+        filter.filter(request("2.5"));
+
+        factory.warmUp(30, TimeUnit.SECONDS);
+
+        Map<String, Long> accepted = factory.getStatistics().getAcceptedRequests().get(TestResource.class.getName() + "#requiredMinTwoMaxThree()");
+        assertThat(accepted.get("2.x"), is(1L));
+        assertThat(accepted.size(), is(1));
+    }
+
+    @Test
+    public void warmUpDoesNotTakeAdmissionTokens() throws NoSuchMethodException {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        VersionAdmission admission = new VersionAdmission().limit(2, 3, 0.001, 1);
+        factory.setVersionAdmission(admission);
+        ContainerRequestFilter filter = filter(factory, "requiredMinTwoMaxThree");
+
+        factory.warmUp(30, TimeUnit.SECONDS);
+
+        filter.filter(request("2.5"));
+    }
+
+    private static ContainerRequestFilter filter(ApiVersionResourceFilterFactory factory, String methodName) throws NoSuchMethodException {
+        Method method = TestResource.class.getMethod(methodName);
+        AbstractResourceMethod resourceMethod = new AbstractResourceMethod(new AbstractResource(TestResource.class), method,
+                method.getReturnType(), method.getGenericReturnType(), HttpMethod.GET, method.getAnnotations());
+
+        return factory.create(resourceMethod).get(0).getRequestFilter();
+    }
+
+    private static ContainerRequest request(String version) {
+        InBoundHeaders headers = new InBoundHeaders();
+        headers.putSingle("Version", version);
+
+        URI baseUri = URI.create("http://localhost/");
+        return new ContainerRequest(WebApplicationFactory.createWebApplication(), "GET", baseUri, baseUri.resolve("widgets"), headers,
+                new ByteArrayInputStream(new byte[0]));
+    }
+}
@@ -0,0 +1,81 @@
+package com.kris.massey;
+
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.ContainerResponseFilter;
+import com.sun.jersey.spi.container.ResourceFilter;
+import com.sun.jersey.spi.container.ResourceFilters;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Path("/cached")
+public class CachedTestResource {
+
+    static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
+    @GET
+    @ApiVersion(minVersion = 2)
+    @Produces(MediaType.TEXT_PLAIN)
+    public Response current() {
+        return Response.ok("current " + INVOCATIONS.incrementAndGet()).cacheControl(maxAge(60)).build();
+    }
+
+    @ApiVersion(minVersion = 1, maxVersion = 1.5f)
+    @ApiVersionAlternative("current")
+    public Response legacy() {
+        return Response.ok("legacy " + INVOCATIONS.incrementAndGet()).cacheControl(maxAge(60)).build();
+    }
+
+    @GET
+    @ApiVersion(minVersion = 2)
+    @Path("/private")
+    @Produces(MediaType.TEXT_PLAIN)
+    public Response privateResponse() {
+        CacheControl cacheControl = maxAge(60);
+        cacheControl.setPrivate(true);
+        return Response.ok("private " + INVOCATIONS.incrementAndGet()).cacheControl(cacheControl).build();
+    }
+
+    @GET
+    @ApiVersion(minVersion = 2)
+    @Path("/localized")
+    @Produces(MediaType.TEXT_PLAIN)
+    public Response localized() {
+        return Response.ok("localized " + INVOCATIONS.incrementAndGet()).cacheControl(maxAge(60))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE).build();
+    }
+
+    @GET
+    @ApiVersion(minVersion = 2)
+    @Path("/restricted")
+    @Produces(MediaType.TEXT_PLAIN)
+    @ResourceFilters(PassingFilter.class)
+    public Response restricted() {
+        return Response.ok("restricted " + INVOCATIONS.incrementAndGet()).cacheControl(maxAge(60)).build();
+    }
+
+    private static CacheControl maxAge(int seconds) {
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setMaxAge(seconds);
+        return cacheControl;
+    }
+
+    public static class PassingFilter implements ResourceFilter {
+
+        @Override
+        public ContainerRequestFilter getRequestFilter() {
+            return null;
+        }
+
+        @Override
+        public ContainerResponseFilter getResponseFilter() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class CandidatePolicyTest {
+
+    private static final String RESOURCE = TestResource.class.getName();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+
+    @Test
+    public void requestsTheCandidateWouldRejectAreAcceptedAndCounted() throws Exception {
+        ContainerRequestFilter filter = filter(RESOURCE + "#requiredMinTwoMaxThree = [2.5, 3]", "requiredMinTwoMaxThree");
+
+        filter.filter(request("2.1"));
+        filter.filter(request("2.2"));
+        filter.filter(request("2.7"));
+
+        assertThat(wouldReject("requiredMinTwoMaxThree").get("BELOW_MIN_VERSION"), is(2L));
+        assertThat(wouldReject("requiredMinTwoMaxThree").size(), is(1));
+    }
+
+    @Test
+    public void rejectedRequestsAreNotCounted() throws Exception {
+        ContainerRequestFilter filter = filter(RESOURCE + "#requiredMinTwoMaxThree = [2.5, 3]", "requiredMinTwoMaxThree");
+
+        for (String version : new String[]{"1", "two", null}) {
+            try {
+                filter.filter(request(version));
+                throw new AssertionError("Version " + version + " should have been rejected");
+            } catch (WebApplicationException e) {
+                assertThat(e.getResponse().getStatus(), is(400));
+            }
+        }
+
+        assertThat(wouldReject("requiredMinTwoMaxThree").isEmpty(), is(true));
+    }
+
+    @Test
+    public void semanticCandidatesAreCheckedWithSemanticVersions() throws Exception {
+        ContainerRequestFilter filter = filter(RESOURCE + "#semantic = [2.9.0, 2.10.0]", "semantic");
+
+        filter.filter(request("2.9.5"));
+        filter.filter(request("2.10.3"));
+
+        assertThat(wouldReject("semantic").get("ABOVE_MAX_VERSION"), is(1L));
+    }
+
+    @Test
+    public void methodsWithoutACandidateAreNotCounted() throws Exception {
+        ContainerRequestFilter filter = filter(RESOURCE + "#semantic = [2.10.0, 2.10.5]", "requiredMinTwoMaxThree");
+
+        filter.filter(request("2.1"));
+
+        assertThat(wouldReject("requiredMinTwoMaxThree").isEmpty(), is(true));
+    }
+
+    @Test
+    public void resetClearsTheCounts() throws Exception {
+        ContainerRequestFilter filter = filter(RESOURCE + "#requiredMinTwoMaxThree = [2.5, 3]", "requiredMinTwoMaxThree");
+        filter.filter(request("2.1"));
+
+        factory.getStatistics().reset();
+
+        assertThat(wouldReject("requiredMinTwoMaxThree").isEmpty(), is(true));
+    }
+
+    private Map<String, Long> wouldReject(String methodName) {
+        return factory.getStatistics().getWouldRejectRequests().get(RESOURCE + "#" + methodName + "()");
+    }
+
+    private ContainerRequestFilter filter(String candidates, String methodName) throws Exception {
+        File policyFile = new File(temporaryFolder.getRoot(), "candidates.properties");
+        Files.write(policyFile.toPath(), candidates.getBytes("UTF-8"));
+        factory.setCandidatePolicy(new VersionPolicy(policyFile, false));
+
+        Method method = TestResource.class.getMethod(methodName);
+        AbstractResourceMethod resourceMethod = new AbstractResourceMethod(new AbstractResource(TestResource.class), method,
+                method.getReturnType(), method.getGenericReturnType(), HttpMethod.GET, method.getAnnotations());
+
+        return factory.create(resourceMethod).get(0).getRequestFilter();
+    }
+
+    private static ContainerRequest request(String version) {
+        InBoundHeaders headers = new InBoundHeaders();
+        if (version != null) {
+            headers.putSingle("Version", version);
+        }
+
+        URI baseUri = URI.create("http://localhost/");
+        return new ContainerRequest(WebApplicationFactory.createWebApplication(), "GET", baseUri, baseUri.resolve("widgets"), headers,
+                new ByteArrayInputStream(new byte[0]));
+    }
+}
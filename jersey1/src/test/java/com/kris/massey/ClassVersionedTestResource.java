@@ -0,0 +1,20 @@
+package com.kris.massey;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+@Path("/classVersioned")
+@ApiVersion(minVersion = 2, maxVersion = 4)
+public class ClassVersionedTestResource {
+
+    @GET
+    @Path("/classRange")
+    public void classRange() {
+    }
+
+    @GET
+    @ApiVersion(minVersion = 3)
+    @Path("/narrowed")
+    public void narrowed() {
+    }
+}
@@ -0,0 +1,146 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+
+public class ClientVersionTrackerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ClientVersionTracker tracker = new ClientVersionTracker("Api-Key");
+
+    @Test
+    public void distinctClientsAreCountedPerVersion() {
+        for (int i = 0; i < 300; i++) {
+            tracker.recordVersion("client-" + (i % 30), 1.5f);
+            tracker.recordVersion("client-" + (i % 3), 2f);
+        }
+        tracker.recordSemanticVersion("client-1", SemanticVersion.of(2, 9, 1));
+
+        Map<String, Long> distinctClients = tracker.distinctClientsByVersion();
+
+        assertThat(distinctClients.get("1.5"), is(30L));
+        assertThat(distinctClients.get("2.0"), is(3L));
+        assertThat(distinctClients.get("2.9.1"), is(1L));
+    }
+
+    @Test
+    public void versionsBeyondTheSlotsShareOtherSlot() {
+        for (int i = 0; i < ClientVersionTracker.VERSION_SLOTS + 5; i++) {
+            tracker.recordVersion("client-" + i, i + 1);
+        }
+
+        assertThat(tracker.distinctClientsByVersion().size(), is(ClientVersionTracker.VERSION_SLOTS + 1));
+        assertThat(tracker.distinctClientsByVersion().get("other"), is(5L));
+    }
+
+    @Test
+    public void busiestClientsAreHeavyHitters() {
+        for (int i = 0; i < 5000; i++) {
+            tracker.recordVersion("client-" + i, 1f);
+        }
+        for (int i = 0; i < 320; i++) {
+            tracker.recordVersion("busy", 1f);
+            if (i % 2 == 0) {
+                tracker.recordVersion("half-busy", 1f);
+            }
+        }
+
+        List<ClientVersionTracker.ClientVersionCount> heavyHitters = tracker.heavyHitters();
+
+        assertThat(heavyHitters.get(0).getClientId(), is("busy"));
+        assertThat(heavyHitters.get(0).getVersion(), is("1.0"));
+        assertThat(heavyHitters.get(0).getRequests() >= 320, is(true));
+        assertThat(heavyHitters.get(1).getClientId(), is("half-busy"));
+    }
+
+    @Test
+    public void requestsWithoutClientAreIgnored() {
+        tracker.recordVersion(null, 1f);
+        tracker.recordVersion("", 1f);
+
+        assertThat(tracker.distinctClientsByVersion().isEmpty(), is(true));
+    }
+
+    @Test
+    public void snapshotIsWrittenAsJson() throws Exception {
+        File snapshotFile = new File(temporaryFolder.getRoot(), "clients.json");
+        ClientVersionTracker snapshotTracker = new ClientVersionTracker("Api-Key", snapshotFile, 1, TimeUnit.HOURS);
+        try {
+            for (int i = 0; i < 16; i++) {
+                snapshotTracker.recordVersion("key \"1\"", 1.5f);
+            }
+            snapshotTracker.writeSnapshot();
+        } finally {
+            snapshotTracker.close();
+        }
+
+        String snapshot = new String(Files.readAllBytes(snapshotFile.toPath()), "UTF-8");
+
+        assertThat(snapshot, containsString("\"clientHeaderName\": \"Api-Key\""));
+        assertThat(snapshot, containsString("\"distinctClients\": {\"1.5\": 1}"));
+        assertThat(snapshot, containsString("{\"client\": \"key \\\"1\\\"\", \"version\": \"1.5\", \"requests\": 16}"));
+    }
+
+    @Test
+    public void factoryTracksAcceptedAndRejectedRequests() throws Exception {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        factory.setClientVersionTracker(tracker);
+        ContainerRequestFilter filter = filter(factory, "requiredMinTwoMaxThree");
+
+        filter.filter(request("2.5", "accepted-client"));
+        try {
+            filter.filter(request("1", "retired-client"));
+            throw new AssertionError("Version 1 should have been rejected");
+        } catch (WebApplicationException e) {
+            assertThat(e.getResponse().getStatus(), is(400));
+        }
+        filter.filter(request("2.5", null));
+
+        assertThat(tracker.distinctClientsByVersion().get("2.5"), is(1L));
+        assertThat(tracker.distinctClientsByVersion().get("1.0"), is(1L));
+    }
+
+    private static ContainerRequestFilter filter(ApiVersionResourceFilterFactory factory, String methodName) throws NoSuchMethodException {
+        Method method = TestResource.class.getMethod(methodName);
+        AbstractResourceMethod resourceMethod = new AbstractResourceMethod(new AbstractResource(TestResource.class), method,
+                method.getReturnType(), method.getGenericReturnType(), HttpMethod.GET, method.getAnnotations());
+
+        return factory.create(resourceMethod).get(0).getRequestFilter();
+    }
+
+    private static ContainerRequest request(String version, String apiKey) {
+        InBoundHeaders headers = new InBoundHeaders();
+        headers.putSingle("Version", version);
+        if (apiKey != null) {
+            headers.putSingle("Api-Key", apiKey);
+        }
+
+        URI baseUri = URI.create("http://localhost/");
+        return new ContainerRequest(WebApplicationFactory.createWebApplication(), "GET", baseUri, baseUri.resolve("widgets"), headers,
+                new ByteArrayInputStream(new byte[0]));
+    }
+}
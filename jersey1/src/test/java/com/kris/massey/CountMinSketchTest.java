@@ -0,0 +1,36 @@
+package com.kris.massey;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class CountMinSketchTest {
+
+    @Test
+    public void countIsNeverUnderestimated() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (int i = 0; i < 10000; i++) {
+            sketch.add(ClientVersionTracker.hash("client-" + (i % 500)));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            assertThat(sketch.estimate(ClientVersionTracker.hash("client-" + i)) >= 20, is(true));
+        }
+    }
+
+    @Test
+    public void heavyKeyStandsOut() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        for (int i = 0; i < 10000; i++) {
+            sketch.add(ClientVersionTracker.hash("client-" + i));
+        }
+        long heavy = ClientVersionTracker.hash("heavy");
+        for (int i = 0; i < 999; i++) {
+            sketch.add(heavy);
+        }
+
+        assertThat(sketch.add(heavy) < 1000 + 100, is(true));
+        assertThat(sketch.estimate(ClientVersionTracker.hash("client-1")) < 100, is(true));
+    }
+}
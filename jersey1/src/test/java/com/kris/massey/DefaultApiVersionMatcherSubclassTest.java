@@ -0,0 +1,117 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+import org.junit.Test;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.net.URI;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class DefaultApiVersionMatcherSubclassTest {
+
+    private static final String VERSION_HEADER_NAME = "Version";
+
+    @Test
+    public void overriddenSupportsRequestedVersionDecidesFloatRanges() throws Exception {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory(new DefaultApiVersionMatcher("version") {
+            @Override
+            public boolean supportsRequestedVersion(boolean headerRequired, float minVersion, float maxVersion, ContainerRequest request) {
+                return true;
+            }
+        }, VERSION_HEADER_NAME);
+
+        filter(factory, "requiredMinTwoMaxThree").filter(request("5"));
+    }
+
+    @Test
+    public void refusedVersionIsRejectedForTheReasonCheckGives() throws Exception {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory(refusingMatcher(), VERSION_HEADER_NAME);
+
+        assertRejected(filter(factory, "requiredMinTwoMaxThree"), "4");
+
+        assertThat(factory.getStatistics().getRejectedRequests().get(TestResource.class.getName() + "#requiredMinTwoMaxThree()")
+                .get("ABOVE_MAX_VERSION"), is(1L));
+    }
+
+    @Test
+    public void overriddenSupportsRequestedVersionDecidesRoutedRequests() throws Exception {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory(refusingMatcher(), VERSION_HEADER_NAME);
+
+        assertRejected(filter(factory, "routedCurrent"), "2");
+    }
+
+    @Test
+    public void stricterCheckRejectsVersionsInTheAnnotatedRange() throws Exception {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory(new DefaultApiVersionMatcher("version") {
+            @Override
+            public VersionOutcome check(boolean headerRequired, float minVersion, float maxVersion, float requestedVersion) {
+                return requestedVersion == 2.5f ? VersionOutcome.UNSUPPORTED_VERSION
+                        : super.check(headerRequired, minVersion, maxVersion, requestedVersion);
+            }
+        }, VERSION_HEADER_NAME);
+        ContainerRequestFilter filter = filter(factory, "requiredMinTwoMaxThree");
+
+        filter.filter(request("2"));
+        assertRejected(filter, "2.5");
+    }
+
+    @Test
+    public void stricterCheckSemanticRejectsVersionsInTheAnnotatedRange() throws Exception {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory(new DefaultApiVersionMatcher("version") {
+            @Override
+            public VersionOutcome checkSemantic(boolean headerRequired, long minVersion, long maxVersion, long requestedVersion) {
+                return requestedVersion == SemanticVersion.parse("2.10") ? VersionOutcome.UNSUPPORTED_VERSION
+                        : super.checkSemantic(headerRequired, minVersion, maxVersion, requestedVersion);
+            }
+        }, VERSION_HEADER_NAME);
+        ContainerRequestFilter filter = filter(factory, "semantic");
+
+        filter.filter(request("2.9"));
+        assertRejected(filter, "2.10");
+    }
+
+    private static DefaultApiVersionMatcher refusingMatcher() {
+        return new DefaultApiVersionMatcher("version") {
+            @Override
+            public boolean supportsRequestedVersion(boolean headerRequired, float minVersion, float maxVersion, ContainerRequest request) {
+                return false;
+            }
+        };
+    }
+
+    private static void assertRejected(ContainerRequestFilter filter, String version) {
+        try {
+            filter.filter(request(version));
+            throw new AssertionError("Version " + version + " should have been rejected");
+        } catch (WebApplicationException e) {
+            assertThat(e.getResponse().getStatus(), is(400));
+        }
+    }
+
+    private static ContainerRequestFilter filter(ApiVersionResourceFilterFactory factory, String methodName) throws NoSuchMethodException {
+        Method method = TestResource.class.getMethod(methodName);
+        AbstractResourceMethod resourceMethod = new AbstractResourceMethod(new AbstractResource(TestResource.class), method,
+                method.getReturnType(), method.getGenericReturnType(), HttpMethod.GET, method.getAnnotations());
+
+        return factory.create(resourceMethod).get(0).getRequestFilter();
+    }
+
+    private static ContainerRequest request(String version) {
+        InBoundHeaders headers = new InBoundHeaders();
+        headers.putSingle(VERSION_HEADER_NAME, version);
+
+        URI baseUri = URI.create("http://localhost/");
+        return new ContainerRequest(WebApplicationFactory.createWebApplication(), "GET", baseUri, baseUri.resolve("widgets"), headers,
+                new ByteArrayInputStream(new byte[0]));
+    }
+}
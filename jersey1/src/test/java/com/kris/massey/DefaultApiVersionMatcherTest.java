@@ -127,4 +127,62 @@ public class DefaultApiVersionMatcherTest {
 
         assertThat(isVersionSupported, is(false));
     }
+
+    @Test
+    public void malformedVersionIsNotSupported() {
+        when(mockContainerRequest.getHeaderValue(VERSION_HEADER_NAME)).thenReturn("INVALID");
+
+        boolean isVersionSupported = defaultApiVersionMatcher.supportsRequestedVersion(
+                HEADER_NOT_REQUIRED_FOR_VALID_REQUEST,
+                ApiVersion.ALL_VERSION_SUPPORTED,
+                ApiVersion.ALL_VERSION_SUPPORTED,
+                mockContainerRequest);
+
+        assertThat(isVersionSupported, is(false));
+    }
+
+    @Test
+    public void missingVersionIsNotSupportedWhenHeaderRequired() {
+        boolean isVersionSupported = defaultApiVersionMatcher.supportsRequestedVersion(
+                HEADER_REQUIRED_FOR_VALID_REQUEST,
+                ApiVersion.ALL_VERSION_SUPPORTED,
+                ApiVersion.ALL_VERSION_SUPPORTED,
+                mockContainerRequest);
+
+        assertThat(isVersionSupported, is(false));
+    }
+
+    @Test
+    public void semanticVersionIsReadFromHeader() {
+        when(mockContainerRequest.getHeaderValue(VERSION_HEADER_NAME)).thenReturn("2.10.1");
+
+        assertThat(defaultApiVersionMatcher.requestedSemanticVersion(mockContainerRequest), is(SemanticVersion.of(2, 10, 1)));
+    }
+
+    @Test
+    public void semanticVersionWithinRangeIsAccepted() {
+        VersionOutcome outcome = defaultApiVersionMatcher.checkSemantic(HEADER_REQUIRED_FOR_VALID_REQUEST,
+                SemanticVersion.of(2, 9, 0), SemanticVersion.of(2, 10, 5), SemanticVersion.of(2, 10, 0));
+
+        assertThat(outcome, is(VersionOutcome.ACCEPTED));
+    }
+
+    @Test
+    public void semanticVersionOutsideRangeIsRejected() {
+        long minVersion = SemanticVersion.of(2, 9, 0);
+        long maxVersion = SemanticVersion.of(2, 10, 5);
+
+        assertThat(defaultApiVersionMatcher.checkSemantic(HEADER_REQUIRED_FOR_VALID_REQUEST, minVersion, maxVersion,
+                SemanticVersion.of(2, 1, 0)), is(VersionOutcome.BELOW_MIN_VERSION));
+        assertThat(defaultApiVersionMatcher.checkSemantic(HEADER_REQUIRED_FOR_VALID_REQUEST, minVersion, maxVersion,
+                SemanticVersion.of(2, 10, 6)), is(VersionOutcome.ABOVE_MAX_VERSION));
+    }
+
+    @Test
+    public void malformedOrMissingSemanticVersionIsRejected() {
+        assertThat(defaultApiVersionMatcher.checkSemantic(HEADER_NOT_REQUIRED_FOR_VALID_REQUEST, 0, Long.MAX_VALUE,
+                DefaultApiVersionMatcher.INVALID_REQUESTED_SEMANTIC_VERSION), is(VersionOutcome.MALFORMED_HEADER));
+        assertThat(defaultApiVersionMatcher.checkSemantic(HEADER_REQUIRED_FOR_VALID_REQUEST, 0, Long.MAX_VALUE,
+                DefaultApiVersionMatcher.NO_REQUESTED_SEMANTIC_VERSION), is(VersionOutcome.MISSING_HEADER));
+    }
 }
@@ -0,0 +1,34 @@
+package com.kris.massey;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class HyperLogLogTest {
+
+    @Test
+    public void emptySketchEstimatesZero() {
+        assertThat(new HyperLogLog(12).estimate(), is(0L));
+    }
+
+    @Test
+    public void repeatedKeysAreCountedOnce() {
+        HyperLogLog hyperLogLog = new HyperLogLog(12);
+        for (int i = 0; i < 1000; i++) {
+            hyperLogLog.add(ClientVersionTracker.hash("client-" + (i % 10)));
+        }
+
+        assertThat(hyperLogLog.estimate(), is(10L));
+    }
+
+    @Test
+    public void largeCardinalityIsWithinFivePercent() {
+        HyperLogLog hyperLogLog = new HyperLogLog(12);
+        for (int i = 0; i < 100000; i++) {
+            hyperLogLog.add(ClientVersionTracker.hash("client-" + i));
+        }
+
+        assertThat(Math.abs(hyperLogLog.estimate() - 100000) < 5000, is(true));
+    }
+}
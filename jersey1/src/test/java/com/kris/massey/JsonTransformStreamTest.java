@@ -0,0 +1,179 @@
+package com.kris.massey;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class JsonTransformStreamTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @ApiVersion(minVersion = 1)
+    @ApiVersionTransform(below = 2, remove = {"secret", "items.createdBy"}, rename = "items.displayName=name",
+            defaults = {"items.color=\"blue\"", "page=1"})
+    public void transformed() {
+    }
+
+    @ApiVersion(minVersion = 1)
+    @ApiVersionTransform.List({
+            @ApiVersionTransform(below = 1.5f, rename = "name=title"),
+            @ApiVersionTransform(below = 3, rename = "fullName=name")
+    })
+    public void chained() {
+    }
+
+    @ApiVersion(minVersion = 1)
+    @ApiVersionRequestTransform.List({
+            @ApiVersionRequestTransform(below = 1.5f, rename = "items.name=title"),
+            @ApiVersionRequestTransform(below = 2, rename = "items.title=displayName", defaults = "items.color=\"blue\"")
+    })
+    public void upgraded() {
+    }
+
+    @ApiVersion(minSemanticVersion = "1.0")
+    @ApiVersionTransform(below = 2)
+    public void mismatched() {
+    }
+
+    @Test
+    public void removesRenamesAndDefaultsFields() throws IOException {
+        assertThat(transform("transformed", 1,
+                        "{\"id\": 7, \"secret\": {\"a\": [1, 2]}, \"items\": [{\"displayName\": \"x\", \"createdBy\": \"y\"}, {\"color\": \"red\"}]}"),
+                equalTo("{\"id\":7,\"items\":[{\"name\":\"x\",\"color\":\"blue\"},{\"color\":\"red\"}],\"page\":1}"));
+    }
+
+    @Test
+    public void removingTheFirstAndLastMembersLeavesNoStraySeparator() throws IOException {
+        assertThat(transform("transformed", 1, "{\"secret\": true, \"id\": 1, \"page\": 2}"), equalTo("{\"id\":1,\"page\":2}"));
+        assertThat(transform("transformed", 1, "{\"page\": 2, \"secret\": null}"), equalTo("{\"page\":2}"));
+        assertThat(transform("transformed", 1, "{\"secret\": \"only\"}"), equalTo("{\"page\":1}"));
+    }
+
+    @Test
+    public void escapedQuotesAndStructuralCharactersInStringsAreCopied() throws IOException {
+        assertThat(transform("transformed", 1, "{\"id\": \"a\\\"}, [\\\\\", \"secret\": \"{\\\"\", \"page\": 3}"),
+                equalTo("{\"id\":\"a\\\"}, [\\\\\",\"page\":3}"));
+    }
+
+    @Test
+    public void elementsOfATopLevelArrayHaveTheTopLevelPath() throws IOException {
+        assertThat(transform("transformed", 1, "[{\"secret\": 1, \"id\": 1}, {\"id\": 2}]"),
+                equalTo("[{\"id\":1,\"page\":1},{\"id\":2,\"page\":1}]"));
+    }
+
+    @Test
+    public void transformsApplyFromTheHighestVersionDown() throws IOException {
+        assertThat(transform("chained", 2, "{\"fullName\": \"x\"}"), equalTo("{\"name\":\"x\"}"));
+        assertThat(transform("chained", 1, "{\"fullName\": \"x\"}"), equalTo("{\"title\":\"x\"}"));
+        assertThat(transforms("chained").chainFor(3), nullValue());
+        assertThat(transforms("chained").chainFor(DefaultApiVersionMatcher.NO_REQUESTED_VERSION), nullValue());
+    }
+
+    @Test
+    public void entitiesWrittenInPiecesAreConvertedAlike() throws IOException {
+        byte[] entity = "{\"items\": [{\"displayName\": \"\u00e9t\u00e9\"}], \"id\": 1}".getBytes(UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonTransformStream stream = transforms("transformed").chainFor(1).wrap(out);
+        for (byte b : entity) {
+            stream.write(b);
+        }
+        stream.finish();
+
+        assertThat(new String(out.toByteArray(), UTF_8), equalTo("{\"items\":[{\"name\":\"\u00e9t\u00e9\",\"color\":\"blue\"}],\"id\":1,\"page\":1}"));
+    }
+
+    @Test
+    public void requestTransformsApplyFromTheLowestVersionUp() throws IOException {
+        assertThat(upgrade(1, "{\"items\": [{\"name\": \"x\"}]}"), equalTo("{\"items\":[{\"displayName\":\"x\",\"color\":\"blue\"}]}"));
+        assertThat(upgrade(1.5f, "{\"items\": [{\"title\": \"x\", \"color\": \"red\"}]}"),
+                equalTo("{\"items\":[{\"displayName\":\"x\",\"color\":\"red\"}]}"));
+        assertThat(transforms("upgraded").requestChainFor(2), nullValue());
+        assertThat(transforms("upgraded").chainFor(1), nullValue());
+    }
+
+    @Test
+    public void largeRequestEntitiesAreConvertedAsTheyAreRead() throws IOException {
+        final int items = 200000;
+        // {"items": [{"name": "x"},{"name": "x"}, ... ]} generated as it is read.
+        InputStream entity = new InputStream() {
+            private final byte[] start = "{\"items\": [".getBytes(UTF_8);
+            private final byte[] item = "{\"name\": \"x\"},".getBytes(UTF_8);
+            private final byte[] end = "]}".getBytes(UTF_8);
+            private long position;
+
+            @Override
+            public int read() {
+                long index = position++;
+                if (index < start.length) {
+                    return start[(int) index];
+                }
+                index -= start.length;
+                long itemsLength = (long) items * item.length - 1;
+                if (index < itemsLength) {
+                    return item[(int) (index % item.length)];
+                }
+                index -= itemsLength;
+                return index < end.length ? end[(int) index] : -1;
+            }
+        };
+
+        InputStream converted = new JsonTransformInputStream(entity, transforms("upgraded").requestChainFor(1));
+        byte[] expected = "{\"displayName\":\"x\",\"color\":\"blue\"}".getBytes(UTF_8);
+        byte[] buffer = new byte[1000];
+        long length = 0;
+        int read;
+        while ((read = converted.read(buffer)) >= 0) {
+            length += read;
+        }
+
+        assertThat(length, equalTo("{\"items\":[]}".length() + (long) items * (expected.length + 1) - 1));
+    }
+
+    @Test(expected = JsonTransformStream.MalformedJsonException.class)
+    public void malformedEntityFails() throws IOException {
+        transform("transformed", 1, "{\"id\" 1}");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void transformMustUseTheKindOfVersionOfTheRange() {
+        transforms("mismatched");
+    }
+
+    private static VersionTransforms transforms(String methodName) {
+        Method method;
+        try {
+            method = JsonTransformStreamTest.class.getMethod(methodName);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+        return VersionTransforms.forMethod(method, VersionRange.forMethod(JsonTransformStreamTest.class, method));
+    }
+
+    private static String upgrade(float requestedVersion, String entity) throws IOException {
+        InputStream converted = new JsonTransformInputStream(new ByteArrayInputStream(entity.getBytes(UTF_8)),
+                transforms("upgraded").requestChainFor(requestedVersion));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int b;
+        while ((b = converted.read()) >= 0) {
+            out.write(b);
+        }
+        return new String(out.toByteArray(), UTF_8);
+    }
+
+    private static String transform(String methodName, float requestedVersion, String entity) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonTransformStream stream = transforms(methodName).chainFor(requestedVersion).wrap(out);
+        stream.write(entity.getBytes(UTF_8));
+        stream.finish();
+        return new String(out.toByteArray(), UTF_8);
+    }
+}
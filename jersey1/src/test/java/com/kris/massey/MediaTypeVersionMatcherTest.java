@@ -0,0 +1,102 @@
+package com.kris.massey;
+
+import com.sun.jersey.spi.container.ContainerRequest;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MediaTypeVersionMatcherTest {
+
+    private final MediaTypeVersionMatcher mediaTypeVersionMatcher = new MediaTypeVersionMatcher();
+
+    @Mock
+    private ContainerRequest mockContainerRequest;
+
+    @Test
+    public void versionIsReadFromAcceptParameter() {
+        when(mockContainerRequest.getHeaderValue("accept")).thenReturn("application/vnd.acme+json; version=2.1");
+
+        assertThat(mediaTypeVersionMatcher.requestedVersion(mockContainerRequest), is(2.1f));
+    }
+
+    @Test
+    public void versionIsReadFromContentTypeWhenAcceptHasNone() {
+        when(mockContainerRequest.getHeaderValue("accept")).thenReturn("*/*");
+        when(mockContainerRequest.getHeaderValue("content-type")).thenReturn("application/vnd.acme+json;version=3");
+
+        assertThat(mediaTypeVersionMatcher.requestedVersion(mockContainerRequest), is(3f));
+    }
+
+    @Test
+    public void parameterNameIsCaseInsensitiveAndValueMayBeQuoted() {
+        when(mockContainerRequest.getHeaderValue("accept")).thenReturn("application/vnd.acme+json ; VERSION = \"2.5\" ; charset=utf-8");
+
+        assertThat(mediaTypeVersionMatcher.requestedVersion(mockContainerRequest), is(2.5f));
+    }
+
+    @Test
+    public void firstMediaRangeWithTheParameterWins() {
+        when(mockContainerRequest.getHeaderValue("accept"))
+                .thenReturn("text/html;q=0.9, application/vnd.acme+json;x=\"a;version=9\";version=2 , application/json;version=1");
+
+        assertThat(mediaTypeVersionMatcher.requestedVersion(mockContainerRequest), is(2f));
+    }
+
+    @Test
+    public void escapedQuotesDoNotEndAQuotedValue() {
+        when(mockContainerRequest.getHeaderValue("accept")).thenReturn("application/vnd.acme+json; x=\"a\\\";version=9\"; version=2");
+
+        assertThat(mediaTypeVersionMatcher.requestedVersion(mockContainerRequest), is(2f));
+    }
+
+    @Test
+    public void similarlyNamedParametersAreIgnored() {
+        when(mockContainerRequest.getHeaderValue("accept")).thenReturn("application/vnd.acme+json; apiversion=4; versions=5");
+
+        assertThat(mediaTypeVersionMatcher.requestedVersion(mockContainerRequest), is(DefaultApiVersionMatcher.NO_REQUESTED_VERSION));
+    }
+
+    @Test
+    public void headersWithoutTheParameterAreTreatedAsNoVersion() {
+        when(mockContainerRequest.getHeaderValue("accept")).thenReturn("application/json");
+
+        assertThat(mediaTypeVersionMatcher.requestedVersion(mockContainerRequest), is(DefaultApiVersionMatcher.NO_REQUESTED_VERSION));
+        assertThat(mediaTypeVersionMatcher.check(true, 2, 3, mediaTypeVersionMatcher.requestedVersion(mockContainerRequest)),
+                is(VersionOutcome.MISSING_HEADER));
+    }
+
+    @Test
+    public void malformedParameterIsInvalid() {
+        when(mockContainerRequest.getHeaderValue("accept")).thenReturn("application/vnd.acme+json; version=two");
+
+        assertThat(mediaTypeVersionMatcher.check(false, 2, 3, mediaTypeVersionMatcher.requestedVersion(mockContainerRequest)),
+                is(VersionOutcome.MALFORMED_HEADER));
+    }
+
+    @Test
+    public void versionOutsideRangeIsNotSupported() {
+        when(mockContainerRequest.getHeaderValue("accept")).thenReturn("application/vnd.acme+json; version=4");
+
+        assertThat(mediaTypeVersionMatcher.supportsRequestedVersion(true, 2, 3, mockContainerRequest), is(false));
+    }
+
+    @Test
+    public void semanticVersionIsReadFromParameter() {
+        when(mockContainerRequest.getHeaderValue("accept")).thenReturn("application/vnd.acme+json; version=2.10.1");
+
+        assertThat(mediaTypeVersionMatcher.requestedSemanticVersion(mockContainerRequest), is(SemanticVersion.of(2, 10, 1)));
+    }
+
+    @Test
+    public void customParameterNameIsUsed() {
+        when(mockContainerRequest.getHeaderValue("accept")).thenReturn("application/vnd.acme+json; version=1; v=2");
+
+        assertThat(new MediaTypeVersionMatcher("v").requestedVersion(mockContainerRequest), is(2f));
+    }
+}
@@ -0,0 +1,161 @@
+package com.kris.massey;
+
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class MemoizingApiVersionMatcherTest {
+
+    private static final long TTL = TimeUnit.SECONDS.toNanos(10);
+
+    private final AtomicInteger asked = new AtomicInteger();
+    private final ApiVersionMatcher countingMatcher = new ApiVersionMatcher() {
+        @Override
+        public boolean supportsRequestedVersion(boolean headerRequired, float minVersion, float maxVersion, ContainerRequest request) {
+            asked.incrementAndGet();
+            return !"blocked".equals(request.getHeaderValue("x-tenant"));
+        }
+    };
+
+    @Test
+    public void decisionIsRememberedPerTenantVersionAndRange() {
+        MemoizingApiVersionMatcher matcher = memoizing(countingMatcher, 100);
+
+        assertThat(matcher.supportsRequestedVersion(true, 1, 2, request("acme", "1.5"), 0), is(true));
+        assertThat(matcher.supportsRequestedVersion(true, 1, 2, request("acme", "1.5"), 1), is(true));
+        assertThat(matcher.supportsRequestedVersion(true, 1, 2, request("blocked", "1.5"), 2), is(false));
+        assertThat(matcher.supportsRequestedVersion(true, 1, 2, request("blocked", "1.5"), 3), is(false));
+        matcher.supportsRequestedVersion(true, 1, 2, request("acme", "1.6"), 4);
+        matcher.supportsRequestedVersion(true, 1, 3, request("acme", "1.5"), 5);
+
+        assertThat(asked.get(), is(4));
+        assertThat(matcher.getHits(), is(2L));
+        assertThat(matcher.getMisses(), is(4L));
+    }
+
+    @Test
+    public void expiredDecisionIsAskedAgain() {
+        MemoizingApiVersionMatcher matcher = memoizing(countingMatcher, 100);
+
+        matcher.supportsRequestedVersion(true, 1, 2, request("acme", "1.5"), 0);
+        matcher.supportsRequestedVersion(true, 1, 2, request("acme", "1.5"), TTL - 1);
+        matcher.supportsRequestedVersion(true, 1, 2, request("acme", "1.5"), TTL);
+
+        assertThat(asked.get(), is(2));
+        assertThat(matcher.size(), is(1));
+    }
+
+    @Test
+    public void oldestDecisionIsEvictedWhenFull() {
+        MemoizingApiVersionMatcher matcher = memoizing(countingMatcher, 2);
+
+        matcher.supportsRequestedVersion(true, 1, 2, request("first", "1"), 0);
+        matcher.supportsRequestedVersion(true, 1, 2, request("second", "1"), 0);
+        matcher.supportsRequestedVersion(true, 1, 2, request("third", "1"), 0);
+        matcher.supportsRequestedVersion(true, 1, 2, request("second", "1"), 0);
+        matcher.supportsRequestedVersion(true, 1, 2, request("first", "1"), 0);
+
+        assertThat(matcher.size(), is(2));
+        assertThat(matcher.getEvictions(), is(2L));
+        assertThat(asked.get(), is(4));
+    }
+
+    @Test
+    public void concurrentMissesAskTheMatcherOnce() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        final MemoizingApiVersionMatcher matcher = memoizing(new ApiVersionMatcher() {
+            @Override
+            public boolean supportsRequestedVersion(boolean headerRequired, float minVersion, float maxVersion, ContainerRequest request) {
+                asked.incrementAndGet();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return true;
+            }
+        }, 100);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> decisions = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 8; i++) {
+                decisions.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        return matcher.supportsRequestedVersion(true, 1, 2, request("acme", "1.5"));
+                    }
+                }));
+            }
+
+            while (matcher.getMisses() + matcher.getCoalescedMisses() < 8) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<Boolean> decision : decisions) {
+                assertThat(decision.get(), is(true));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(asked.get(), is(1));
+        assertThat(matcher.getMisses(), is(1L));
+        assertThat(matcher.getCoalescedMisses(), is(7L));
+    }
+
+    @Test
+    public void failureIsNotRemembered() {
+        MemoizingApiVersionMatcher matcher = memoizing(new ApiVersionMatcher() {
+            @Override
+            public boolean supportsRequestedVersion(boolean headerRequired, float minVersion, float maxVersion, ContainerRequest request) {
+                if (asked.incrementAndGet() == 1) {
+                    throw new IllegalStateException("policy store unavailable");
+                }
+                return true;
+            }
+        }, 100);
+
+        try {
+            matcher.supportsRequestedVersion(true, 1, 2, request("acme", "1.5"), 0);
+            throw new AssertionError("The failure should have been thrown");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("policy store unavailable"));
+        }
+
+        assertThat(matcher.supportsRequestedVersion(true, 1, 2, request("acme", "1.5"), 1), is(true));
+        assertThat(asked.get(), is(2));
+    }
+
+    private static MemoizingApiVersionMatcher memoizing(ApiVersionMatcher matcher, int maxEntries) {
+        return new MemoizingApiVersionMatcher(matcher, "X-Tenant", VersionExtractors.header("Version"), maxEntries,
+                TTL, TimeUnit.NANOSECONDS);
+    }
+
+    private static ContainerRequest request(String tenant, String version) {
+        InBoundHeaders headers = new InBoundHeaders();
+        headers.putSingle("X-Tenant", tenant);
+        headers.putSingle("Version", version);
+
+        URI baseUri = URI.create("http://localhost/");
+        return new ContainerRequest(WebApplicationFactory.createWebApplication(), "GET", baseUri, baseUri.resolve("widgets"), headers,
+                new ByteArrayInputStream(new byte[0]));
+    }
+}
@@ -0,0 +1,175 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class PinnedVersionsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void everyPinIsFound() throws Exception {
+        Map<String, String> pins = new HashMap<String, String>();
+        for (int i = 0; i < 100000; i++) {
+            pins.put("key-" + i, (i % 3 + 1) + "." + (i % 10));
+        }
+        File tableFile = new File(temporaryFolder.getRoot(), "pins.table");
+        PinnedVersions.write(pins, tableFile);
+
+        PinnedVersions pinned = new PinnedVersions(tableFile, "X-Api-Key", false);
+
+        assertThat(pinned.size(), is(100000));
+        for (int i = 0; i < 100000; i++) {
+            assertThat(pinned.pinnedVersion("key-" + i), is(VersionParser.parse(pins.get("key-" + i))));
+        }
+        assertThat(pinned.pinnedVersion("key-100000"), is(DefaultApiVersionMatcher.NO_REQUESTED_VERSION));
+    }
+
+    @Test
+    public void pinIsUsedWhenNoVersionIsSent() throws Exception {
+        ContainerRequestFilter filter = filter(factory(pinned()), "notSet");
+
+        filter.filter(request("pinned-two", null));
+        filter.filter(request("unpinned", null));
+        filter.filter(request("pinned-one", "2.5"));
+        assertThat(rejectionStatus(filter, request("pinned-one", null)), is(400));
+    }
+
+    @Test
+    public void pinIsNotUsedWhenTheHeaderIsRequired() throws Exception {
+        ApiVersionResourceFilterFactory factory = factory(pinned());
+        ContainerRequestFilter filter = filter(factory, "semantic");
+
+        filter.filter(request("pinned-semantic", "2.10.1"));
+        assertThat(rejectionStatus(filter, request("pinned-semantic", null)), is(400));
+        assertThat(factory.getStatistics().getRejectedRequests().get(TestResource.class.getName() + "#semantic()").get("MISSING_HEADER"),
+                is(1L));
+    }
+
+    @Test
+    public void rewrittenTableReplacesThePins() throws Exception {
+        File tableFile = new File(temporaryFolder.getRoot(), "pins.table");
+        PinnedVersions.write(Collections.singletonMap("client", "1"), tableFile);
+        PinnedVersions pinned = new PinnedVersions(tableFile, "X-Api-Key", false);
+
+        PinnedVersions.write(Collections.singletonMap("client", "2"), tableFile);
+
+        assertThat(pinned.pinnedVersion("client"), is(1f));
+        assertThat(pinned.reload(), is(true));
+        assertThat(pinned.pinnedVersion("client"), is(2f));
+    }
+
+    @Test
+    public void invalidTableKeepsTheLastGoodPins() throws Exception {
+        File tableFile = new File(temporaryFolder.getRoot(), "pins.table");
+        PinnedVersions.write(Collections.singletonMap("client", "1"), tableFile);
+        PinnedVersions pinned = new PinnedVersions(tableFile, "X-Api-Key", false);
+
+        File invalidFile = temporaryFolder.newFile();
+        Files.write(invalidFile.toPath(), "client = 2".getBytes("UTF-8"));
+        Files.move(invalidFile.toPath(), tableFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        assertThat(pinned.reload(), is(false));
+        assertThat(pinned.pinnedVersion("client"), is(1f));
+    }
+
+    @Test
+    public void configMapSwapIsMapped() throws Exception {
+        // A ConfigMap volume links each file through ..data to a timestamped directory, and swaps ..data on an update.
+        Path volume = temporaryFolder.getRoot().toPath();
+        Files.createDirectory(volume.resolve("..1"));
+        PinnedVersions.write(Collections.singletonMap("client", "1"), volume.resolve("..1/pins.table").toFile());
+        Files.createSymbolicLink(volume.resolve("..data"), volume.getFileSystem().getPath("..1"));
+        Files.createSymbolicLink(volume.resolve("pins.table"), volume.getFileSystem().getPath("..data/pins.table"));
+        PinnedVersions pinned = new PinnedVersions(volume.resolve("pins.table").toFile(), "X-Api-Key");
+        try {
+            Files.createDirectory(volume.resolve("..2"));
+            PinnedVersions.write(Collections.singletonMap("client", "2"), volume.resolve("..2/pins.table").toFile());
+            Files.createSymbolicLink(volume.resolve("..data_tmp"), volume.getFileSystem().getPath("..2"));
+            Files.move(volume.resolve("..data_tmp"), volume.resolve("..data"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (pinned.pinnedVersion("client") != 2f && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+
+            assertThat(pinned.pinnedVersion("client"), is(2f));
+        } finally {
+            pinned.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void pinMustBeAVersion() throws Exception {
+        PinnedVersions.write(Collections.singletonMap("client", "latest"), new File(temporaryFolder.getRoot(), "pins.table"));
+    }
+
+    private PinnedVersions pinned() throws Exception {
+        Map<String, String> pins = new HashMap<String, String>();
+        pins.put("pinned-one", "1");
+        pins.put("pinned-two", "2.5");
+        pins.put("pinned-semantic", "2.10.1");
+        File tableFile = new File(temporaryFolder.getRoot(), "pins.table");
+        PinnedVersions.write(pins, tableFile);
+        return new PinnedVersions(tableFile, "X-Api-Key", false);
+    }
+
+    private static int rejectionStatus(ContainerRequestFilter filter, ContainerRequest request) {
+        try {
+            filter.filter(request);
+            throw new AssertionError("The request should have been rejected");
+        } catch (WebApplicationException e) {
+            return e.getResponse().getStatus();
+        }
+    }
+
+    private static ApiVersionResourceFilterFactory factory(PinnedVersions pinned) {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        factory.setPinnedVersions(pinned);
+        return factory;
+    }
+
+    private static ContainerRequestFilter filter(ApiVersionResourceFilterFactory factory, String methodName) throws NoSuchMethodException {
+        Method method = TestResource.class.getMethod(methodName);
+        AbstractResourceMethod resourceMethod = new AbstractResourceMethod(new AbstractResource(TestResource.class), method,
+                method.getReturnType(), method.getGenericReturnType(), HttpMethod.GET, method.getAnnotations());
+
+        return factory.create(resourceMethod).get(0).getRequestFilter();
+    }
+
+    private static ContainerRequest request(String apiKey, String version) {
+        InBoundHeaders headers = new InBoundHeaders();
+        headers.putSingle("X-Api-Key", apiKey);
+        if (version != null) {
+            headers.putSingle("Version", version);
+        }
+
+        URI baseUri = URI.create("http://localhost/");
+        return new ContainerRequest(WebApplicationFactory.createWebApplication(), "GET", baseUri, baseUri.resolve("widgets"), headers,
+                new ByteArrayInputStream(new byte[0]));
+    }
+}
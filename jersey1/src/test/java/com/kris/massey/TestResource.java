@@ -0,0 +1,66 @@
+package com.kris.massey;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+@Path("/")
+public class TestResource {
+
+    @GET
+    @ApiVersion
+    @Path("/required/noMinOrMax")
+    public void requiredNoMinOrMax() {
+    }
+
+    @GET
+    @ApiVersion(minVersion = 2, maxVersion = 3)
+    @Path("/required/min/two/max/three")
+    public void requiredMinTwoMaxThree() {
+    }
+
+    @GET
+    @ApiVersion(headerRequired = false, minVersion = 1.2f, maxVersion = 2.0f)
+    @Path("/notRequired/minAndMaxSet")
+    public void minAndMaxButNotRequired() {
+    }
+
+
+    @GET
+    @ApiVersion(headerRequired = false, minVersion = 2, maxVersion = 3)
+    @Path("/notRequired/min/two/max/three")
+    public void notSet() {
+    }
+
+    @GET
+    @ApiVersion(minVersion = 2)
+    @Path("/routed")
+    public String routedCurrent() {
+        return "current";
+    }
+
+    @ApiVersion(minVersion = 1, maxVersion = 1.5f)
+    @ApiVersionAlternative("routedCurrent")
+    public String routedLegacy() {
+        return "legacy";
+    }
+
+    @GET
+    @ApiVersion(headerRequired = false, minVersion = 2)
+    @Path("/routed/{name}")
+    public String routedCurrentWithName(@PathParam("name") String name) {
+        return "current " + name;
+    }
+
+    @ApiVersion(maxVersion = 1.5f)
+    @ApiVersionAlternative("routedCurrentWithName")
+    public String routedLegacyWithName(@PathParam("name") String name) {
+        return "legacy " + name;
+    }
+
+    @GET
+    @ApiVersion(minSemanticVersion = "2.9", maxSemanticVersion = "2.10.5")
+    @Path("/semantic")
+    public void semantic() {
+    }
+}
@@ -0,0 +1,39 @@
+package com.kris.massey;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+@Path("/transformed")
+public class TransformedTestResource {
+
+    @GET
+    @ApiVersion(minVersion = 1, headerRequired = false)
+    @ApiVersionTransform(below = 2, remove = "items.createdBy", rename = "items.displayName=name")
+    @Produces(MediaType.APPLICATION_JSON)
+    public String widgets() {
+        return "{\"items\": [{\"displayName\": \"a\", \"createdBy\": \"kris\"}, {\"displayName\": \"b\", \"createdBy\": \"kris\"}]}";
+    }
+
+    @GET
+    @ApiVersion(minVersion = 1)
+    @ApiVersionTransform(below = 2, remove = "createdBy")
+    @Path("/text")
+    @Produces(MediaType.TEXT_PLAIN)
+    public String text() {
+        return "createdBy";
+    }
+
+    @POST
+    @ApiVersion(minVersion = 1, headerRequired = false)
+    @ApiVersionRequestTransform(below = 2, rename = "items.name=displayName", defaults = "items.color=\"blue\"")
+    @Path("/import")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Produces(MediaType.TEXT_PLAIN)
+    public String importWidgets(String widgets) {
+        return widgets;
+    }
+}
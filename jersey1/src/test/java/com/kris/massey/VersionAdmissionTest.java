@@ -0,0 +1,148 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+import org.junit.Test;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class VersionAdmissionTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void burstIsAdmittedAndThenTheRate() {
+        VersionAdmission admission = new VersionAdmission().limit(ApiVersion.ALL_VERSION_SUPPORTED, 1.9f, 2, 3);
+        long now = System.nanoTime();
+
+        for (int i = 0; i < 3; i++) {
+            VersionAdmission.admit(admission.floatLimits(), VersionRange.key(1.5f), now);
+        }
+        assertThat(retryAfter(admission.floatLimits(), VersionRange.key(1.5f), now), is("1"));
+
+        VersionAdmission.admit(admission.floatLimits(), VersionRange.key(1.5f), now + SECOND / 2);
+        assertThat(retryAfter(admission.floatLimits(), VersionRange.key(1.5f), now + SECOND / 2), is("1"));
+    }
+
+    @Test
+    public void versionsOutsideEveryRangeAreNotLimited() {
+        VersionAdmission admission = new VersionAdmission().limit(1, 1.9f, 1, 1);
+        long now = System.nanoTime();
+
+        VersionAdmission.admit(admission.floatLimits(), VersionRange.key(1f), now);
+        for (int i = 0; i < 100; i++) {
+            VersionAdmission.admit(admission.floatLimits(), VersionRange.key(2f), now);
+        }
+
+        assertThat(retryAfter(admission.floatLimits(), VersionRange.key(1.9f), now), is("1"));
+    }
+
+    @Test
+    public void retryAfterCoversTheWaitForAToken() {
+        VersionAdmission admission = new VersionAdmission().limitSemantic("", "1.9", 0.1, 1);
+        long now = System.nanoTime();
+
+        VersionAdmission.admit(admission.semanticLimits(), SemanticVersion.of(1, 2, 0), now);
+
+        assertThat(retryAfter(admission.semanticLimits(), SemanticVersion.of(1, 2, 0), now + SECOND), is("9"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rateMustBePositive() {
+        new VersionAdmission().limit(1, 2, 0, 1);
+    }
+
+    @Test
+    public void factoryLimitsAcceptedRequestsOfTheLimitedRange() throws Exception {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        factory.setVersionAdmission(new VersionAdmission().limit(2, 2.4f, 0.001, 1));
+        ContainerRequestFilter filter = filter(factory, "requiredMinTwoMaxThree");
+
+        filter.filter(request("2.1"));
+        for (int i = 0; i < 10; i++) {
+            filter.filter(request("2.5"));
+        }
+
+        try {
+            filter.filter(request("2.2"));
+            throw new AssertionError("Version 2.2 should have been over its budget");
+        } catch (WebApplicationException e) {
+            assertThat(e.getResponse().getStatus(), is(429));
+            assertThat(e.getResponse().getMetadata().getFirst("Retry-After").toString(), is("1000"));
+        }
+    }
+
+    @Test
+    public void throttledRequestsAreCountedApartFromAcceptedOnes() throws Exception {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        factory.setVersionAdmission(new VersionAdmission().limit(2, 2.4f, 0.001, 1));
+        ContainerRequestFilter filter = filter(factory, "requiredMinTwoMaxThree");
+
+        filter.filter(request("2.1"));
+        try {
+            filter.filter(request("2.2"));
+            throw new AssertionError("Version 2.2 should have been over its budget");
+        } catch (WebApplicationException e) {
+            assertThat(e.getResponse().getStatus(), is(429));
+        }
+
+        String methodName = TestResource.class.getName() + "#requiredMinTwoMaxThree()";
+        assertThat(factory.getStatistics().getAcceptedRequests().get(methodName).get("2.x"), is(1L));
+        assertThat(factory.getStatistics().getThrottledRequests().get(methodName).get("2.x"), is(1L));
+    }
+
+    @Test
+    public void rejectedVersionsDoNotUseTheBudget() throws Exception {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        factory.setVersionAdmission(new VersionAdmission().limit(ApiVersion.ALL_VERSION_SUPPORTED, 2.4f, 0.001, 1));
+        ContainerRequestFilter filter = filter(factory, "requiredMinTwoMaxThree");
+
+        try {
+            filter.filter(request("1"));
+            throw new AssertionError("Version 1 should have been rejected");
+        } catch (WebApplicationException e) {
+            assertThat(e.getResponse().getStatus(), is(400));
+        }
+
+        filter.filter(request("2"));
+    }
+
+    private static String retryAfter(VersionAdmission.Limit[] limits, long key, long now) {
+        try {
+            VersionAdmission.admit(limits, key, now);
+            throw new AssertionError("The request should have been over its budget");
+        } catch (WebApplicationException e) {
+            assertThat(e.getResponse().getStatus(), is(429));
+            return e.getResponse().getMetadata().getFirst("Retry-After").toString();
+        }
+    }
+
+    private static ContainerRequestFilter filter(ApiVersionResourceFilterFactory factory, String methodName) throws NoSuchMethodException {
+        Method method = TestResource.class.getMethod(methodName);
+        AbstractResourceMethod resourceMethod = new AbstractResourceMethod(new AbstractResource(TestResource.class), method,
+                method.getReturnType(), method.getGenericReturnType(), HttpMethod.GET, method.getAnnotations());
+
+        return factory.create(resourceMethod).get(0).getRequestFilter();
+    }
+
+    private static ContainerRequest request(String version) {
+        InBoundHeaders headers = new InBoundHeaders();
+        headers.putSingle("Version", version);
+
+        URI baseUri = URI.create("http://localhost/");
+        return new ContainerRequest(WebApplicationFactory.createWebApplication(), "GET", baseUri, baseUri.resolve("widgets"), headers,
+                new ByteArrayInputStream(new byte[0]));
+    }
+}
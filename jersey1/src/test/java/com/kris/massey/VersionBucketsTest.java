@@ -0,0 +1,123 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import org.junit.Test;
+
+import javax.ws.rs.HttpMethod;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class VersionBucketsTest {
+
+    private final VersionBuckets buckets = new VersionBuckets();
+
+    @Test
+    public void rangeAcceptsExactlyItsBuckets() throws Exception {
+        Method twoToThree = method("requiredMinTwoMaxThree");
+        Method fromTwoAndHalf = method("requiredNoMinOrMax");
+        buckets.register(twoToThree, new VersionRange(true, 2, 3));
+        buckets.register(fromTwoAndHalf, new VersionRange(true, 2.5f, 0));
+
+        assertThat(accepts(twoToThree, 1.9f), is(false));
+        assertThat(accepts(twoToThree, 2f), is(true));
+        assertThat(accepts(twoToThree, 3f), is(true));
+        assertThat(accepts(twoToThree, Math.nextUp(3f)), is(false));
+        assertThat(accepts(fromTwoAndHalf, 2.4f), is(false));
+        assertThat(accepts(fromTwoAndHalf, 2.5f), is(true));
+        assertThat(accepts(fromTwoAndHalf, 1000f), is(true));
+    }
+
+    @Test
+    public void distinctBoundsSplitTheLine() throws Exception {
+        buckets.register(method("requiredMinTwoMaxThree"), new VersionRange(true, 2, 3));
+        buckets.register(method("notSet"), new VersionRange(false, 2, 3));
+        buckets.register(method("minAndMaxButNotRequired"), new VersionRange(false, 1.2f, 2));
+
+        // Bounds at 1.2, 2, just above 2 and just above 3.
+        assertThat(buckets.table().bucketCount(), is(5));
+    }
+
+    @Test
+    public void unboundedRangeAcceptsEveryVersion() throws Exception {
+        Method unbounded = method("requiredNoMinOrMax");
+        buckets.register(unbounded, new VersionRange(true, 0, 0));
+        buckets.register(method("requiredMinTwoMaxThree"), new VersionRange(true, 2, 3));
+
+        assertThat(accepts(unbounded, -5f), is(true));
+        assertThat(accepts(unbounded, 2.5f), is(true));
+        assertThat(accepts(unbounded, Float.MAX_VALUE), is(true));
+    }
+
+    @Test
+    public void semanticRangeWithoutMaximumReachesTheEnd() throws Exception {
+        Method fromTwoNine = method("semantic");
+        buckets.register(fromTwoNine, VersionRange.semantic(true, SemanticVersion.of(2, 9, 0), Long.MAX_VALUE));
+
+        assertThat(reaches(fromTwoNine, SemanticVersion.of(2, 8, 9)), is(false));
+        assertThat(reaches(fromTwoNine, SemanticVersion.of(2, 9, 0)), is(true));
+        assertThat(reaches(fromTwoNine, SemanticVersion.of(99, 0, 0)), is(true));
+    }
+
+    @Test
+    public void tableListsTheMethodsAVersionReaches() throws Exception {
+        buckets.register(method("requiredMinTwoMaxThree"), new VersionRange(true, 2, 3));
+        buckets.register(method("minAndMaxButNotRequired"), new VersionRange(false, 1.2f, 2));
+
+        assertThat(buckets.table().methodsAccepting(VersionRange.key(2f)),
+                is(Arrays.asList(method("requiredMinTwoMaxThree"), method("minAndMaxButNotRequired"))));
+        assertThat(buckets.table().methodsAccepting(VersionRange.key(1f)), is(Collections.<Method>emptyList()));
+    }
+
+    @Test
+    public void moreThanSixtyFourEndpointsSpanSeveralWords() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            buckets.register(method("notSet"), new VersionRange(false, i + 1, i + 1));
+        }
+
+        assertThat(buckets.table().methodsAccepting(VersionRange.key(100f)).size(), is(1));
+        assertThat(buckets.table().methodsAccepting(VersionRange.key(70f)).size(), is(1));
+        assertThat(buckets.table().methodsAccepting(VersionRange.key(100.5f)).size(), is(0));
+    }
+
+    @Test
+    public void registeringRebuildsTheTable() throws Exception {
+        buckets.register(method("requiredMinTwoMaxThree"), new VersionRange(true, 2, 3));
+        buckets.table();
+        buckets.register(method("notSet"), new VersionRange(false, 5, 6));
+
+        assertThat(reaches(method("notSet"), VersionRange.key(5.5f)), is(true));
+    }
+
+    @Test
+    public void factoryListsTheMethodsAVersionReaches() throws Exception {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        for (String name : Arrays.asList("requiredMinTwoMaxThree", "minAndMaxButNotRequired", "routedCurrent", "semantic")) {
+            Method method = method(name);
+            factory.create(new AbstractResourceMethod(new AbstractResource(TestResource.class), method,
+                    method.getReturnType(), method.getGenericReturnType(), HttpMethod.GET, method.getAnnotations()));
+        }
+
+        assertThat(factory.methodsSupporting("1.2"), is(Arrays.asList(method("minAndMaxButNotRequired"), method("routedLegacy"))));
+        // 2.10 is float version 2.1 as well as semantic version 2.10.0.
+        assertThat(factory.methodsSupporting("2.10"),
+                is(Arrays.asList(method("requiredMinTwoMaxThree"), method("routedCurrent"), method("semantic"))));
+        assertThat(factory.methodsSupporting("two"), is(Collections.<Method>emptyList()));
+    }
+
+    private boolean accepts(Method method, float version) {
+        return reaches(method, VersionRange.key(version));
+    }
+
+    private boolean reaches(Method method, long key) {
+        return buckets.table().methodsAccepting(key).contains(method);
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        return TestResource.class.getMethod(name);
+    }
+}
@@ -0,0 +1,150 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+import org.junit.Test;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.net.URI;
+
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class VersionExtractorsTest {
+
+    private static final URI BASE_URI = URI.create("http://localhost/");
+
+    @Test
+    public void headerIsReadIgnoringCase() {
+        ContainerRequest request = request("widgets", "Version", "2.1");
+
+        assertThat(VersionExtractors.header("VERSION").extract(request), is("2.1"));
+        assertThat(VersionExtractors.header("Other").extract(request), is(nullValue()));
+    }
+
+    @Test
+    public void emptyHeaderIsNoVersion() {
+        assertThat(VersionExtractors.header("Version").extract(request("widgets", "Version", "")), is(nullValue()));
+    }
+
+    @Test
+    public void queryParameterIsReadFromRawQuery() {
+        VersionExtractor extractor = VersionExtractors.queryParameter("version");
+
+        assertThat(extractor.extract(request("widgets?version=2.1")), is("2.1"));
+        assertThat(extractor.extract(request("widgets?a=b&version=3&version=4")), is("3"));
+        assertThat(extractor.extract(request("widgets?apiversion=3")), is(nullValue()));
+        assertThat(extractor.extract(request("widgets?version=")), is(nullValue()));
+        assertThat(extractor.extract(request("widgets")), is(nullValue()));
+    }
+
+    @Test
+    public void pathSegmentWithPrefixIsRead() {
+        VersionExtractor extractor = VersionExtractors.pathSegment("v");
+
+        assertThat(extractor.extract(request("api/v2.1/widgets")), is("2.1"));
+        assertThat(extractor.extract(request("v3")), is("3"));
+        assertThat(extractor.extract(request("api/values/widgets")), is(nullValue()));
+    }
+
+    @Test
+    public void pathSegmentMustBeThePrefixAndAWholeVersion() {
+        VersionExtractor extractor = VersionExtractors.pathSegment("v");
+
+        assertThat(extractor.extract(request("v8engine/widgets")), is(nullValue()));
+        assertThat(extractor.extract(request("v8engine/v2/widgets")), is("2"));
+        assertThat(extractor.extract(request("api/v2.10.1/widgets")), is("2.10.1"));
+    }
+
+    @Test
+    public void mediaTypeParameterIsReadFromAcceptThenContentType() {
+        VersionExtractor extractor = VersionExtractors.mediaTypeParameter("version");
+
+        assertThat(extractor.extract(request("widgets", "Accept", "application/vnd.acme+json; version=2.1")), is("2.1"));
+        assertThat(extractor.extract(request("widgets", "Content-Type", "application/vnd.acme+json; version=3")), is("3"));
+        assertThat(extractor.extract(request("widgets", "Accept", "application/json")), is(nullValue()));
+        assertThat(extractor.extract(request("widgets", "Accept", "application/json; x=\"\\\"; version=9\"; version=\"2.5\"")), is("2.5"));
+    }
+
+    @Test
+    public void firstExtractorToFindAVersionWins() {
+        ContainerRequestFilter filter = filter(new ApiVersionResourceFilterFactory("Version",
+                VersionExtractors.header("Version"), VersionExtractors.queryParameter("version")));
+
+        // The header carries 4, which is above the range, so the query parameter must not have been used.
+        ContainerRequest request = request("widgets?version=2", "Version", "4");
+        try {
+            filter.filter(request);
+            throw new AssertionError("Version 4 should have been rejected");
+        } catch (WebApplicationException e) {
+            assertThat(e.getResponse().getStatus(), is(400));
+        }
+
+        assertThat(filter.filter(request("widgets?version=2")), is(notNullValue()));
+    }
+
+    @Test
+    public void chainRunsOncePerRequest() {
+        CountingExtractor extractor = new CountingExtractor("2.5");
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory("Version", extractor);
+        ContainerRequestFilter first = filter(factory);
+        ContainerRequestFilter second = filter(factory);
+
+        ContainerRequest request = request("widgets");
+        first.filter(request);
+        second.filter(request);
+
+        assertThat(extractor.extractions, is(1));
+    }
+
+    private static ContainerRequestFilter filter(ApiVersionResourceFilterFactory factory) {
+        try {
+            Method method = TestResource.class.getMethod("requiredMinTwoMaxThree");
+            AbstractResourceMethod resourceMethod = new AbstractResourceMethod(new AbstractResource(TestResource.class), method,
+                    method.getReturnType(), method.getGenericReturnType(), HttpMethod.GET, method.getAnnotations());
+
+            return factory.create(resourceMethod).get(0).getRequestFilter();
+        } catch (NoSuchMethodException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static ContainerRequest request(String path) {
+        return request(path, null, null);
+    }
+
+    private static ContainerRequest request(String path, String headerName, String headerValue) {
+        InBoundHeaders headers = new InBoundHeaders();
+        if (headerName != null) {
+            headers.putSingle(headerName, headerValue);
+        }
+
+        return new ContainerRequest(WebApplicationFactory.createWebApplication(), "GET", BASE_URI, BASE_URI.resolve(path), headers,
+                new ByteArrayInputStream(new byte[0]));
+    }
+
+    private static class CountingExtractor implements VersionExtractor {
+
+        private final String version;
+        private int extractions;
+
+        private CountingExtractor(String version) {
+            this.version = version;
+        }
+
+        @Override
+        public String extract(ContainerRequest request) {
+            extractions++;
+            return version;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.kris.massey;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class VersionIndexTest {
+
+    private final VersionIndex versionIndex = new VersionIndex(true);
+
+    @Test
+    public void indexIsGeneratedForResourceClasses() {
+        assertThat(versionIndex.forClass(TestResource.class), is(notNullValue()));
+        assertThat(versionIndex.forClass(ClassVersionedTestResource.class), is(notNullValue()));
+    }
+
+    @Test
+    public void classesWithoutAnnotationsHaveNoIndex() {
+        assertThat(versionIndex.forClass(VersionIndexTest.class), is(nullValue()));
+    }
+
+    @Test
+    public void disabledIndexIsNeverUsed() {
+        assertThat(new VersionIndex(false).forClass(TestResource.class), is(nullValue()));
+    }
+
+    @Test
+    public void indexedRangesMatchReflection() {
+        assertIndexMatchesReflection(TestResource.class);
+        assertIndexMatchesReflection(ClassVersionedTestResource.class);
+        assertIndexMatchesReflection(Signatures.class);
+    }
+
+    @Test
+    public void alternativesAreIndexedByResourceMethodName() throws Exception {
+        VersionIndex.Entries entries = versionIndex.forClass(TestResource.class);
+
+        assertThat(entries.hasAlternatives(TestResource.class.getMethod("routedCurrent")), is(true));
+        assertThat(entries.hasAlternatives(TestResource.class.getMethod("notSet")), is(false));
+    }
+
+    @Test
+    public void signaturesUseErasedParameterTypes() throws Exception {
+        Method method = Signatures.class.getMethod("method", int[].class, String[][].class, List.class, Signatures.class);
+
+        assertThat(VersionIndex.signatureOf(method),
+                is("method(int[],java.lang.String[][],java.util.List,com.kris.massey.VersionIndexTest$Signatures)"));
+    }
+
+    private void assertIndexMatchesReflection(Class<?> resourceClass) {
+        VersionIndex.Entries entries = versionIndex.forClass(resourceClass);
+
+        for (Method method : resourceClass.getMethods()) {
+            VersionRange indexed = entries.rangeOf(method);
+            VersionRange reflected = VersionRange.forMethod(resourceClass, method);
+
+            assertThat(method.toString(), String.valueOf(indexed), is(String.valueOf(reflected)));
+            if (reflected != null) {
+                assertThat(method.toString(), indexed.isHeaderRequired(), is(reflected.isHeaderRequired()));
+            }
+        }
+    }
+
+    public static class Signatures {
+
+        @ApiVersion(minVersion = 1)
+        public <T extends Signatures> void method(int[] primitives, String[][] strings, List<String> generic, T variable) {
+        }
+    }
+}
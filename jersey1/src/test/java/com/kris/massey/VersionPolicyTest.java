@@ -0,0 +1,197 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+
+public class VersionPolicyTest {
+
+    private static final String RESOURCE = TestResource.class.getName();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void overriddenRangeIsChecked() throws Exception {
+        File policyFile = write("policy.properties", RESOURCE + "#requiredMinTwoMaxThree = [2.5, 2.8]");
+        ContainerRequestFilter filter = filter(new VersionPolicy(policyFile, false), "requiredMinTwoMaxThree");
+
+        filter.filter(request("2.6"));
+        String body = rejectionBody(filter, "2.1");
+
+        assertThat(body, containsString("\"minVersion\":2.5"));
+        assertThat(body, containsString("\"maxVersion\":2.8"));
+    }
+
+    @Test
+    public void reloadedPolicyReplacesTheOverrides() throws Exception {
+        File policyFile = write("policy.properties", RESOURCE + "#requiredMinTwoMaxThree = [2.5, 3]");
+        VersionPolicy policy = new VersionPolicy(policyFile, false);
+        ContainerRequestFilter filter = filter(policy, "requiredMinTwoMaxThree");
+        rejectionBody(filter, "2.1");
+
+        write("policy.properties", "");
+
+        assertThat(policy.reload(), is(true));
+        filter.filter(request("2.1"));
+    }
+
+    @Test
+    public void invalidPolicyKeepsTheLastGoodOverrides() throws Exception {
+        File policyFile = write("policy.properties", RESOURCE + "#requiredMinTwoMaxThree = [2.5, 3]");
+        VersionPolicy policy = new VersionPolicy(policyFile, false);
+        ContainerRequestFilter filter = filter(policy, "requiredMinTwoMaxThree");
+
+        for (String invalid : new String[]{
+                RESOURCE + "#requiredMinTwoMaxThree = 2.5",
+                RESOURCE + "#requiredMinTwoMaxThree = [3, 2]",
+                RESOURCE + "#requiredMinTwoMaxThree = [2.9.1, *]",
+                RESOURCE + "#semantic = [2.9.0, 2.9.a]",
+                RESOURCE + "#requiredMinTwoMaxThree = [2.5, *]",
+                RESOURCE + "#requiredMinTwoMaxThree = [1.5, 3]",
+                RESOURCE + "#semantic = [2.10.0, 2.11.0]",
+                RESOURCE + "#noSuchMethod = [2, 3]",
+                RESOURCE + "#routedCurrent = [2, 3]",
+                RESOURCE + "#routedLegacy = [1, 1.2]",
+                "com.example.NoSuchResource#list = [2, 3]"}) {
+            write("policy.properties", invalid);
+            assertThat(invalid, policy.reload(), is(false));
+        }
+
+        assertThat(policy.getOverrides().get(RESOURCE + "#requiredMinTwoMaxThree"), is("[2.5, 3.0]"));
+        rejectionBody(filter, "2.1");
+    }
+
+    @Test
+    public void semanticRangesAreOverriddenWithSemanticVersions() throws Exception {
+        File policyFile = write("policy.properties", RESOURCE + "#semantic = [2.10.0, 2.10.5]");
+
+        VersionPolicy policy = new VersionPolicy(policyFile, false);
+
+        assertThat(policy.getOverrides().get(RESOURCE + "#semantic"), is("[2.10.0, 2.10.5]"));
+    }
+
+    @Test
+    public void missingFileOverridesNothing() throws Exception {
+        VersionPolicy policy = new VersionPolicy(new File(temporaryFolder.getRoot(), "missing.properties"), false);
+
+        assertThat(policy.getOverrides().isEmpty(), is(true));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void invalidFileFailsWhenThePolicyIsCreated() throws Exception {
+        new VersionPolicy(write("policy.properties", RESOURCE + "#requiredMinTwoMaxThree = [a, b]"), false);
+    }
+
+    @Test
+    public void fileMovedIntoPlaceIsReloaded() throws Exception {
+        File policyFile = write("policy.properties", "");
+        VersionPolicy policy = new VersionPolicy(policyFile);
+        try {
+            File replacement = write("policy.properties.tmp", RESOURCE + "#requiredMinTwoMaxThree = [2.5, 3]");
+            Files.move(replacement.toPath(), policyFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            assertThat(awaitOverride(policy), is("[2.5, 3.0]"));
+        } finally {
+            policy.close();
+        }
+    }
+
+    @Test
+    public void fileEditedInPlaceIsReloaded() throws Exception {
+        File policyFile = write("policy.properties", "");
+        VersionPolicy policy = new VersionPolicy(policyFile);
+        try {
+            write("policy.properties", RESOURCE + "#requiredMinTwoMaxThree = [2.5, 3]");
+
+            assertThat(awaitOverride(policy), is("[2.5, 3.0]"));
+        } finally {
+            policy.close();
+        }
+    }
+
+    @Test
+    public void configMapSwapIsReloaded() throws Exception {
+        // A ConfigMap volume links each file through ..data to a timestamped directory, and swaps ..data on an update.
+        Path volume = temporaryFolder.getRoot().toPath();
+        Files.createDirectory(volume.resolve("..1"));
+        Files.write(volume.resolve("..1/policy.properties"), new byte[0]);
+        Files.createSymbolicLink(volume.resolve("..data"), volume.getFileSystem().getPath("..1"));
+        Files.createSymbolicLink(volume.resolve("policy.properties"), volume.getFileSystem().getPath("..data/policy.properties"));
+        VersionPolicy policy = new VersionPolicy(volume.resolve("policy.properties").toFile());
+        try {
+            Files.createDirectory(volume.resolve("..2"));
+            Files.write(volume.resolve("..2/policy.properties"), (RESOURCE + "#requiredMinTwoMaxThree = [2.5, 3]").getBytes("UTF-8"));
+            Files.createSymbolicLink(volume.resolve("..data_tmp"), volume.getFileSystem().getPath("..2"));
+            Files.move(volume.resolve("..data_tmp"), volume.resolve("..data"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            assertThat(awaitOverride(policy), is("[2.5, 3.0]"));
+        } finally {
+            policy.close();
+        }
+    }
+
+    private static String awaitOverride(VersionPolicy policy) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (policy.getOverrides().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        return policy.getOverrides().get(RESOURCE + "#requiredMinTwoMaxThree");
+    }
+
+    private File write(String name, String content) throws Exception {
+        File file = new File(temporaryFolder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes("UTF-8"));
+        return file;
+    }
+
+    private static String rejectionBody(ContainerRequestFilter filter, String version) {
+        try {
+            filter.filter(request(version));
+            throw new AssertionError("Version " + version + " should have been rejected");
+        } catch (WebApplicationException e) {
+            assertThat(e.getResponse().getStatus(), is(400));
+            return new String((byte[]) e.getResponse().getEntity());
+        }
+    }
+
+    private static ContainerRequestFilter filter(VersionPolicy policy, String methodName) throws NoSuchMethodException {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        factory.setVersionPolicy(policy);
+
+        Method method = TestResource.class.getMethod(methodName);
+        AbstractResourceMethod resourceMethod = new AbstractResourceMethod(new AbstractResource(TestResource.class), method,
+                method.getReturnType(), method.getGenericReturnType(), HttpMethod.GET, method.getAnnotations());
+
+        return factory.create(resourceMethod).get(0).getRequestFilter();
+    }
+
+    private static ContainerRequest request(String version) {
+        InBoundHeaders headers = new InBoundHeaders();
+        headers.putSingle("Version", version);
+
+        URI baseUri = URI.create("http://localhost/");
+        return new ContainerRequest(WebApplicationFactory.createWebApplication(), "GET", baseUri, baseUri.resolve("widgets"), headers,
+                new ByteArrayInputStream(new byte[0]));
+    }
+}
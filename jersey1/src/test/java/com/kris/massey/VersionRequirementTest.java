@@ -0,0 +1,68 @@
+package com.kris.massey;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class VersionRequirementTest {
+
+    @Test
+    public void unversionedMethodHasNoRequirement() throws Exception {
+        assertThat(VersionRequirement.forMethod("Version", TestResource.class, TestResource.class.getMethod("toString")), is(nullValue()));
+    }
+
+    @Test
+    public void floatVersionsAreCheckedAgainstTheRange() throws Exception {
+        VersionRequirement requirement = requirement("requiredMinTwoMaxThree");
+
+        assertThat(requirement.check("2.5"), is(VersionOutcome.ACCEPTED));
+        assertThat(requirement.check("1"), is(VersionOutcome.BELOW_MIN_VERSION));
+        assertThat(requirement.check("3.1"), is(VersionOutcome.ABOVE_MAX_VERSION));
+        assertThat(requirement.check("two"), is(VersionOutcome.MALFORMED_HEADER));
+        assertThat(requirement.check(null), is(VersionOutcome.MISSING_HEADER));
+        assertThat(requirement.check(""), is(VersionOutcome.MISSING_HEADER));
+    }
+
+    @Test
+    public void semanticVersionsAreCheckedAgainstTheRange() throws Exception {
+        VersionRequirement requirement = requirement("semantic");
+
+        assertThat(requirement.check("2.10.1"), is(VersionOutcome.ACCEPTED));
+        assertThat(requirement.check("2.8"), is(VersionOutcome.BELOW_MIN_VERSION));
+        assertThat(requirement.check("2.10.6"), is(VersionOutcome.ABOVE_MAX_VERSION));
+    }
+
+    @Test
+    public void unionAcceptsWhatEitherAccepts() throws Exception {
+        VersionRequirement union = requirement("requiredMinTwoMaxThree").union(requirement("minAndMaxButNotRequired"));
+
+        assertThat(union.toString(), is("[1.2, 3.0]"));
+        assertThat(union.check("1.5"), is(VersionOutcome.ACCEPTED));
+        assertThat(union.check("3.5"), is(VersionOutcome.ABOVE_MAX_VERSION));
+        assertThat(union.check(null), is(VersionOutcome.ACCEPTED));
+    }
+
+    @Test
+    public void unionOfUnboundedRangeIsUnbounded() throws Exception {
+        assertThat(requirement("requiredMinTwoMaxThree").union(requirement("requiredNoMinOrMax")).toString(), is("[*, *]"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unionCannotMixFloatAndSemanticVersions() throws Exception {
+        requirement("requiredMinTwoMaxThree").union(requirement("semantic"));
+    }
+
+    @Test
+    public void rejectionIsABadRequestNamingTheHeader() throws Exception {
+        String body = new String((byte[]) requirement("requiredMinTwoMaxThree").rejection().getEntity(), "UTF-8");
+
+        assertThat(requirement("requiredMinTwoMaxThree").rejection().getStatus(), is(400));
+        assertThat(body.contains("\"versionHeaderName\": \"Version\""), is(true));
+    }
+
+    private static VersionRequirement requirement(String methodName) throws NoSuchMethodException {
+        return VersionRequirement.forMethod("Version", TestResource.class, TestResource.class.getMethod(methodName));
+    }
+}
@@ -0,0 +1,147 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.client.ClientResponse;
+import com.sun.jersey.api.core.DefaultResourceConfig;
+import com.sun.jersey.api.core.ResourceConfig;
+import com.sun.jersey.test.framework.JerseyTest;
+import com.sun.jersey.test.framework.LowLevelAppDescriptor;
+import com.sun.jersey.test.framework.spi.container.TestContainerFactory;
+import com.sun.jersey.test.framework.spi.container.grizzly2.GrizzlyTestContainerFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+public class VersionedResponseCacheTest extends JerseyTest {
+
+    private static final String VERSION_HEADER_NAME = "Version";
+    private static final VersionedResponseCache CACHE = new VersionedResponseCache(2);
+
+    public VersionedResponseCacheTest() {
+        super(new LowLevelAppDescriptor.Builder(resourceConfig()).build());
+    }
+
+    private static ResourceConfig resourceConfig() {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        factory.setResponseCache(CACHE);
+
+        ResourceConfig resourceConfig = new DefaultResourceConfig(CachedTestResource.class, ApiVersionRoutingDispatchAdapter.class);
+        resourceConfig.getProperties().put(ResourceConfig.PROPERTY_RESOURCE_FILTER_FACTORIES, Collections.singletonList(factory));
+        return resourceConfig;
+    }
+
+    @Override
+    protected TestContainerFactory getTestContainerFactory() {
+        return new GrizzlyTestContainerFactory();
+    }
+
+    @Before
+    public void clearCache() {
+        CACHE.clear();
+    }
+
+    @Test
+    public void versionsServedByOneMethodShareAnEntry() {
+        String first = get("/cached", "2").getEntity(String.class);
+
+        assertThat(get("/cached", "2.0").getEntity(String.class), equalTo(first));
+        assertThat(get("/cached", "2.5").getEntity(String.class), equalTo(first));
+        assertThat(CACHE.size(), is(1));
+    }
+
+    @Test
+    public void versionsServedByDifferentMethodsHaveTheirOwnEntries() {
+        String current = get("/cached", "2").getEntity(String.class);
+        String legacy = get("/cached", "1.2").getEntity(String.class);
+
+        assertThat(legacy, not(equalTo(current)));
+        assertThat(get("/cached", "1.5").getEntity(String.class), equalTo(legacy));
+        assertThat(get("/cached", "3").getEntity(String.class), equalTo(current));
+    }
+
+    @Test
+    public void responsesVaryByTheVersionHeader() {
+        ClientResponse stored = get("/cached", "2");
+        ClientResponse cached = get("/cached", "2");
+
+        assertThat(stored.getHeaders().getFirst(HttpHeaders.VARY), equalTo(VERSION_HEADER_NAME));
+        assertThat(cached.getHeaders().getFirst(HttpHeaders.VARY), equalTo(VERSION_HEADER_NAME));
+        assertThat(cached.getHeaders().getFirst("Age"), notNullValue());
+    }
+
+    @Test
+    public void matchingIfNoneMatchIsAnsweredWithNotModified() {
+        ClientResponse stored = get("/cached", "2");
+        String etag = stored.getHeaders().getFirst(HttpHeaders.ETAG);
+
+        ClientResponse revalidated = resource().path("/cached")
+                .header(VERSION_HEADER_NAME, "2.3")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)
+                .get(ClientResponse.class);
+
+        assertThat(etag, notNullValue());
+        assertThat(revalidated.getStatus(), is(Response.Status.NOT_MODIFIED.getStatusCode()));
+        assertThat(revalidated.getHeaders().getFirst(HttpHeaders.ETAG), equalTo(etag));
+    }
+
+    @Test
+    public void privateResponsesAreNotStored() {
+        String first = get("/cached/private", "2").getEntity(String.class);
+
+        assertThat(get("/cached/private", "2").getEntity(String.class), not(equalTo(first)));
+        assertThat(CACHE.size(), is(0));
+    }
+
+    @Test
+    public void responsesVaryingByOtherHeadersAreNotStored() {
+        ClientResponse first = get("/cached/localized", "2");
+
+        assertThat(first.getHeaders().getFirst(HttpHeaders.VARY), equalTo(HttpHeaders.ACCEPT_LANGUAGE + ", " + VERSION_HEADER_NAME));
+        assertThat(get("/cached/localized", "2").getEntity(String.class), not(equalTo(first.getEntity(String.class))));
+        assertThat(CACHE.size(), is(0));
+    }
+
+    @Test
+    public void methodsWithOtherFiltersAreNotCached() {
+        String first = get("/cached/restricted", "2").getEntity(String.class);
+
+        assertThat(get("/cached/restricted", "2").getEntity(String.class), not(equalTo(first)));
+        assertThat(CACHE.size(), is(0));
+    }
+
+    @Test
+    public void rejectedVersionsAreNotAnsweredFromTheCache() {
+        get("/cached", "2");
+
+        assertThat(get("/cached", "1.8").getStatus(), is(Response.Status.BAD_REQUEST.getStatusCode()));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        String first = get("/cached", "2").getEntity(String.class);
+        get("/cached", "1");
+        resource().path("/cached").queryParam("page", "2").header(VERSION_HEADER_NAME, "2").get(String.class);
+
+        assertThat(CACHE.size(), is(2));
+        assertThat(get("/cached", "2").getEntity(String.class), not(equalTo(first)));
+    }
+
+    @Test
+    public void ifNoneMatchComparesTagsWeakly() {
+        assertThat(VersionedResponseCache.matches("\"other\", W/\"abc\"", "abc"), is(true));
+        assertThat(VersionedResponseCache.matches("*", "abc"), is(true));
+        assertThat(VersionedResponseCache.matches("\"abcd\"", "abc"), is(false));
+    }
+
+    private ClientResponse get(String path, String version) {
+        return resource().path(path).header(VERSION_HEADER_NAME, version).get(ClientResponse.class);
+    }
+}
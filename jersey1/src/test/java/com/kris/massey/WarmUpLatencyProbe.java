@@ -0,0 +1,87 @@
+package com.kris.massey;
+
+import com.sun.jersey.api.model.AbstractResource;
+import com.sun.jersey.api.model.AbstractResourceMethod;
+import com.sun.jersey.core.header.InBoundHeaders;
+import com.sun.jersey.spi.container.ContainerRequest;
+import com.sun.jersey.spi.container.ContainerRequestFilter;
+import com.sun.jersey.spi.container.WebApplication;
+import com.sun.jersey.spi.container.WebApplicationFactory;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run in a fresh JVM by {@link ApiVersionWarmUpSoakTest}: creates the filters of {@link TestResource}, warms them up when
+ * asked to, and writes how long the first requests through the filter of one method take to the file it is given, one
+ * measurement per line.
+ */
+public class WarmUpLatencyProbe {
+
+    static final int REQUESTS = 1000;
+    private static final String[] VERSIONS = {"2.5", "4", null, "two.five"};
+
+    /**
+     * @param args the mode, "cold" or "warm", and the file to write the measurements to.
+     */
+    public static void main(String[] args) throws Exception {
+        ApiVersionResourceFilterFactory factory = new ApiVersionResourceFilterFactory();
+        ContainerRequestFilter measured = null;
+        for (Method method : TestResource.class.getMethods()) {
+            if (method.isAnnotationPresent(GET.class)) {
+                AbstractResourceMethod resourceMethod = new AbstractResourceMethod(new AbstractResource(TestResource.class), method,
+                        method.getReturnType(), method.getGenericReturnType(), HttpMethod.GET, method.getAnnotations());
+                ContainerRequestFilter filter = factory.create(resourceMethod).get(0).getRequestFilter();
+                if (method.getName().equals("requiredMinTwoMaxThree")) {
+                    measured = filter;
+                }
+            }
+        }
+
+        if (args[0].equals("warm")) {
+            factory.warmUp(60, TimeUnit.SECONDS);
+        }
+
+        WebApplication application = WebApplicationFactory.createWebApplication();
+        PrintWriter measurements = new PrintWriter(new File(args[1]), "UTF-8");
+        try {
+            long total = 0;
+            for (int i = 0; i < REQUESTS; i++) {
+                String version = VERSIONS[i % VERSIONS.length];
+                long latency = send(application, measured, version);
+                total += latency;
+                if (i < VERSIONS.length) {
+                    measurements.println("first-" + version + " " + latency);
+                }
+            }
+            measurements.println("total " + total);
+        } finally {
+            measurements.close();
+        }
+    }
+
+    private static long send(WebApplication application, ContainerRequestFilter filter, String version) {
+        InBoundHeaders headers = new InBoundHeaders();
+        if (version != null) {
+            headers.putSingle("Version", version);
+        }
+        URI baseUri = URI.create("http://localhost/");
+        ContainerRequest request = new ContainerRequest(application, "GET", baseUri, baseUri.resolve("required/min/two/max/three"),
+                headers, new ByteArrayInputStream(new byte[0]));
+
+        long start = System.nanoTime();
+        try {
+            filter.filter(request);
+        } catch (WebApplicationException e) {
+            // Rejected, as the out of range, missing and malformed versions are.
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,24 @@
+package com.kris.massey.jersey2.benchmark;
+
+import com.kris.massey.ApiVersion;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+@Path("/")
+public class BenchmarkResource {
+
+    @GET
+    @ApiVersion(minVersion = 2, maxVersion = 3)
+    @Path("/versioned")
+    public String versioned() {
+        return "versioned";
+    }
+
+    @GET
+    @ApiVersion(minVersion = 1, maxVersion = 1.5f)
+    @Path("/legacy")
+    public String legacy() {
+        return "legacy";
+    }
+}
@@ -0,0 +1,74 @@
+package com.kris.massey.jersey2.benchmark;
+
+import com.kris.massey.jersey2.ApiVersionFeature;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cost of a whole request through an in-memory Jersey 2 application, without {@link ApiVersionFeature}, with its
+ * method filters only and with the pre-matching filter as well. Without the feature every scenario reaches the resource
+ * method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Jersey2PipelineBenchmark {
+
+    private static final URI BASE_URI = URI.create("http://localhost/");
+    private static final URI REQUEST_URI = BASE_URI.resolve("versioned");
+
+    public enum VersionCheck {
+        NONE, METHOD, PRE_MATCHING
+    }
+
+    @Param
+    private Scenario scenario;
+
+    @Param
+    private VersionCheck versionCheck;
+
+    private ApplicationHandler applicationHandler;
+
+    @Setup
+    public void setUp() {
+        Logger.getLogger("org.glassfish.jersey").setLevel(Level.WARNING);
+
+        ResourceConfig resourceConfig = new ResourceConfig(BenchmarkResource.class);
+        if (versionCheck != VersionCheck.NONE) {
+            resourceConfig.register(new ApiVersionFeature("Version", versionCheck == VersionCheck.PRE_MATCHING));
+        }
+
+        applicationHandler = new ApplicationHandler(resourceConfig);
+    }
+
+    @Benchmark
+    public int handleRequest() throws Exception {
+        ContainerRequest request = new ContainerRequest(BASE_URI, REQUEST_URI, "GET", null, new MapPropertiesDelegate());
+        if (scenario.versionHeader() != null) {
+            request.header("Version", scenario.versionHeader());
+        }
+
+        return applicationHandler.apply(request).get().getStatus();
+    }
+}
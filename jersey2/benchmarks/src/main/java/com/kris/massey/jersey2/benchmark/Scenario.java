@@ -0,0 +1,26 @@
+package com.kris.massey.jersey2.benchmark;
+
+/**
+ * The kinds of request every benchmark is run with, against a method supporting versions 2 to 3 with the header
+ * required. Another method supports 1 to 1.5, so versions from 1 to 3 pass the pre-matching check.
+ */
+public enum Scenario {
+
+    ACCEPT("2.5"),
+    // Supported by the other method, so only the method filter can reject it.
+    REJECT_AFTER_MATCHING("1.2"),
+    // Supported by no method, so the pre-matching filter rejects it.
+    REJECT_BEFORE_MATCHING("4"),
+    MISSING(null),
+    MALFORMED("INVALID");
+
+    private final String versionHeader;
+
+    Scenario(String versionHeader) {
+        this.versionHeader = versionHeader;
+    }
+
+    String versionHeader() {
+        return versionHeader;
+    }
+}
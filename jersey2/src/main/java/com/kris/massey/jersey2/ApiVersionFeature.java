@@ -0,0 +1,151 @@
+package com.kris.massey.jersey2;
+
+import com.kris.massey.ApiVersion;
+import com.kris.massey.VersionOutcome;
+import com.kris.massey.VersionPathTable;
+import com.kris.massey.VersionRequirement;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Checks {@link ApiVersion} ranges in Jersey 2, and any other JAX-RS 2 container, as
+ * {@code ApiVersionResourceFilterFactory} does in Jersey 1.
+ *
+ * A {@link DynamicFeature} binds a request filter to each method annotated with {@link ApiVersion}, directly or through
+ * its class, with the ranges merged once when the application starts. Unversioned methods get no filter at all.
+ *
+ * In pre-matching mode a {@link PreMatching} filter also checks each request, before Jersey matches it to a resource
+ * method, against the versioned methods whose {@code @Path} template and HTTP method it could match, as
+ * {@code ApiVersionServletFilter} does. A version none of them supports, or one that does not parse, is
+ * rejected without the cost of matching. Paths of unversioned methods, paths below sub-resource locators and paths no
+ * annotated resource class declares are left to Jersey whatever version they carry. Resources built programmatically
+ * are only checked by their method filters. {@link com.kris.massey.ApiVersionAlternative} routing is not supported.
+ *
+ * <pre>
+ * resourceConfig.register(new ApiVersionFeature("Version", true));
+ * </pre>
+ */
+public class ApiVersionFeature implements Feature {
+
+    private final String versionHeaderName;
+    private final boolean preMatching;
+
+    public ApiVersionFeature() {
+        this("Version", false);
+    }
+
+    /**
+     * @param versionHeaderName the name of the header the version is sent in.
+     * @param preMatching true to also reject versions no method supports before resource matching.
+     */
+    public ApiVersionFeature(String versionHeaderName, boolean preMatching) {
+        this.versionHeaderName = versionHeaderName;
+        this.preMatching = preMatching;
+    }
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        PreMatchingVersionFilter preMatchingFilter = null;
+        if (preMatching) {
+            preMatchingFilter = new PreMatchingVersionFilter(versionHeaderName);
+            context.register(preMatchingFilter);
+        }
+
+        context.register(new MethodBinding(versionHeaderName, preMatchingFilter));
+        return true;
+    }
+
+    private static final class MethodBinding implements DynamicFeature {
+
+        private final String versionHeaderName;
+        private final PreMatchingVersionFilter preMatchingFilter;
+
+        private MethodBinding(String versionHeaderName, PreMatchingVersionFilter preMatchingFilter) {
+            this.versionHeaderName = versionHeaderName;
+            this.preMatchingFilter = preMatchingFilter;
+        }
+
+        @Override
+        public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+            VersionRequirement requirement = VersionRequirement.forMethod(versionHeaderName,
+                    resourceInfo.getResourceClass(), resourceInfo.getResourceMethod());
+
+            if (requirement != null) {
+                context.register(new VersionFilter(requirement));
+            }
+
+            // Classes of unversioned methods are entered too, so their paths are let through whatever the version.
+            if (preMatchingFilter != null) {
+                preMatchingFilter.add(resourceInfo.getResourceClass());
+            }
+        }
+    }
+
+    private static final class VersionFilter implements ContainerRequestFilter {
+
+        private final VersionRequirement requirement;
+
+        private VersionFilter(VersionRequirement requirement) {
+            this.requirement = requirement;
+        }
+
+        @Override
+        public void filter(ContainerRequestContext requestContext) {
+            VersionOutcome outcome = requirement.check(requestContext.getHeaderString(requirement.getVersionHeaderName()));
+
+            if (outcome != VersionOutcome.ACCEPTED) {
+                requestContext.abortWith(requirement.rejection());
+            }
+        }
+    }
+
+    @PreMatching
+    private static final class PreMatchingVersionFilter implements ContainerRequestFilter {
+
+        private final String versionHeaderName;
+        // Added to as methods are bound while the application starts, and built into the table by the first request.
+        private final Set<Class<?>> resourceClasses = new LinkedHashSet<Class<?>>();
+        private volatile VersionPathTable pathTable;
+
+        private PreMatchingVersionFilter(String versionHeaderName) {
+            this.versionHeaderName = versionHeaderName;
+        }
+
+        private synchronized void add(Class<?> resourceClass) {
+            if (resourceClasses.add(resourceClass)) {
+                pathTable = null;
+            }
+        }
+
+        private synchronized VersionPathTable buildPathTable() {
+            if (pathTable == null) {
+                pathTable = VersionPathTable.forResourceClasses(versionHeaderName, new ArrayList<Class<?>>(resourceClasses));
+            }
+            return pathTable;
+        }
+
+        @Override
+        public void filter(ContainerRequestContext requestContext) {
+            VersionPathTable pathTable = this.pathTable;
+            if (pathTable == null) {
+                pathTable = buildPathTable();
+            }
+
+            VersionRequirement rejectedBy = pathTable.rejectedBy(requestContext.getMethod(),
+                    VersionPathTable.normalize(requestContext.getUriInfo().getPath()), requestContext.getHeaderString(versionHeaderName));
+
+            if (rejectedBy != null) {
+                requestContext.abortWith(rejectedBy.rejection());
+            }
+        }
+    }
+}
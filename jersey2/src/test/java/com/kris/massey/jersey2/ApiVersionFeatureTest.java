@@ -0,0 +1,58 @@
+package com.kris.massey.jersey2;
+
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.test.JerseyTest;
+import org.junit.Test;
+
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Response;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+
+public class ApiVersionFeatureTest extends JerseyTest {
+
+    @Override
+    protected Application configure() {
+        return new ResourceConfig(TestResource.class).register(new ApiVersionFeature());
+    }
+
+    @Test
+    public void versionWithinRangeIsAccepted() {
+        assertThat(get("requiredMinTwoMaxThree", "2.5").getStatus(), is(200));
+    }
+
+    @Test
+    public void versionOutsideRangeIsRejectedWithRange() {
+        Response response = get("requiredMinTwoMaxThree", "4");
+
+        assertThat(response.getStatus(), is(400));
+        assertThat(response.readEntity(String.class), containsString("\"maxVersion\":3.0"));
+    }
+
+    @Test
+    public void requiredHeaderMustBeSent() {
+        assertThat(get("requiredMinTwoMaxThree", null).getStatus(), is(400));
+        assertThat(get("minOneMaxTwoNotRequired", null).getStatus(), is(200));
+    }
+
+    @Test
+    public void malformedVersionIsRejected() {
+        assertThat(get("requiredMinTwoMaxThree", "two").getStatus(), is(400));
+    }
+
+    @Test
+    public void unversionedMethodIsNotFiltered() {
+        assertThat(get("unversioned", "two").getStatus(), is(200));
+    }
+
+    @Test
+    public void unknownPathIsNotFound() {
+        assertThat(get("unknown", "4").getStatus(), is(404));
+    }
+
+    private Response get(String path, String version) {
+        return target(path).request().header("Version", version).get();
+    }
+}
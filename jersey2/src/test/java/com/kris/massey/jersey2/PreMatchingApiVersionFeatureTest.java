@@ -0,0 +1,55 @@
+package com.kris.massey.jersey2;
+
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.test.JerseyTest;
+import org.junit.Test;
+
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Response;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.StringContains.containsString;
+
+public class PreMatchingApiVersionFeatureTest extends JerseyTest {
+
+    @Override
+    protected Application configure() {
+        return new ResourceConfig(TestResource.class).register(new ApiVersionFeature("Version", true));
+    }
+
+    @Test
+    public void versionTheMethodOfThePathDoesNotSupportIsRejected() {
+        Response response = get("minOneMaxTwoNotRequired", "2.5");
+
+        assertThat(response.getStatus(), is(400));
+        assertThat(response.readEntity(String.class), containsString("\"minVersion\":1.0,\"maxVersion\":2.0"));
+    }
+
+    @Test
+    public void unversionedPathIsServedWhateverTheVersion() {
+        assertThat(get("unversioned", "4").getStatus(), is(200));
+        assertThat(get("unversioned", "two").getStatus(), is(200));
+    }
+
+    @Test
+    public void unknownPathIsLeftToJersey() {
+        assertThat(get("unknown", "4").getStatus(), is(404));
+    }
+
+    @Test
+    public void missingVersionIsLeftToMethodFilter() {
+        assertThat(get("requiredMinTwoMaxThree", null).getStatus(), is(400));
+        assertThat(get("minOneMaxTwoNotRequired", null).getStatus(), is(200));
+        assertThat(get("unversioned", null).getStatus(), is(200));
+    }
+
+    @Test
+    public void supportedVersionIsAccepted() {
+        assertThat(get("requiredMinTwoMaxThree", "3").getStatus(), is(200));
+    }
+
+    private Response get(String path, String version) {
+        return target(path).request().header("Version", version).get();
+    }
+}
@@ -0,0 +1,30 @@
+package com.kris.massey.jersey2;
+
+import com.kris.massey.ApiVersion;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+@Path("/")
+public class TestResource {
+
+    @GET
+    @ApiVersion(minVersion = 2, maxVersion = 3)
+    @Path("/requiredMinTwoMaxThree")
+    public String requiredMinTwoMaxThree() {
+        return "requiredMinTwoMaxThree";
+    }
+
+    @GET
+    @ApiVersion(headerRequired = false, minVersion = 1, maxVersion = 2)
+    @Path("/minOneMaxTwoNotRequired")
+    public String minOneMaxTwoNotRequired() {
+        return "minOneMaxTwoNotRequired";
+    }
+
+    @GET
+    @Path("/unversioned")
+    public String unversioned() {
+        return "unversioned";
+    }
+}